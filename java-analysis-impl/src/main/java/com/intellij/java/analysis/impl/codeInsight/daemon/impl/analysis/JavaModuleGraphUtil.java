@@ -43,6 +43,7 @@ import consulo.virtualFileSystem.fileType.FileTypeRegistry;
 import org.jspecify.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.jar.JarFile;
@@ -461,9 +462,15 @@ public final class JavaModuleGraphUtil {
     return PsiUtilCore.getVirtualFile(module);
   }
 
+  /**
+   * Readability of a module and the origins of packages visible in it are computed once per module and kept
+   * as long as the graph, i.e. until a module descriptor or project roots change.
+   */
   private static final class RequiresGraph {
     private final Graph<PsiJavaModule> myGraph;
     private final Set<String> myTransitiveEdges;
+    private final Map<PsiJavaModule, Set<PsiJavaModule>> myReadModules = new ConcurrentHashMap<>();
+    private final Map<PsiJavaModule, Map<String, PsiJavaModule>> myPackageOrigins = new ConcurrentHashMap<>();
 
     private RequiresGraph(Graph<PsiJavaModule> graph, Set<String> transitiveEdges) {
       myGraph = graph;
@@ -477,23 +484,31 @@ public final class JavaModuleGraphUtil {
       if (!nodes.contains(destination) || !nodes.contains(source)) {
         return false;
       }
+      return myReadModules.computeIfAbsent(source, this::collectReadModules).contains(destination);
+    }
 
+    /**
+     * @return direct dependencies of the module and the modules they require transitively
+     */
+    private Set<PsiJavaModule> collectReadModules(PsiJavaModule source) {
+      Set<PsiJavaModule> result = new HashSet<>();
       UniqueBuffer<PsiJavaModule> buffer = new UniqueBuffer<>();
-      buffer.add(destination);
+      for (Iterator<PsiJavaModule> iterator = myGraph.getIn(source); iterator.hasNext(); ) {
+        PsiJavaModule dependency = iterator.next();
+        result.add(dependency);
+        buffer.add(dependency);
+      }
       while (!buffer.isEmpty()) {
-        destination = buffer.poll();
-        Iterator<PsiJavaModule> directReaders = myGraph.getOut(destination);
-        while (directReaders.hasNext()) {
-          PsiJavaModule next = directReaders.next();
-          if (source.equals(next)) {
-            return true;
-          }
-          if (myTransitiveEdges.contains(key(destination, next)) && !next.equals(destination)) {
-            buffer.add(next);
+        PsiJavaModule module = buffer.poll();
+        for (Iterator<PsiJavaModule> iterator = myGraph.getIn(module); iterator.hasNext(); ) {
+          PsiJavaModule dependency = iterator.next();
+          if (myTransitiveEdges.contains(key(dependency, module)) && !dependency.equals(module)) {
+            result.add(dependency);
+            buffer.add(dependency);
           }
         }
       }
-      return false;
+      return result;
     }
 
     public Trinity<String, PsiJavaModule, PsiJavaModule> findConflict(PsiJavaModule source) {
@@ -509,7 +524,19 @@ public final class JavaModuleGraphUtil {
     }
 
     public PsiJavaModule findOrigin(PsiJavaModule module, String packageName) {
-      return processExports(getPhysicalModule(module), (pkg, m) -> packageName.equals(pkg) ? m : null);
+      return myPackageOrigins.computeIfAbsent(getPhysicalModule(module), this::collectPackageOrigins).get(packageName);
+    }
+
+    /**
+     * @return packages exported to the module by the modules it reads, each with the first exporter found
+     */
+    private Map<String, PsiJavaModule> collectPackageOrigins(PsiJavaModule module) {
+      Map<String, PsiJavaModule> origins = new HashMap<>();
+      processExports(module, (pkg, m) -> {
+        origins.putIfAbsent(pkg, m);
+        return null;
+      });
+      return origins;
     }
 
     private <T> T processExports(PsiJavaModule start, BiFunction<String, PsiJavaModule, T> processor) {
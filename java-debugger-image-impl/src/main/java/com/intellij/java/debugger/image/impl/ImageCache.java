@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.debugger.image.impl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small LRU of images transferred from the debuggee.
+ * <p>
+ * Images have no modification counter, so the time stamp of the VM stands in for one: it changes each time the debuggee runs,
+ * method invocations of evaluations included. An image is put with the time stamp taken after the invocation fetching it,
+ * so re-expanding a node is served from the cache as long as nothing has run in the debuggee since.
+ */
+final class ImageCache<I> {
+    static final int MAX_CACHED_IMAGES = 50;
+
+    private final Map<ImageKey, I> myImages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ImageKey, I> eldest) {
+            return size() > MAX_CACHED_IMAGES;
+        }
+    };
+
+    @Nullable
+    synchronized I get(long objectId, String methodName, int timeStamp) {
+        return myImages.get(new ImageKey(objectId, methodName, timeStamp));
+    }
+
+    synchronized void put(long objectId, String methodName, int timeStamp, I image) {
+        myImages.put(new ImageKey(objectId, methodName, timeStamp), image);
+    }
+
+    private record ImageKey(long objectId, String methodName, int timeStamp) {
+    }
+}
@@ -22,6 +22,8 @@ import com.intellij.java.debugger.engine.evaluation.EvaluationContext;
 import com.intellij.java.debugger.impl.ClassLoadingUtils;
 import com.intellij.java.debugger.impl.engine.FullValueEvaluatorProvider;
 import com.intellij.java.debugger.impl.engine.evaluation.EvaluationContextImpl;
+import com.intellij.java.debugger.impl.jdi.ChunkedValueReader;
+import com.intellij.java.debugger.impl.jdi.VirtualMachineProxyImpl;
 import com.intellij.java.debugger.impl.settings.NodeRendererSettings;
 import com.intellij.java.debugger.impl.ui.impl.watch.ValueDescriptorImpl;
 import com.intellij.java.debugger.impl.ui.tree.render.CustomPopupFullValueEvaluator;
@@ -40,6 +42,7 @@ import consulo.ui.Label;
 import consulo.ui.ex.awtUnsafe.TargetAWT;
 import consulo.ui.image.Image;
 import consulo.ui.image.ImageEffects;
+import consulo.util.dataholder.Key;
 import org.jspecify.annotations.Nullable;
 import jakarta.inject.Inject;
 
@@ -53,6 +56,7 @@ import java.util.List;
 @ExtensionImpl
 class ImageObjectRenderer extends ToStringBasedRenderer implements FullValueEvaluatorProvider {
     private static final Logger LOG = Logger.getInstance(ImageObjectRenderer.class);
+    private static final Key<ImageCache<Image>> IMAGES_CACHE = Key.create("IMAGES_CACHE");
 
     @Inject
     public ImageObjectRenderer(final NodeRendererSettings rendererSettings) {
@@ -68,7 +72,7 @@ class ImageObjectRenderer extends ToStringBasedRenderer implements FullValueEval
         return new IconPopupEvaluator(JavaDebuggerLocalize.messageNodeShowImage(), evaluationContext) {
             @Override
             protected Image getData() {
-                return getIcon(getEvaluationContext(), valueDescriptor.getValue(), "imageToBytes");
+                return getIcon(getEvaluationContext(), valueDescriptor.getValue(), "imageToBytesPreview");
             }
         };
     }
@@ -84,11 +88,25 @@ class ImageObjectRenderer extends ToStringBasedRenderer implements FullValueEval
     @Nullable
     static Image getIcon(EvaluationContext evaluationContext, Value obj, String methodName) {
         try {
+            DebugProcess process = evaluationContext.getDebugProcess();
+            VirtualMachineProxyImpl virtualMachine = (VirtualMachineProxyImpl) process.getVirtualMachineProxy();
+            long objectId = obj instanceof ObjectReference objectReference ? objectReference.uniqueID() : -1;
+            ImageCache<Image> cache = getImagesCache(process);
+            Image cached = objectId != -1 ? cache.get(objectId, methodName, virtualMachine.getCurrentTime()) : null;
+            if (cached != null) {
+                return cached;
+            }
+
             Value bytes = getImageBytes(evaluationContext, obj, methodName);
             byte[] data = readBytes(bytes);
             if (data != null) {
                 Image imageFromBytes = Image.fromBytes(Image.ImageType.PNG, data);
-                return ImageEffects.resize(imageFromBytes, Image.DEFAULT_ICON_SIZE, Image.DEFAULT_ICON_SIZE);
+                Image image = ImageEffects.resize(imageFromBytes, Image.DEFAULT_ICON_SIZE, Image.DEFAULT_ICON_SIZE);
+                if (objectId != -1) {
+                    // the invocation fetching the image has changed the time stamp, the image is valid from the new one on
+                    cache.put(objectId, methodName, virtualMachine.getCurrentTime(), image);
+                }
+                return image;
             }
         }
         catch (Exception e) {
@@ -97,6 +115,15 @@ class ImageObjectRenderer extends ToStringBasedRenderer implements FullValueEval
         return null;
     }
 
+    private static ImageCache<Image> getImagesCache(DebugProcess process) {
+        ImageCache<Image> cache = process.getUserData(IMAGES_CACHE);
+        if (cache == null) {
+            cache = new ImageCache<>();
+            process.putUserData(IMAGES_CACHE, cache);
+        }
+        return cache;
+    }
+
     private static Value getImageBytes(EvaluationContext evaluationContext, Value obj, String methodName) throws EvaluateException {
         DebugProcess process = evaluationContext.getDebugProcess();
         EvaluationContext copyContext = evaluationContext.createEvaluationContext(obj);
@@ -112,19 +139,8 @@ class ImageObjectRenderer extends ToStringBasedRenderer implements FullValueEval
     }
 
     private static byte[] readBytes(Value bytes) {
-        if (bytes instanceof ArrayReference) {
-            List<Value> values = ((ArrayReference) bytes).getValues();
-            byte[] res = new byte[values.size()];
-            int idx = 0;
-            for (Value value : values) {
-                if (value instanceof ByteValue) {
-                    res[idx++] = ((ByteValue) value).value();
-                }
-                else {
-                    return null;
-                }
-            }
-            return res;
+        if (bytes instanceof ArrayReference array && "byte".equals(((ArrayType) array.type()).componentTypeName())) {
+            return ChunkedValueReader.readBytes(array);
         }
         return null;
     }
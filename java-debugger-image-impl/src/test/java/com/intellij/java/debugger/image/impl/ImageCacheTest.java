@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.debugger.image.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ImageCacheTest {
+    @Test
+    public void secondLookupWithoutRunningHits() {
+        ImageCache<String> cache = new ImageCache<>();
+        assertNull(cache.get(1, "imageToBytesPreview", 5));
+        cache.put(1, "imageToBytesPreview", 5, "image");
+
+        assertEquals("image", cache.get(1, "imageToBytesPreview", 5));
+    }
+
+    @Test
+    public void resumeOrInvocationMisses() {
+        ImageCache<String> cache = new ImageCache<>();
+        cache.put(1, "imageToBytesPreview", 5, "image");
+
+        // the time stamp changes with a resume of the debuggee and with a method invocation of an evaluation alike
+        assertNull(cache.get(1, "imageToBytesPreview", 6));
+        assertNull(cache.get(1, "imageToBytes", 5));
+        assertNull(cache.get(2, "imageToBytesPreview", 5));
+    }
+
+    @Test
+    public void leastRecentlyUsedEvicted() {
+        ImageCache<String> cache = new ImageCache<>();
+        for (int i = 0; i <= ImageCache.MAX_CACHED_IMAGES; i++) {
+            cache.put(i, "imageToBytesPreview", 0, "image" + i);
+            // keeps the first image recently used
+            assertEquals("image0", cache.get(0, "imageToBytesPreview", 0));
+        }
+
+        assertEquals("image0", cache.get(0, "imageToBytesPreview", 0));
+        assertNull(cache.get(1, "imageToBytesPreview", 0));
+    }
+}
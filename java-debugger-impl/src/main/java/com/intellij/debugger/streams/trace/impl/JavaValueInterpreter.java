@@ -3,6 +3,8 @@ package com.intellij.debugger.streams.trace.impl;
 
 import com.intellij.java.debugger.engine.DebuggerUtils;
 import com.intellij.java.debugger.impl.engine.JavaValue;
+import com.intellij.java.debugger.impl.engine.SuspendContextImpl;
+import com.intellij.java.debugger.impl.engine.events.SuspendContextCommandImpl;
 import com.intellij.java.language.psi.CommonClassNames;
 import consulo.execution.debug.XDebugSession;
 import consulo.execution.debug.frame.XValue;
@@ -16,39 +18,63 @@ import java.util.concurrent.CompletableFuture;
 public class JavaValueInterpreter implements XValueInterpreter {
     @Override
     public CompletableFuture<Result> extract(XDebugSession session, XValue result) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (result instanceof JavaValue javaValue) {
-                Value reference = javaValue.getDescriptor().getValue();
-                if (reference instanceof ArrayReference arrayRef) {
-                    return new Result.Array(
-                        new JvmArrayReference(arrayRef),
-                        hasInnerExceptions(arrayRef),
-                        new JavaEvaluationContext(javaValue.getEvaluationContext())
-                    );
+        if (!(result instanceof JavaValue javaValue)) {
+            return CompletableFuture.completedFuture(Result.Unknown.INSTANCE);
+        }
+        // the result is read over JDI, which is done on the debugger manager thread only
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        SuspendContextImpl suspendContext = javaValue.getEvaluationContext().getSuspendContext();
+        suspendContext.getDebugProcess().getManagerThread().schedule(new SuspendContextCommandImpl(suspendContext) {
+            @Override
+            public void contextAction(SuspendContextImpl suspendContext) {
+                try {
+                    future.complete(extract(javaValue));
                 }
-                else if (reference instanceof ObjectReference objRef) {
-                    ReferenceType type = objRef.referenceType();
-                    ClassType classType = type instanceof ClassType ? (ClassType) type : null;
-                    if (classType != null) {
-                        while (classType != null && !CommonClassNames.JAVA_LANG_THROWABLE.equals(classType.name())) {
-                            classType = classType.superclass();
-                        }
-                        if (classType != null) {
-                            String exceptionMessage = DebuggerUtils.tryExtractExceptionMessage(objRef);
-                            LocalizeValue descriptionWithReason;
-                            if (exceptionMessage == null) {
-                                descriptionWithReason = XDebuggerLocalize.streamDebuggerEvaluationFailedWithException(type.name());
-                            }
-                            else {
-                                descriptionWithReason = XDebuggerLocalize.streamDebuggerEvaluationFailedWithExceptionAndMessage(type.name(), exceptionMessage);
-                            }
-                            return new Result.Error(descriptionWithReason.get());
-                        }
-                    }
+                catch (Throwable e) {
+                    future.completeExceptionally(e);
                 }
             }
-            return Result.Unknown.INSTANCE;
+
+            @Override
+            protected void commandCancelled() {
+                future.complete(Result.Unknown.INSTANCE);
+            }
         });
+        return future;
+    }
+
+    private Result extract(JavaValue javaValue) {
+        Value reference = javaValue.getDescriptor().getValue();
+        if (reference instanceof ArrayReference arrayRef) {
+            JvmArrayReference array = new JvmArrayReference(arrayRef);
+            array.preload();
+            return new Result.Array(
+                array,
+                hasInnerExceptions(arrayRef),
+                new JavaEvaluationContext(javaValue.getEvaluationContext())
+            );
+        }
+        else if (reference instanceof ObjectReference objRef) {
+            ReferenceType type = objRef.referenceType();
+            ClassType classType = type instanceof ClassType ? (ClassType) type : null;
+            if (classType != null) {
+                while (classType != null && !CommonClassNames.JAVA_LANG_THROWABLE.equals(classType.name())) {
+                    classType = classType.superclass();
+                }
+                if (classType != null) {
+                    String exceptionMessage = DebuggerUtils.tryExtractExceptionMessage(objRef);
+                    LocalizeValue descriptionWithReason;
+                    if (exceptionMessage == null) {
+                        descriptionWithReason = XDebuggerLocalize.streamDebuggerEvaluationFailedWithException(type.name());
+                    }
+                    else {
+                        descriptionWithReason = XDebuggerLocalize.streamDebuggerEvaluationFailedWithExceptionAndMessage(type.name(), exceptionMessage);
+                    }
+                    return new Result.Error(descriptionWithReason.get());
+                }
+            }
+        }
+        return Result.Unknown.INSTANCE;
     }
 
     private boolean hasInnerExceptions(ArrayReference resultArray) {
@@ -1,9 +1,12 @@
 // Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
 package com.intellij.debugger.streams.trace.impl;
 
+import com.intellij.java.debugger.impl.engine.DebuggerManagerThreadImpl;
+import com.intellij.java.debugger.impl.jdi.ChunkedValueReader;
 import consulo.internal.com.sun.jdi.*;
 import org.jspecify.annotations.Nullable;
 
+import java.util.List;
 import java.util.Objects;
 
 public class JvmValue implements consulo.execution.debug.stream.trace.Value {
@@ -77,8 +80,13 @@ public class JvmValue implements consulo.execution.debug.stream.trace.Value {
     }
 }
 
+/**
+ * Trace results are read element by element by the parser, so the whole array is transferred with bulk reads on the first access,
+ * and converted elements are kept, so nested arrays are read only once too.
+ */
 class JvmArrayReference extends JvmValue implements consulo.execution.debug.stream.trace.ArrayReference {
     private final consulo.internal.com.sun.jdi.ArrayReference reference;
+    private volatile consulo.execution.debug.stream.trace.Value[] values;
 
     JvmArrayReference(consulo.internal.com.sun.jdi.ArrayReference reference) {
         super(reference);
@@ -87,12 +95,42 @@ class JvmArrayReference extends JvmValue implements consulo.execution.debug.stre
 
     @Override
     public consulo.execution.debug.stream.trace.@Nullable Value getValue(int i) {
-        return JvmValue.convertJvmValueToStreamValue(reference.getValue(i));
+        return getValues()[i];
     }
 
     @Override
     public int length() {
-        return reference.length();
+        return values != null ? values.length : reference.length();
+    }
+
+    /**
+     * Loads this array and its nested arrays (traces of separate operations), so that the parser does not read them element by element
+     */
+    void preload() {
+        DebuggerManagerThreadImpl.assertIsManagerThread();
+        for (consulo.execution.debug.stream.trace.Value value : getValues()) {
+            if (value instanceof JvmArrayReference array) {
+                array.getValues();
+            }
+        }
+    }
+
+    private consulo.execution.debug.stream.trace.Value[] getValues() {
+        consulo.execution.debug.stream.trace.Value[] result = values;
+        if (result == null) {
+            synchronized (this) {
+                result = values;
+                if (result == null) {
+                    List<consulo.internal.com.sun.jdi.Value> jvmValues = ChunkedValueReader.readValues(reference);
+                    result = new consulo.execution.debug.stream.trace.Value[jvmValues.size()];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = JvmValue.convertJvmValueToStreamValue(jvmValues.get(i));
+                    }
+                    values = result;
+                }
+            }
+        }
+        return result;
     }
 }
 
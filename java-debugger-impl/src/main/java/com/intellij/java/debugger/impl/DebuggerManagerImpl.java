@@ -29,6 +29,7 @@ import com.intellij.java.debugger.impl.engine.RemoteDebugProcessHandler;
 import com.intellij.java.debugger.impl.settings.DebuggerSettings;
 import com.intellij.java.debugger.impl.ui.GetJPDADialog;
 import com.intellij.java.debugger.impl.ui.breakpoints.BreakpointManager;
+import com.intellij.java.debugger.impl.ui.breakpoints.StackCapturingLineBreakpoint;
 import com.intellij.java.debugger.impl.ui.tree.render.BatchEvaluator;
 import com.intellij.java.debugger.localize.JavaDebuggerLocalize;
 import com.intellij.java.execution.configurations.RemoteConnection;
@@ -45,6 +46,7 @@ import consulo.content.bundle.Sdk;
 import consulo.execution.ExecutionResult;
 import consulo.java.execution.configurations.OwnJavaParameters;
 import consulo.java.language.bundle.JavaSdkTypeUtil;
+import consulo.java.rt.debugger.CaptureAgentConstants;
 import consulo.localize.LocalizeValue;
 import consulo.logging.Logger;
 import consulo.platform.Platform;
@@ -419,12 +421,18 @@ public class DebuggerManagerImpl extends DebuggerManagerEx {
             debuggeeRunProperties = "\"" + debuggeeRunProperties + "\"";
         }
         String _debuggeeRunProperties = debuggeeRunProperties;
+        String captureAgentArguments = StackCapturingLineBreakpoint.getCaptureAgentArguments();
 
         Application.get().runReadAction(() -> {
             JavaSdkUtil.addRtJar(parameters.getClassPath());
 
             parameters.getVMParametersList().replaceOrPrepend("-Xrunjdwp:", "");
             parameters.getVMParametersList().replaceOrPrepend("-agentlib:jdwp=", "-agentlib:jdwp=" + _debuggeeRunProperties);
+
+            if (captureAgentArguments != null) {
+                String captureAgent = "-javaagent:" + JavaSdkUtil.getJavaRtJarPath() + "=";
+                parameters.getVMParametersList().replaceOrPrepend(captureAgent + CaptureAgentConstants.ARGS_PREFIX, captureAgent + captureAgentArguments);
+            }
         });
 
         return new RemoteConnection(useSockets, "127.0.0.1", address, debuggerInServerMode);
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.debugger.impl.actions;
+
+import com.intellij.java.debugger.impl.DebuggerContextImpl;
+import com.intellij.java.debugger.impl.engine.DebugProcessImpl;
+import com.intellij.java.debugger.impl.engine.JavaValue;
+import com.intellij.java.debugger.impl.engine.events.DebuggerContextCommandImpl;
+import com.intellij.java.debugger.impl.jdi.ChunkedValueReader;
+import com.intellij.java.debugger.localize.JavaDebuggerLocalize;
+import consulo.annotation.component.ActionImpl;
+import consulo.application.Application;
+import consulo.fileEditor.FileEditorManager;
+import consulo.internal.com.sun.jdi.ArrayReference;
+import consulo.internal.com.sun.jdi.ObjectCollectedException;
+import consulo.internal.com.sun.jdi.StringReference;
+import consulo.internal.com.sun.jdi.Value;
+import consulo.logging.Logger;
+import consulo.project.Project;
+import consulo.ui.annotation.RequiredUIAccess;
+import consulo.ui.ex.action.AnActionEvent;
+import consulo.ui.ex.action.AnActionWithSyncUpdate;
+import consulo.util.io.FileUtil;
+import consulo.virtualFileSystem.LocalFileSystem;
+import consulo.virtualFileSystem.VirtualFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams a string or an array value to a temporary file page by page, so huge values never have to fit into the IDE heap.
+ */
+@ActionImpl(id = "Debugger.CopyFullValueToFile")
+public class CopyFullValueToFileAction extends DebuggerAction implements AnActionWithSyncUpdate {
+    private static final Logger LOG = Logger.getInstance(CopyFullValueToFileAction.class);
+
+    public CopyFullValueToFileAction() {
+        super(JavaDebuggerLocalize.actionCopyFullValueToFileText());
+    }
+
+    @Override
+    @RequiredUIAccess
+    public void update(AnActionEvent e) {
+        List<JavaValue> values = ViewAsGroup.getSelectedValues(e);
+        boolean enabled = false;
+        if (values.size() == 1) {
+            Value value = values.get(0).getDescriptor().getValue();
+            enabled = value instanceof StringReference || value instanceof ArrayReference;
+        }
+        e.getPresentation().setEnabledAndVisible(enabled);
+    }
+
+    @Override
+    @RequiredUIAccess
+    public void actionPerformed(AnActionEvent e) {
+        List<JavaValue> values = ViewAsGroup.getSelectedValues(e);
+        Project project = e.getData(Project.KEY);
+        if (values.size() != 1 || project == null) {
+            return;
+        }
+
+        DebuggerContextImpl debuggerContext = getDebuggerContext(e.getDataContext());
+        DebugProcessImpl process = debuggerContext.getDebugProcess();
+        if (process == null) {
+            return;
+        }
+
+        Value value = values.get(0).getDescriptor().getValue();
+        process.getManagerThread().schedule(new DebuggerContextCommandImpl(debuggerContext) {
+            @Override
+            public void threadAction() {
+                try {
+                    File file = FileUtil.createTempFile("debugger-value", ".txt", true);
+                    try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+                        if (value instanceof StringReference stringReference) {
+                            ChunkedValueReader.writeString(stringReference, writer);
+                        }
+                        else if (value instanceof ArrayReference arrayReference) {
+                            ChunkedValueReader.writeArray(arrayReference, writer);
+                        }
+                    }
+                    Application.get().invokeLater(() -> {
+                        VirtualFile virtualFile = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(file);
+                        if (virtualFile != null && !project.isDisposed()) {
+                            FileEditorManager.getInstance(project).openFile(virtualFile, true);
+                        }
+                    });
+                }
+                catch (IOException | ObjectCollectedException ex) {
+                    LOG.info(ex);
+                }
+            }
+        });
+    }
+}
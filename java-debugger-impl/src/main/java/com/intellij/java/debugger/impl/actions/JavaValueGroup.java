@@ -32,6 +32,7 @@ import consulo.ui.ex.action.DefaultActionGroup;
     children = {
         @ActionRef(type = ViewAsGroup.class),
         @ActionRef(type = AdjustArrayRangeAction.class),
+        @ActionRef(type = CopyFullValueToFileAction.class),
         @ActionRef(type = ForceOnDemandRenderersAction.class)
     },
     parents = @ActionParentRef(value = @ActionRef(id = "XDebugger.ValueGroup"))
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.debugger.impl.engine.evaluation;
+
+import com.intellij.java.debugger.SourcePosition;
+import com.intellij.java.debugger.engine.DebugProcess;
+import com.intellij.java.debugger.engine.evaluation.CodeFragmentKind;
+import com.intellij.java.debugger.engine.evaluation.EvaluateException;
+import com.intellij.java.debugger.engine.evaluation.TextWithImports;
+import com.intellij.java.debugger.engine.evaluation.expression.ExpressionEvaluator;
+import com.intellij.java.debugger.impl.EvaluatingComputable;
+import com.intellij.java.debugger.impl.ui.impl.watch.NodeDescriptorImpl;
+import consulo.annotation.access.RequiredReadAction;
+import consulo.execution.debug.ui.ValueMarkup;
+import consulo.internal.com.sun.jdi.ObjectReference;
+import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.util.dataholder.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Evaluators built for expressions (watches etc.) shared between frames and suspend contexts of a debug process.
+ * <p>
+ * Evaluators are keyed by the expression text, imports, context element and line.
+ * The modification stamp of the context file is a part of the key, so evaluators are not reused after the context is changed,
+ * stale entries are dropped by the LRU eviction.
+ * Debug labels are resolved as variables of the fragment context, so the labels set at the moment are a part of the key too.
+ * An evaluator takes its frame from the evaluation context on each evaluation and the modifiers it returns keep their own frame,
+ * so a shared evaluator may be evaluated in any frame; evaluations run on the debugger manager thread one at a time.
+ */
+public class SharedEvaluatorCache {
+  private static final Key<SharedEvaluatorCache> KEY = Key.create("SHARED_EVALUATOR_CACHE");
+  private static final int MAX_SIZE = 100;
+
+  private final DebugProcess myProcess;
+  private final Map<CacheKey, ExpressionEvaluator> myEvaluators = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<CacheKey, ExpressionEvaluator> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+
+  private SharedEvaluatorCache(DebugProcess process) {
+    myProcess = process;
+  }
+
+  public static SharedEvaluatorCache getInstance(DebugProcess process) {
+    SharedEvaluatorCache cache = process.getUserData(KEY);
+    if (cache == null) {
+      cache = new SharedEvaluatorCache(process);
+      process.putUserData(KEY, cache);
+    }
+    return cache;
+  }
+
+  @RequiredReadAction
+  public ExpressionEvaluator cacheOrGet(TextWithImports text,
+                                        @Nullable PsiElement context,
+                                        @Nullable SourcePosition position,
+                                        EvaluatingComputable<ExpressionEvaluator> builder) throws EvaluateException {
+    if (context == null || !context.isValid()) {
+      return builder.compute();
+    }
+    PsiFile file = context.getContainingFile();
+    CacheKey key = new CacheKey(text.getText(),
+                                text.getImports(),
+                                text.getKind(),
+                                context,
+                                position != null ? position.getLine() : -1,
+                                file != null ? file.getModificationStamp() : -1,
+                                getLabels());
+    synchronized (myEvaluators) {
+      ExpressionEvaluator evaluator = myEvaluators.get(key);
+      if (evaluator != null) {
+        return evaluator;
+      }
+    }
+    ExpressionEvaluator evaluator = builder.compute();
+    if (evaluator != null) {
+      synchronized (myEvaluators) {
+        myEvaluators.put(key, evaluator);
+      }
+    }
+    return evaluator;
+  }
+
+  public void clear() {
+    synchronized (myEvaluators) {
+      myEvaluators.clear();
+    }
+  }
+
+  private Map<ObjectReference, String> getLabels() {
+    Map<ObjectReference, ValueMarkup> markupMap = NodeDescriptorImpl.getMarkupMap(myProcess);
+    if (markupMap == null || markupMap.isEmpty()) {
+      return Map.of();
+    }
+    Map<ObjectReference, String> labels = new HashMap<>();
+    for (Map.Entry<ObjectReference, ValueMarkup> entry : markupMap.entrySet()) {
+      labels.put(entry.getKey(), entry.getValue().getText());
+    }
+    return labels;
+  }
+
+  private record CacheKey(String text,
+                          String imports,
+                          CodeFragmentKind kind,
+                          PsiElement context,
+                          int line,
+                          long stamp,
+                          Map<ObjectReference, String> labels) {
+  }
+}
@@ -24,6 +24,7 @@ import com.intellij.java.debugger.engine.evaluation.EvaluateException;
 import com.intellij.java.debugger.engine.evaluation.EvaluateExceptionUtil;
 import com.intellij.java.debugger.impl.engine.evaluation.EvaluationContextImpl;
 import com.intellij.java.debugger.impl.DebuggerUtilsEx;
+import com.intellij.java.debugger.impl.jdi.ChunkedValueReader;
 import com.intellij.java.debugger.impl.ui.impl.watch.NodeDescriptorImpl;
 import com.intellij.java.debugger.impl.ui.impl.watch.ArrayElementDescriptorImpl;
 import com.intellij.java.debugger.DebuggerBundle;
@@ -36,6 +37,7 @@ class ArrayAccessEvaluator implements Evaluator {
   private final Evaluator myIndexEvaluator;
   private ArrayReference myEvaluatedArrayReference;
   private int myEvaluatedIndex;
+  private ChunkedValueReader myValueReader;
 
   public ArrayAccessEvaluator(Evaluator arrayReferenceEvaluator, Evaluator indexEvaluator) {
     myArrayReferenceEvaluator = arrayReferenceEvaluator;
@@ -45,6 +47,7 @@ class ArrayAccessEvaluator implements Evaluator {
   public Object evaluate(EvaluationContextImpl context) throws EvaluateException {
     myEvaluatedIndex = 0;
     myEvaluatedArrayReference = null;
+    myValueReader = context.getDebugProcess().getVirtualMachineProxy().getChunkedValueReader();
     Value indexValue = (Value)myIndexEvaluator.evaluate(context);
     Value arrayValue = (Value)myArrayReferenceEvaluator.evaluate(context);
     if (!(arrayValue instanceof ArrayReference)) {
@@ -66,6 +69,9 @@ class ArrayAccessEvaluator implements Evaluator {
   public Modifier getModifier() {
     Modifier modifier = null;
     if (myEvaluatedArrayReference != null) {
+      ArrayReference array = myEvaluatedArrayReference;
+      int index = myEvaluatedIndex;
+      ChunkedValueReader reader = myValueReader;
       modifier = new Modifier() {
         public boolean canInspect() {
           return true;
@@ -76,12 +82,13 @@ class ArrayAccessEvaluator implements Evaluator {
         }
 
         public void setValue(Value value) throws ClassNotLoadedException, InvalidTypeException {
-          myEvaluatedArrayReference.setValue(myEvaluatedIndex, value);
+          array.setValue(index, value);
+          reader.invalidate(array);
         }
 
         public Type getExpectedType() throws EvaluateException {
           try {
-            ArrayType type = (ArrayType)myEvaluatedArrayReference.referenceType();
+            ArrayType type = (ArrayType)array.referenceType();
             return type.componentType();
           }
           catch (ClassNotLoadedException e) {
@@ -90,7 +97,7 @@ class ArrayAccessEvaluator implements Evaluator {
         }
 
         public NodeDescriptorImpl getInspectItem(Project project) {
-          return new ArrayElementDescriptorImpl(project, myEvaluatedArrayReference, myEvaluatedIndex);
+          return new ArrayElementDescriptorImpl(project, array, index);
         }
       };
     }
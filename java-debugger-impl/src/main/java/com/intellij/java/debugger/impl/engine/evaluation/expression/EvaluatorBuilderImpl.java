@@ -863,6 +863,7 @@ public class EvaluatorBuilderImpl implements EvaluatorBuilder {
 
                 @Override
                 public Object evaluate(EvaluationContextImpl context) throws EvaluateException {
+                    myIsFallback = false;
                     try {
                         return primary.evaluate(context);
                     }
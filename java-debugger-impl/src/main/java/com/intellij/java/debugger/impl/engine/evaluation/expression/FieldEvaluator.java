@@ -211,12 +211,14 @@ public class FieldEvaluator implements Evaluator
 		Modifier modifier = null;
 		if(myEvaluatedField != null && (myEvaluatedQualifier instanceof ClassType || myEvaluatedQualifier instanceof ObjectReference))
 		{
+			Field field = myEvaluatedField;
+			Object qualifier = myEvaluatedQualifier;
 			modifier = new Modifier()
 			{
 				@Override
 				public boolean canInspect()
 				{
-					return myEvaluatedQualifier instanceof ObjectReference;
+					return qualifier instanceof ObjectReference;
 				}
 
 				@Override
@@ -228,30 +230,30 @@ public class FieldEvaluator implements Evaluator
 				@Override
 				public void setValue(Value value) throws ClassNotLoadedException, InvalidTypeException
 				{
-					if(myEvaluatedQualifier instanceof ReferenceType)
+					if(qualifier instanceof ReferenceType)
 					{
-						ClassType classType = (ClassType) myEvaluatedQualifier;
-						classType.setValue(myEvaluatedField, value);
+						ClassType classType = (ClassType) qualifier;
+						classType.setValue(field, value);
 					}
 					else
 					{
-						ObjectReference objRef = (ObjectReference) myEvaluatedQualifier;
-						objRef.setValue(myEvaluatedField, value);
+						ObjectReference objRef = (ObjectReference) qualifier;
+						objRef.setValue(field, value);
 					}
 				}
 
 				@Override
 				public Type getExpectedType() throws ClassNotLoadedException
 				{
-					return myEvaluatedField.type();
+					return field.type();
 				}
 
 				@Override
 				public NodeDescriptorImpl getInspectItem(Project project)
 				{
-					if(myEvaluatedQualifier instanceof ObjectReference)
+					if(qualifier instanceof ObjectReference)
 					{
-						return new FieldDescriptorImpl(project, (ObjectReference) myEvaluatedQualifier, myEvaluatedField);
+						return new FieldDescriptorImpl(project, (ObjectReference) qualifier, field);
 					}
 					else
 					{
@@ -113,6 +113,9 @@ class LocalVariableEvaluator implements Evaluator {
   public Modifier getModifier() {
     Modifier modifier = null;
     if (myEvaluatedVariable != null && myContext != null) {
+      // the evaluator may be evaluated again in another frame, the modifier stays with this one
+      LocalVariableProxyImpl variable = myEvaluatedVariable;
+      EvaluationContextImpl context = myContext;
       modifier = new Modifier() {
         public boolean canInspect() {
           return true;
@@ -123,9 +126,9 @@ class LocalVariableEvaluator implements Evaluator {
         }
 
         public void setValue(Value value) throws ClassNotLoadedException, InvalidTypeException {
-          StackFrameProxyImpl frameProxy = myContext.getFrameProxy();
+          StackFrameProxyImpl frameProxy = context.getFrameProxy();
           try {
-            frameProxy.setValue(myEvaluatedVariable, value);
+            frameProxy.setValue(variable, value);
           }
           catch (EvaluateException e) {
             LOG.error(e);  
@@ -134,7 +137,7 @@ class LocalVariableEvaluator implements Evaluator {
 
         public Type getExpectedType() throws ClassNotLoadedException {
           try {
-            return myEvaluatedVariable.getType();
+            return variable.getType();
           } catch (EvaluateException e) {
             LOG.error(e);
             return null;
@@ -142,7 +145,7 @@ class LocalVariableEvaluator implements Evaluator {
         }
 
         public NodeDescriptorImpl getInspectItem(Project project) {
-          return new LocalVariableDescriptorImpl(project, myEvaluatedVariable);
+          return new LocalVariableDescriptorImpl(project, variable);
         }
       };
     }
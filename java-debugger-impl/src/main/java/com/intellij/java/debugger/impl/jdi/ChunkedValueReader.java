@@ -0,0 +1,271 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.debugger.impl.jdi;
+
+import com.intellij.java.debugger.impl.engine.DebuggerManagerThreadImpl;
+import consulo.internal.com.sun.jdi.*;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Bounded, page based access to array elements and string contents.
+ * <p>
+ * Array elements are fetched with {@link ArrayReference#getValues(int, int)} in pages of {@link #PAGE_SIZE} elements,
+ * pages are kept until the VM is resumed or a method is invoked by an evaluation, see {@link VirtualMachineProxyImpl#clearCaches()},
+ * or until the array is modified by the debugger, see {@link #invalidate(ArrayReference)}.
+ * Strings already seen longer than requested are read through their backing array, so only the requested part is transferred,
+ * other strings are read whole with {@link StringReference#value()} in one request.
+ */
+public class ChunkedValueReader {
+  public static final int PAGE_SIZE = 1024;
+  private static final int MAX_CACHED_PAGES = 64;
+  // strings and arrays are written to files in larger chunks, these are not cached
+  private static final int STREAM_CHUNK_SIZE = 64 * 1024;
+  private static final int MAX_LONG_STRINGS = 256;
+
+  private final Map<Page, List<Value>> myPages = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Page, List<Value>> eldest) {
+      return size() > MAX_CACHED_PAGES;
+    }
+  };
+
+  // strings are immutable, so these are kept after the VM is resumed; guarded by itself
+  private final Set<StringReference> myLongStrings = Collections.newSetFromMap(new LinkedHashMap<StringReference, Boolean>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<StringReference, Boolean> eldest) {
+      return size() > MAX_LONG_STRINGS;
+    }
+  });
+
+  @Nullable
+  public Value getArrayValue(ArrayReference array, int index) {
+    List<Value> page = getPage(array, index / PAGE_SIZE);
+    return page.get(index % PAGE_SIZE);
+  }
+
+  public List<Value> getArrayValues(ArrayReference array, int from, int length) {
+    List<Value> res = new ArrayList<>(length);
+    int end = from + length;
+    for (int idx = from; idx < end; ) {
+      int pageIndex = idx / PAGE_SIZE;
+      List<Value> page = getPage(array, pageIndex);
+      int pageStart = pageIndex * PAGE_SIZE;
+      int pageEnd = Math.min(end - pageStart, page.size());
+      res.addAll(page.subList(idx - pageStart, pageEnd));
+      idx = pageStart + pageEnd;
+    }
+    return res;
+  }
+
+  /**
+   * Loads the page containing the index, if it is inside the array and not loaded yet
+   */
+  public void prefetch(ArrayReference array, int index) {
+    if (index >= 0 && index < array.length()) {
+      getPage(array, index / PAGE_SIZE);
+    }
+  }
+
+  private List<Value> getPage(ArrayReference array, int pageIndex) {
+    DebuggerManagerThreadImpl.assertIsManagerThread();
+    Page key = new Page(array, pageIndex);
+    List<Value> page = myPages.get(key);
+    if (page == null) {
+      int start = pageIndex * PAGE_SIZE;
+      page = array.getValues(start, Math.min(PAGE_SIZE, array.length() - start));
+      myPages.put(key, page);
+    }
+    return page;
+  }
+
+  /**
+   * Drops cached pages of the array, must be called after its elements are set
+   */
+  public void invalidate(ArrayReference array) {
+    myPages.keySet().removeIf(page -> page.array().equals(array));
+  }
+
+  public void clear() {
+    myPages.clear();
+  }
+
+  /**
+   * @return at most maxLength first characters of the string. A string is transferred whole the first time,
+   * once it is known to be longer than maxLength only its prefix is transferred
+   */
+  public String getStringPrefix(StringReference string, int maxLength) {
+    boolean knownLong;
+    synchronized (myLongStrings) {
+      knownLong = myLongStrings.contains(string);
+    }
+    StringContents contents = knownLong ? StringContents.of(string) : null;
+    if (contents == null || contents.length() <= maxLength) {
+      String value = string.value();
+      if (value.length() <= maxLength) {
+        return value;
+      }
+      synchronized (myLongStrings) {
+        myLongStrings.add(string);
+      }
+      return value.substring(0, maxLength);
+    }
+    StringBuilder builder = new StringBuilder(maxLength);
+    contents.append(builder, 0, maxLength);
+    return builder.toString();
+  }
+
+  public static void writeString(StringReference string, Writer writer) throws IOException {
+    StringContents contents = StringContents.of(string);
+    if (contents == null) {
+      writer.write(string.value());
+      return;
+    }
+    int length = contents.length();
+    StringBuilder builder = new StringBuilder(Math.min(length, STREAM_CHUNK_SIZE));
+    for (int from = 0; from < length; from += STREAM_CHUNK_SIZE) {
+      builder.setLength(0);
+      contents.append(builder, from, Math.min(STREAM_CHUNK_SIZE, length - from));
+      writer.append(builder);
+    }
+  }
+
+  /**
+   * Writes elements of the array separated by new lines
+   */
+  public static void writeArray(ArrayReference array, Writer writer) throws IOException {
+    int length = array.length();
+    for (int from = 0; from < length; from += STREAM_CHUNK_SIZE) {
+      for (Value value : array.getValues(from, Math.min(STREAM_CHUNK_SIZE, length - from))) {
+        writer.write(value instanceof StringReference ? ((StringReference) value).value() : String.valueOf(value));
+        writer.write('\n');
+      }
+    }
+  }
+
+  /**
+   * Reads all elements of the array in bulk chunks, not caching them
+   */
+  public static List<Value> readValues(ArrayReference array) {
+    int length = array.length();
+    if (length <= STREAM_CHUNK_SIZE) {
+      return array.getValues();
+    }
+    List<Value> res = new ArrayList<>(length);
+    for (int from = 0; from < length; from += STREAM_CHUNK_SIZE) {
+      res.addAll(array.getValues(from, Math.min(STREAM_CHUNK_SIZE, length - from)));
+    }
+    return res;
+  }
+
+  /**
+   * Reads a {@code byte[]} in bulk chunks, without keeping a mirror object per element
+   */
+  public static byte[] readBytes(ArrayReference array) {
+    int length = array.length();
+    byte[] res = new byte[length];
+    for (int from = 0; from < length; from += STREAM_CHUNK_SIZE) {
+      int idx = from;
+      for (Value value : array.getValues(from, Math.min(STREAM_CHUNK_SIZE, length - from))) {
+        res[idx++] = ((ByteValue) value).value();
+      }
+    }
+    return res;
+  }
+
+  private record Page(ArrayReference array, int index) {
+  }
+
+  /**
+   * Backing array of a string: {@code char[]} before JDK 9, {@code byte[]} with a coder after.
+   * Utf16 coded byte arrays hold chars in the byte order of the target platform.
+   */
+  private record StringContents(ArrayReference array, Coding coding) {
+    @Nullable
+    static StringContents of(StringReference string) {
+      ReferenceType type = string.referenceType();
+      Field valueField = type.fieldByName("value");
+      if (valueField == null) {
+        return null;
+      }
+      // both fields are read in one request
+      Field coderField = type.fieldByName("coder");
+      Map<Field, Value> values = string.getValues(coderField != null ? List.of(valueField, coderField) : List.of(valueField));
+      if (!(values.get(valueField) instanceof ArrayReference array)) {
+        return null;
+      }
+      String componentType = ((ArrayType) array.type()).componentTypeName();
+      if ("char".equals(componentType)) {
+        return new StringContents(array, Coding.CHARS);
+      }
+      if (!"byte".equals(componentType) || !(values.get(coderField) instanceof ByteValue coder)) {
+        return null;
+      }
+      if (coder.value() == 0) {
+        return new StringContents(array, Coding.LATIN1);
+      }
+      Boolean bigEndian = isUtf16BigEndian(string.virtualMachine());
+      return bigEndian == null ? null : new StringContents(array, bigEndian ? Coding.UTF16_BE : Coding.UTF16_LE);
+    }
+
+    /**
+     * @return the byte order of utf16 coded strings, see {@code java.lang.StringUTF16.HI_BYTE_SHIFT}, or null if it's unknown
+     */
+    @Nullable
+    private static Boolean isUtf16BigEndian(VirtualMachine vm) {
+      for (ReferenceType type : vm.classesByName("java.lang.StringUTF16")) {
+        Field shiftField = type.fieldByName("HI_BYTE_SHIFT");
+        if (shiftField != null && shiftField.isStatic() && type.getValue(shiftField) instanceof IntegerValue shift) {
+          return shift.value() == 8;
+        }
+      }
+      return null;
+    }
+
+    int length() {
+      return coding.isUtf16() ? array.length() / 2 : array.length();
+    }
+
+    void append(StringBuilder builder, int from, int length) {
+      if (!coding.isUtf16()) {
+        for (Value value : array.getValues(from, length)) {
+          builder.append(coding == Coding.LATIN1 ? (char) (((ByteValue) value).value() & 0xff) : ((CharValue) value).value());
+        }
+        return;
+      }
+      Iterator<Value> bytes = array.getValues(from * 2, length * 2).iterator();
+      while (bytes.hasNext()) {
+        int first = ((ByteValue) bytes.next()).value() & 0xff;
+        int second = ((ByteValue) bytes.next()).value() & 0xff;
+        builder.append(coding == Coding.UTF16_BE ? (char) (first << 8 | second) : (char) (second << 8 | first));
+      }
+    }
+  }
+
+  private enum Coding {
+    CHARS,
+    LATIN1,
+    UTF16_BE,
+    UTF16_LE;
+
+    boolean isUtf16() {
+      return this == UTF16_BE || this == UTF16_LE;
+    }
+  }
+}
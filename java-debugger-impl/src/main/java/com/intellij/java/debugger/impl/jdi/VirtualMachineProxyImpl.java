@@ -50,6 +50,7 @@ public class VirtualMachineProxyImpl implements JdiTimer, VirtualMachineProxy
 	private boolean myAllThreadsDirty = true;
 	private List<ReferenceType> myAllClasses;
 	private Map<ReferenceType, List<ReferenceType>> myNestedClassesCache = new HashMap<ReferenceType, List<ReferenceType>>();
+	private final ChunkedValueReader myChunkedValueReader = new ChunkedValueReader();
 
 	public final Throwable mySuspendLogger = new Throwable();
 	private final boolean myVersionHigher_15;
@@ -809,10 +810,16 @@ public class VirtualMachineProxyImpl implements JdiTimer, VirtualMachineProxy
 		{
 			myNestedClassesCache = new HashMap<ReferenceType, List<ReferenceType>>(myNestedClassesCache.size());
 		}
+		myChunkedValueReader.clear();
 		//myAllThreadsDirty = true;
 		myTimeStamp++;
 	}
 
+	public ChunkedValueReader getChunkedValueReader()
+	{
+		return myChunkedValueReader;
+	}
+
 	@Override
 	public int getCurrentTime()
 	{
@@ -65,20 +65,61 @@ public class StackFrameItem {
     }
   };
 
+  @Nullable
   private final Location myLocation;
   private final List<XNamedValue> myVariables;
 
+  // used for frames captured in the debuggee, where no location is available
+  private final String myPath;
+  private final String myMethodName;
+  private final int myLine;
+
   public StackFrameItem(Location location, List<XNamedValue> variables) {
     myLocation = location;
     myVariables = variables;
+    myPath = null;
+    myMethodName = null;
+    myLine = -1;
+  }
+
+  public StackFrameItem(String path, String methodName, int line) {
+    myLocation = null;
+    myVariables = null;
+    myPath = path;
+    myMethodName = methodName;
+    myLine = line;
   }
 
   public String path() {
-    return myLocation.declaringType().name();
+    return myLocation != null ? myLocation.declaringType().name() : myPath;
+  }
+
+  public String methodName() {
+    return myLocation != null ? myLocation.method().name() : myMethodName;
   }
 
   public int line() {
-    return DebuggerUtilsEx.getLineNumber(myLocation, false);
+    return myLocation != null ? DebuggerUtilsEx.getLineNumber(myLocation, false) : myLine;
+  }
+
+  /**
+   * Parses the stack packed by the debuggee side capture storage: lines of {@code className\tmethodName\tlineNumber}
+   */
+  public static List<StackFrameItem> fromPackedStack(String packed) {
+    List<StackFrameItem> res = new ArrayList<>();
+    for (String frame : StringUtil.splitByLines(packed)) {
+      List<String> parts = StringUtil.split(frame, "\t");
+      if (parts.size() == 3) {
+        int line;
+        try {
+          line = Integer.parseInt(parts.get(2));
+        } catch (NumberFormatException e) {
+          line = -1;
+        }
+        res.add(new StackFrameItem(parts.get(0), parts.get(1), line));
+      }
+    }
+    return res;
   }
 
   public static List<StackFrameItem> createFrames(SuspendContextImpl suspendContext, boolean withVars) throws EvaluateException {
@@ -165,9 +206,31 @@ public class StackFrameItem {
     return new VariableItem(name, type, valueText, varType);
   }
 
+  @Nullable
+  private Location findLocation(DebugProcessImpl debugProcess) {
+    if (myLocation != null) {
+      return myLocation;
+    }
+    if (myLine < 0) {
+      return null;
+    }
+    try {
+      for (ReferenceType type : debugProcess.getVirtualMachineProxy().classesByName(myPath)) {
+        for (Location location : type.locationsOfLine(myLine)) {
+          if (myMethodName.equals(location.method().name())) {
+            return location;
+          }
+        }
+      }
+    } catch (AbsentInformationException | ObjectCollectedException e) {
+      LOG.debug(e);
+    }
+    return null;
+  }
+
   @Override
   public String toString() {
-    return myLocation.toString();
+    return myLocation != null ? myLocation.toString() : myPath + "." + myMethodName + ":" + myLine;
   }
 
   private static class VariableItem extends XNamedValue {
@@ -225,11 +288,12 @@ public class StackFrameItem {
 
     public CapturedStackFrame(DebugProcessImpl debugProcess, StackFrameItem item) {
       DebuggerManagerThreadImpl.assertIsManagerThread();
-      mySourcePosition = DebuggerUtilsEx.toXSourcePosition(debugProcess.getPositionManager().getSourcePosition(item.myLocation));
-      myIsSynthetic = DebuggerUtils.isSynthetic(item.myLocation.method());
+      Location location = item.findLocation(debugProcess);
+      mySourcePosition = location != null ? DebuggerUtilsEx.toXSourcePosition(debugProcess.getPositionManager().getSourcePosition(location)) : null;
+      myIsSynthetic = location != null && DebuggerUtils.isSynthetic(location.method());
       myIsInLibraryContent = DebuggerUtilsEx.isInLibraryContent(mySourcePosition != null ? mySourcePosition.getFile() : null, debugProcess.getProject());
       myPath = item.path();
-      myMethodName = item.myLocation.method().name();
+      myMethodName = item.methodName();
       myLineNumber = item.line();
       myVariables = item.myVariables;
     }
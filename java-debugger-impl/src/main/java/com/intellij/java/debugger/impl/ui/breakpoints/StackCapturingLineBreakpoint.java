@@ -19,6 +19,7 @@ import com.intellij.java.debugger.DebuggerBundle;
 import com.intellij.java.debugger.SourcePosition;
 import com.intellij.java.debugger.engine.DebugProcess;
 import com.intellij.java.debugger.engine.DebugProcessListener;
+import com.intellij.java.debugger.engine.DebuggerUtils;
 import com.intellij.java.debugger.engine.evaluation.CodeFragmentKind;
 import com.intellij.java.debugger.engine.evaluation.EvaluateException;
 import com.intellij.java.debugger.engine.evaluation.EvaluationContext;
@@ -40,6 +41,7 @@ import com.intellij.java.debugger.impl.jdi.ThreadReferenceProxyImpl;
 import com.intellij.java.debugger.impl.memory.utils.StackFrameItem;
 import com.intellij.java.debugger.impl.settings.CapturePoint;
 import com.intellij.java.debugger.impl.settings.DebuggerSettings;
+import com.intellij.java.debugger.requests.ClassPrepareRequestor;
 import consulo.application.ApplicationManager;
 import consulo.project.Project;
 import consulo.util.lang.Comparing;
@@ -50,15 +52,20 @@ import consulo.util.collection.ContainerUtil;
 import consulo.internal.com.sun.jdi.*;
 import consulo.internal.com.sun.jdi.event.LocatableEvent;
 import consulo.java.debugger.impl.JavaRegistry;
+import consulo.java.rt.JavaRtClassNames;
+import consulo.java.rt.debugger.CaptureAgentConstants;
 import consulo.logging.Logger;
 import consulo.util.collection.Maps;
 import consulo.util.dataholder.Key;
 import org.jspecify.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
@@ -70,12 +77,17 @@ public class StackCapturingLineBreakpoint extends WildcardMethodBreakpoint {
 
   private final CapturePoint myCapturePoint;
   private final String mySignature;
+  // the point as the capture agent gets it, if the agent can record it
+  @Nullable
+  private final String myAgentPoint;
 
   private final MyEvaluator myCaptureEvaluator;
   private final MyEvaluator myInsertEvaluator;
 
   public static final Key<List<StackCapturingLineBreakpoint>> CAPTURE_BREAKPOINTS = Key.create("CAPTURE_BREAKPOINTS");
   private static final Key<Map<Object, List<StackFrameItem>>> CAPTURED_STACKS = Key.create("CAPTURED_STACKS");
+  private static final Key<ClassType> CAPTURE_STORAGE_CLASS = Key.create("CAPTURE_STORAGE_CLASS");
+  private static final Key<Set<String>> AGENT_CAPTURE_POINTS = Key.create("AGENT_CAPTURE_POINTS");
   private static final int MAX_STORED_STACKS = 1000;
   public static final int MAX_STACK_LENGTH = 500;
 
@@ -89,6 +101,7 @@ public class StackCapturingLineBreakpoint extends WildcardMethodBreakpoint {
     myProperties.WATCH_EXIT = false;
     myProperties.myClassPattern = myCapturePoint.myClassName;
     myProperties.myMethodName = myCapturePoint.myMethodName;
+    myAgentPoint = JavaRegistry.DEBUGGER_CAPTURE_POINTS_AGENT ? getAgentPoint(capturePoint) : null;
 
     myCaptureEvaluator = new MyEvaluator(myCapturePoint.myCaptureKeyExpression);
     myInsertEvaluator = new MyEvaluator(myCapturePoint.myInsertKeyExpression);
@@ -111,16 +124,21 @@ public class StackCapturingLineBreakpoint extends WildcardMethodBreakpoint {
       ThreadReferenceProxyImpl thread = suspendContext.getThread();
       if (thread != null) {
         DebugProcessImpl process = suspendContext.getDebugProcess();
+        if (isRecordedByAgent(process)) {
+          // the agent has started after the request was created
+          dropAgentRequests(process);
+          return false;
+        }
         try {
           StackFrameProxyImpl frameProxy = ContainerUtil.getFirstItem(thread.forceFrames());
           if (frameProxy != null) {
-            Map<Object, List<StackFrameItem>> stacks = process.getUserData(CAPTURED_STACKS);
-            if (stacks == null) {
-              stacks = new CapturedStacksMap();
-              putProcessUserData(CAPTURED_STACKS, Collections.synchronizedMap(stacks), process);
-            }
             Value key = myCaptureEvaluator.evaluate(new EvaluationContextImpl(suspendContext, frameProxy));
             if (key instanceof ObjectReference) {
+              Map<Object, List<StackFrameItem>> stacks = process.getUserData(CAPTURED_STACKS);
+              if (stacks == null) {
+                stacks = Collections.synchronizedMap(new CapturedStacksMap());
+                putProcessUserData(CAPTURED_STACKS, stacks, process);
+              }
               List<StackFrameItem> frames = StackFrameItem.createFrames(suspendContext, true);
               if (frames.size() > MAX_STACK_LENGTH) {
                 frames = frames.subList(0, MAX_STACK_LENGTH);
@@ -164,9 +182,123 @@ public class StackCapturingLineBreakpoint extends WildcardMethodBreakpoint {
     }
     if (JavaRegistry.DEBUGGER_CAPTURE_POINTS) {
       DebuggerSettings.getInstance().getCapturePoints().stream().filter(c -> c.myEnabled).forEach(c -> track(debugProcess, c));
+      if (JavaRegistry.DEBUGGER_CAPTURE_POINTS_AGENT) {
+        trackCaptureAgent(debugProcess);
+      }
     }
   }
 
+  /**
+   * The points recorded by the capture agent stop the thread only until the agent is found, which starts before the main class
+   */
+  private static void trackCaptureAgent(DebugProcessImpl debugProcess) {
+    for (ReferenceType type : debugProcess.getVirtualMachineProxy().classesByName(JavaRtClassNames.CAPTURE_STORAGE)) {
+      if (isCaptureStorage(type)) {
+        putProcessUserData(CAPTURE_STORAGE_CLASS, (ClassType) type, debugProcess);
+        dropAgentRequests(debugProcess);
+        return;
+      }
+    }
+    debugProcess.getRequestsManager().callbackOnPrepareClasses(new ClassPrepareRequestor() {
+      @Override
+      public void processClassPrepare(DebugProcess process, ReferenceType referenceType) {
+        if (isCaptureStorage(referenceType)) {
+          DebugProcessImpl processImpl = (DebugProcessImpl) process;
+          processImpl.getRequestsManager().deleteRequest(this);
+          // the points are set by the agent after the storage is initialized, so they are read on the next capture
+          putProcessUserData(CAPTURE_STORAGE_CLASS, (ClassType) referenceType, processImpl);
+        }
+      }
+    }, JavaRtClassNames.CAPTURE_STORAGE);
+  }
+
+  /**
+   * @return whether it is the storage of the capture agent, which is loaded by the bootstrap loader, unlike the copies on the class path
+   */
+  private static boolean isCaptureStorage(ReferenceType type) {
+    return type instanceof ClassType && type.classLoader() == null;
+  }
+
+  private static void dropAgentRequests(DebugProcessImpl debugProcess) {
+    List<StackCapturingLineBreakpoint> bpts = debugProcess.getUserData(CAPTURE_BREAKPOINTS);
+    if (bpts != null) {
+      bpts.stream().filter(b -> b.isRecordedByAgent(debugProcess)).forEach(debugProcess.getRequestsManager()::deleteRequest);
+    }
+  }
+
+  private boolean isRecordedByAgent(DebugProcessImpl debugProcess) {
+    if (myAgentPoint == null) {
+      return false;
+    }
+    Set<String> agentPoints = getAgentPoints(debugProcess);
+    return agentPoints != null && agentPoints.contains(myAgentPoint);
+  }
+
+  /**
+   * @return the points instrumented by the capture agent, or null if the agent is not started (yet)
+   */
+  @Nullable
+  private static Set<String> getAgentPoints(DebugProcessImpl debugProcess) {
+    Set<String> agentPoints = debugProcess.getUserData(AGENT_CAPTURE_POINTS);
+    if (agentPoints != null) {
+      return agentPoints;
+    }
+    ClassType storageClass = debugProcess.getUserData(CAPTURE_STORAGE_CLASS);
+    Field field = storageClass != null ? storageClass.fieldByName("ourAgentPoints") : null;
+    if (field == null) {
+      return null;
+    }
+    Value value = storageClass.getValue(field);
+    if (!(value instanceof StringReference)) {
+      return null;
+    }
+    agentPoints = new HashSet<>(StringUtil.split(((StringReference) value).value(), CaptureAgentConstants.POINT_SEPARATOR));
+    putProcessUserData(AGENT_CAPTURE_POINTS, agentPoints, debugProcess);
+    return agentPoints;
+  }
+
+  /**
+   * @return the agent arguments which make it record the enabled capture points it supports, or null if there are none
+   */
+  @Nullable
+  public static String getCaptureAgentArguments() {
+    if (!JavaRegistry.DEBUGGER_CAPTURE_POINTS || !JavaRegistry.DEBUGGER_CAPTURE_POINTS_AGENT) {
+      return null;
+    }
+    List<String> points = new ArrayList<>();
+    for (CapturePoint c : DebuggerSettings.getInstance().getCapturePoints()) {
+      String point = c.myEnabled ? getAgentPoint(c) : null;
+      if (point != null) {
+        points.add(point);
+      }
+    }
+    return points.isEmpty() ? null : CaptureAgentConstants.ARGS_PREFIX + StringUtil.join(points, CaptureAgentConstants.POINT_SEPARATOR);
+  }
+
+  /**
+   * The agent records a key which is {@code this} or a parameter of a method of an exact class
+   *
+   * @return {@code className,methodName,key} with the class name in the internal form and the key being a parameter index
+   * or {@link CaptureAgentConstants#THIS_KEY}, or null if the agent can not record the point
+   */
+  @Nullable
+  private static String getAgentPoint(CapturePoint capturePoint) {
+    String className = capturePoint.myClassName;
+    String methodName = capturePoint.myMethodName;
+    if (StringUtil.isEmpty(className) || StringUtil.isEmpty(methodName) || StringUtil.containsAnyChar(className + methodName, "*,;")) {
+      return null;
+    }
+    String expression = StringUtil.trim(capturePoint.myCaptureKeyExpression);
+    int key = CaptureAgentConstants.THIS_KEY;
+    if (!"this".equals(expression)) {
+      key = DecompiledLocalVariable.getParamId(expression);
+      if (key < 0) {
+        return null;
+      }
+    }
+    return className.replace('.', '/') + CaptureAgentConstants.FIELD_SEPARATOR + methodName + CaptureAgentConstants.FIELD_SEPARATOR + key;
+  }
+
   public static void clearCaches(DebugProcessImpl debugProcess) {
     DebuggerManagerThreadImpl.assertIsManagerThread();
     List<StackCapturingLineBreakpoint> bpts = debugProcess.getUserData(CAPTURE_BREAKPOINTS);
@@ -227,8 +359,10 @@ public class StackCapturingLineBreakpoint extends WildcardMethodBreakpoint {
   @Nullable
   public static List<StackFrameItem> getRelatedStack(StackFrameProxyImpl frame, SuspendContextImpl suspendContext) {
     DebugProcessImpl debugProcess = suspendContext.getDebugProcess();
+    ClassType storageClass = debugProcess.getUserData(CAPTURE_STORAGE_CLASS);
+    Set<String> agentPoints = storageClass != null ? getAgentPoints(debugProcess) : null;
     Map<Object, List<StackFrameItem>> capturedStacks = debugProcess.getUserData(CAPTURED_STACKS);
-    if (ContainerUtil.isEmpty(capturedStacks)) {
+    if (agentPoints == null && ContainerUtil.isEmpty(capturedStacks)) {
       return null;
     }
     List<StackCapturingLineBreakpoint> captureBreakpoints = debugProcess.getUserData(CAPTURE_BREAKPOINTS);
@@ -244,9 +378,14 @@ public class StackCapturingLineBreakpoint extends WildcardMethodBreakpoint {
         String insertClassName = b.myCapturePoint.myInsertClassName;
         if ((StringUtil.isEmpty(insertClassName) || StringUtil.equals(insertClassName, className)) && StringUtil.equals(b.myCapturePoint.myInsertMethodName, methodName)) {
           try {
-            Value key = b.myInsertEvaluator.evaluate(new EvaluationContextImpl(suspendContext, frame));
+            EvaluationContextImpl evaluationContext = new EvaluationContextImpl(suspendContext, frame);
+            Value key = b.myInsertEvaluator.evaluate(evaluationContext);
             if (key instanceof ObjectReference) {
-              return capturedStacks.get(getKey((ObjectReference) key));
+              if (agentPoints != null && agentPoints.contains(b.myAgentPoint)) {
+                Value stack = getAgentStack(evaluationContext, storageClass, (ObjectReference) key);
+                return stack instanceof StringReference ? StackFrameItem.fromPackedStack(((StringReference) stack).value()) : null;
+              }
+              return capturedStacks != null ? capturedStacks.get(getKey((ObjectReference) key)) : null;
             }
           } catch (EvaluateException e) {
             LOG.debug(e);
@@ -271,6 +410,18 @@ public class StackCapturingLineBreakpoint extends WildcardMethodBreakpoint {
     return null;
   }
 
+  /**
+   * Transfers the stack recorded by the capture agent, packed into one string
+   */
+  @Nullable
+  private static Value getAgentStack(EvaluationContextImpl context, ClassType storageClass, ObjectReference key) throws EvaluateException {
+    Method method = DebuggerUtils.findMethod(storageClass, "getStack", "(Ljava/lang/Object;)Ljava/lang/String;");
+    if (method == null) {
+      return null;
+    }
+    return context.getDebugProcess().invokeMethod(context, storageClass, method, Collections.singletonList(key));
+  }
+
   private static Object getKey(ObjectReference reference) {
     return reference instanceof StringReference ? ((StringReference) reference).value() : reference;
   }
@@ -25,6 +25,7 @@ import com.intellij.java.debugger.engine.evaluation.EvaluateException;
 import com.intellij.java.debugger.engine.evaluation.EvaluateExceptionUtil;
 import com.intellij.java.debugger.impl.engine.evaluation.EvaluationContextImpl;
 import com.intellij.java.debugger.impl.DebuggerContextImpl;
+import com.intellij.java.debugger.impl.jdi.ChunkedValueReader;
 import com.intellij.java.debugger.impl.jdi.VirtualMachineProxyImpl;
 import com.intellij.java.debugger.impl.ui.tree.ArrayElementDescriptor;
 import consulo.execution.debug.frame.XValueModifier;
@@ -78,7 +79,7 @@ public class ArrayElementDescriptorImpl extends ValueDescriptorImpl implements A
 	@Override
 	public Value calcValue(EvaluationContextImpl evaluationContext) throws EvaluateException
 	{
-		return getArrayElement(myArray, myIndex);
+		return getArrayElement(myArray, myIndex, evaluationContext.getDebugProcess().getVirtualMachineProxy().getChunkedValueReader());
 	}
 
 	public static Value getArrayElement(ArrayReference reference, int idx) throws EvaluateException
@@ -93,6 +94,18 @@ public class ArrayElementDescriptorImpl extends ValueDescriptorImpl implements A
 		}
 	}
 
+	public static Value getArrayElement(ArrayReference reference, int idx, ChunkedValueReader reader) throws EvaluateException
+	{
+		try
+		{
+			return reader.getArrayValue(reference, idx);
+		}
+		catch(ObjectCollectedException e)
+		{
+			throw EvaluateExceptionUtil.ARRAY_WAS_COLLECTED;
+		}
+	}
+
 	@Override
 	public PsiExpression getDescriptorEvaluation(DebuggerContext context) throws EvaluateException
 	{
@@ -135,6 +148,7 @@ public class ArrayElementDescriptorImpl extends ValueDescriptorImpl implements A
 						public void setValue(EvaluationContextImpl evaluationContext, Value newValue) throws ClassNotLoadedException, InvalidTypeException, EvaluateException
 						{
 							array.setValue(elementDescriptor.getIndex(), preprocessValue(evaluationContext, newValue, arrType.componentType()));
+							evaluationContext.getDebugProcess().getVirtualMachineProxy().getChunkedValueReader().invalidate(array);
 							update(debuggerContext);
 						}
 
@@ -28,12 +28,14 @@ import com.intellij.java.debugger.engine.StackFrameContext;
 import com.intellij.java.debugger.engine.evaluation.EvaluateException;
 import com.intellij.java.debugger.engine.evaluation.EvaluateExceptionUtil;
 import com.intellij.java.debugger.impl.engine.evaluation.EvaluationContextImpl;
+import com.intellij.java.debugger.impl.engine.evaluation.SharedEvaluatorCache;
 import com.intellij.java.debugger.engine.evaluation.TextWithImports;
 import com.intellij.java.debugger.engine.evaluation.expression.ExpressionEvaluator;
 import com.intellij.java.debugger.engine.evaluation.expression.Modifier;
 import com.intellij.java.debugger.impl.engine.evaluation.expression.UnsupportedExpressionException;
 import com.intellij.java.debugger.impl.DebuggerContextImpl;
 import com.intellij.java.debugger.impl.DebuggerUtilsEx;
+import com.intellij.java.debugger.impl.EvaluatingComputable;
 import com.intellij.java.debugger.impl.jdi.StackFrameProxyImpl;
 import consulo.application.ReadAction;
 import consulo.application.dumb.IndexNotReadyException;
@@ -77,6 +79,14 @@ public abstract class EvaluationDescriptor extends ValueDescriptorImpl
 
 	protected abstract PsiCodeFragment getEvaluationCode(StackFrameContext context) throws EvaluateException;
 
+	/**
+	 * @return true if the code fragment depends only on the expression and the context element, so its evaluator may be shared between frames
+	 */
+	protected boolean isEvaluatorShared()
+	{
+		return false;
+	}
+
 	public PsiCodeFragment createCodeFragment(PsiElement context)
 	{
 		TextWithImports text = getEvaluationText();
@@ -95,7 +105,8 @@ public abstract class EvaluationDescriptor extends ValueDescriptorImpl
 			SourcePosition position = ContextUtil.getSourcePosition(evaluationContext);
 			PsiElement psiContext = ContextUtil.getContextElement(evaluationContext, position);
 
-			ExpressionEvaluator evaluator = ReadAction.compute(() ->
+			SharedEvaluatorCache evaluatorCache = isEvaluatorShared() ? SharedEvaluatorCache.getInstance(thisEvaluationContext.getDebugProcess()) : null;
+			EvaluatingComputable<ExpressionEvaluator> evaluatorBuilder = () ->
 			{
 				PsiCodeFragment code = getEvaluationCode(thisEvaluationContext);
 				try
@@ -111,7 +122,10 @@ public abstract class EvaluationDescriptor extends ValueDescriptorImpl
 					}
 					throw ex;
 				}
-			});
+			};
+			ExpressionEvaluator evaluator = ReadAction.compute(() -> evaluatorCache != null
+					? evaluatorCache.cacheOrGet(getEvaluationText(), psiContext, position, evaluatorBuilder)
+					: evaluatorBuilder.compute());
 
 			if(!thisEvaluationContext.getDebugProcess().isAttached())
 			{
@@ -323,6 +323,10 @@ public abstract class ValueDescriptorImpl extends NodeDescriptorImpl implements
         return descriptor;
     }
 
+    public boolean isFullValue() {
+        return myFullValue;
+    }
+
     @Override
     public void setValueLabel(String label) {
         if (!myFullValue) {
@@ -99,4 +99,10 @@ public class WatchItemDescriptor extends EvaluationDescriptor
 	{
 		return createCodeFragment(PositionUtil.getContextElement(context));
 	}
+
+	@Override
+	protected boolean isEvaluatorShared()
+	{
+		return true;
+	}
 }
\ No newline at end of file
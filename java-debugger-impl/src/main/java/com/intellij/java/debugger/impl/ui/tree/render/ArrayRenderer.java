@@ -24,8 +24,11 @@ import com.intellij.java.debugger.impl.actions.ArrayAction;
 import com.intellij.java.debugger.impl.engine.ContextUtil;
 import com.intellij.java.debugger.impl.engine.DebuggerManagerThreadImpl;
 import com.intellij.java.debugger.impl.engine.JavaValue;
+import com.intellij.java.debugger.impl.engine.SuspendContextImpl;
 import com.intellij.java.debugger.impl.engine.evaluation.EvaluationContextImpl;
 import com.intellij.java.debugger.impl.engine.evaluation.TextWithImportsImpl;
+import com.intellij.java.debugger.impl.engine.events.SuspendContextCommandImpl;
+import com.intellij.java.debugger.impl.jdi.ChunkedValueReader;
 import com.intellij.java.debugger.impl.memory.utils.ErrorsValueGroup;
 import com.intellij.java.debugger.impl.settings.NodeRendererSettings;
 import com.intellij.java.debugger.impl.settings.ViewsGeneralSettings;
@@ -51,6 +54,7 @@ import consulo.execution.debug.frame.XValueNode;
 import consulo.execution.debug.ui.XValueTree;
 import consulo.internal.com.sun.jdi.ArrayReference;
 import consulo.internal.com.sun.jdi.ArrayType;
+import consulo.internal.com.sun.jdi.ObjectCollectedException;
 import consulo.internal.com.sun.jdi.Type;
 import consulo.internal.com.sun.jdi.Value;
 import consulo.language.psi.PsiElement;
@@ -105,7 +109,7 @@ public class ArrayRenderer extends NodeRendererImpl {
     @Override
     public String calcLabel(ValueDescriptor descriptor, EvaluationContext evaluationContext, DescriptorLabelListener listener)
         throws EvaluateException {
-        return ClassRenderer.calcLabel(descriptor);
+        return ClassRenderer.calcLabel(descriptor, evaluationContext);
     }
 
     public void setForced(boolean forced) {
@@ -119,6 +123,7 @@ public class ArrayRenderer extends NodeRendererImpl {
         NodeDescriptorFactory descriptorFactory = builder.getDescriptorManager();
 
         ArrayReference array = (ArrayReference) value;
+        ChunkedValueReader reader = getValueReader(evaluationContext);
         int arrayLength = array.length();
         if (arrayLength > 0) {
             if (!myForced) {
@@ -135,7 +140,7 @@ public class ArrayRenderer extends NodeRendererImpl {
             int idx = myStartIndex;
             if (arrayLength > myStartIndex) {
                 for (; idx <= end; idx++) {
-                    if (ViewsGeneralSettings.getInstance().HIDE_NULL_ARRAY_ELEMENTS && elementIsNull(array, idx)) {
+                    if (ViewsGeneralSettings.getInstance().HIDE_NULL_ARRAY_ELEMENTS && elementIsNull(array, idx, reader)) {
                         hiddenNulls = true;
                         continue;
                     }
@@ -184,14 +189,41 @@ public class ArrayRenderer extends NodeRendererImpl {
                 }
                 if (!myForced && idx < end) {
                     builder.tooManyChildren(end - idx);
+                    prefetch(array, idx, reader, evaluationContext);
                 }
             }
         }
     }
 
-    private static boolean elementIsNull(ArrayReference arrayReference, int index) {
+    private static ChunkedValueReader getValueReader(EvaluationContext evaluationContext) {
+        return ((EvaluationContextImpl) evaluationContext).getDebugProcess().getVirtualMachineProxy().getChunkedValueReader();
+    }
+
+    /**
+     * Loads the page with the next elements in background, so that showing more children does not wait for the transfer
+     */
+    private static void prefetch(ArrayReference array, int index, ChunkedValueReader reader, EvaluationContext evaluationContext) {
+        SuspendContextImpl suspendContext = ((EvaluationContextImpl) evaluationContext).getSuspendContext();
+        suspendContext.getDebugProcess().getManagerThread().schedule(new SuspendContextCommandImpl(suspendContext) {
+            @Override
+            public Priority getPriority() {
+                return Priority.LOWEST;
+            }
+
+            @Override
+            public void contextAction(SuspendContextImpl suspendContext) throws Exception {
+                try {
+                    reader.prefetch(array, index);
+                }
+                catch (ObjectCollectedException ignored) {
+                }
+            }
+        });
+    }
+
+    private static boolean elementIsNull(ArrayReference arrayReference, int index, ChunkedValueReader reader) {
         try {
-            return ArrayElementDescriptorImpl.getArrayElement(arrayReference, index) == null;
+            return ArrayElementDescriptorImpl.getArrayElement(arrayReference, index, reader) == null;
         }
         catch (EvaluateException e) {
             return false;
@@ -271,6 +303,7 @@ public class ArrayRenderer extends NodeRendererImpl {
             }
 
             ArrayReference array = (ArrayReference) value;
+            ChunkedValueReader reader = getValueReader(evaluationContext);
             int arrayLength = array.length();
             if (arrayLength > 0) {
                 builder.initChildrenArrayRenderer(this, arrayLength);
@@ -295,7 +328,7 @@ public class ArrayRenderer extends NodeRendererImpl {
                         try {
                             if (DebuggerUtilsEx.evaluateBoolean(
                                 cachedEvaluator.getEvaluator(evaluationContext.getProject()),
-                                (EvaluationContextImpl) evaluationContext.createEvaluationContext(array.getValue(idx))
+                                (EvaluationContextImpl) evaluationContext.createEvaluationContext(reader.getArrayValue(array, idx))
                             )) {
                                 DebuggerTreeNode arrayItemNode = nodeManager.createNode(
                                     descriptorFactory.getArrayItemDescriptor(builder.getParentDescriptor(), array, idx),
@@ -21,6 +21,8 @@ import com.intellij.java.debugger.engine.evaluation.EvaluateException;
 import com.intellij.java.debugger.engine.evaluation.EvaluationContext;
 import com.intellij.java.debugger.engine.jdi.StackFrameProxy;
 import com.intellij.java.debugger.impl.engine.DebuggerManagerThreadImpl;
+import com.intellij.java.debugger.impl.engine.evaluation.EvaluationContextImpl;
+import com.intellij.java.debugger.impl.jdi.ChunkedValueReader;
 import com.intellij.java.debugger.impl.ui.impl.watch.FieldDescriptorImpl;
 import com.intellij.java.debugger.impl.ui.impl.watch.MessageDescriptor;
 import com.intellij.java.debugger.impl.ui.impl.watch.NodeManagerImpl;
@@ -31,6 +33,7 @@ import com.intellij.java.debugger.ui.tree.NodeDescriptor;
 import com.intellij.java.language.psi.CommonClassNames;
 import com.intellij.java.language.psi.JavaPsiFacade;
 import com.intellij.java.language.psi.PsiElementFactory;
+import consulo.execution.debug.frame.XValueNode;
 import consulo.execution.debug.setting.XDebuggerSettingsManager;
 import consulo.internal.com.sun.jdi.*;
 import consulo.language.psi.PsiElement;
@@ -102,15 +105,20 @@ public class ClassRenderer extends NodeRendererImpl {
 
     @Override
     public String calcLabel(ValueDescriptor descriptor, EvaluationContext evaluationContext, DescriptorLabelListener labelListener) throws EvaluateException {
-        return calcLabel(descriptor);
+        return calcLabel(descriptor, evaluationContext);
     }
 
-    protected static String calcLabel(ValueDescriptor descriptor) {
+    protected static String calcLabel(ValueDescriptor descriptor, @Nullable EvaluationContext evaluationContext) {
         final ValueDescriptorImpl valueDescriptor = (ValueDescriptorImpl) descriptor;
         final Value value = valueDescriptor.getValue();
         if (value instanceof ObjectReference) {
             if (value instanceof StringReference) {
-                return ((StringReference) value).value();
+                if (valueDescriptor.isFullValue() || evaluationContext == null) {
+                    return ((StringReference) value).value();
+                }
+                ChunkedValueReader reader = ((EvaluationContextImpl) evaluationContext).getDebugProcess().getVirtualMachineProxy().getChunkedValueReader();
+                // one char over the truncation limit is enough to detect oversize
+                return reader.getStringPrefix((StringReference) value, XValueNode.MAX_VALUE_LENGTH + 1);
             }
             else if (value instanceof ClassObjectReference) {
                 ReferenceType type = ((ClassObjectReference) value).reflectedType();
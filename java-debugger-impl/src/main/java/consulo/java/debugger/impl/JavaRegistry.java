@@ -27,4 +27,7 @@ public interface JavaRegistry {
   boolean DEBUGGER_CAPTURE_POINTS_ANNOTATIONS = false;
 
   boolean DEBUGGER_CAPTURE_POINTS = false;
+
+  // Record captured stacks in the debuggee by an instrumenting agent, without stopping at capture points, transfer them only when requested
+  boolean DEBUGGER_CAPTURE_POINTS_AGENT = false;
 }
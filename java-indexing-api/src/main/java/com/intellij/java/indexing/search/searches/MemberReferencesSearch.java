@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.search.searches;
+
+import com.intellij.java.language.psi.PsiMember;
+import consulo.content.scope.SearchScope;
+import consulo.language.psi.PsiReference;
+import consulo.language.psi.search.PsiSearchHelper;
+import consulo.language.psi.search.ReferencesSearch;
+import consulo.language.psi.search.SearchRequestCollector;
+import consulo.language.psi.search.SearchSession;
+import consulo.project.Project;
+
+import java.util.Collection;
+import java.util.function.BiPredicate;
+
+/**
+ * Reference search for many methods and fields at once.
+ * <p>
+ * The searches of all the members share one {@link SearchRequestCollector}: the word requests of members with the same name
+ * are looked up in the index once, and each candidate file is scanned once for the words of all the members,
+ * its occurrences are dispatched to the searches they may belong to. Searching for the members one by one scans files
+ * containing a common name once per member.
+ * For methods, {@link MethodReferencesSearch#searchAll} also finds calls resolved to overriding methods and constructor calls.
+ */
+public class MemberReferencesSearch {
+  private MemberReferencesSearch() {
+  }
+
+  /**
+   * Finds the same references as {@link ReferencesSearch#search(consulo.language.psi.PsiElement, SearchScope)} for each member.
+   * A reference may be reported more than once for the same member, the processor may be called from several threads.
+   *
+   * @param processor receives the member and a reference to it, false stops the search
+   * @return false if the processor stopped the search
+   */
+  public static boolean searchAll(Project project,
+                                  Collection<? extends PsiMember> members,
+                                  SearchScope scope,
+                                  BiPredicate<? super PsiMember, ? super PsiReference> processor) {
+    if (members.isEmpty()) {
+      return true;
+    }
+    SearchRequestCollector collector = new SearchRequestCollector(new SearchSession());
+    for (PsiMember member : members) {
+      ReferencesSearch.searchOptimized(member, scope, false, collector, reference -> processor.test(member, reference));
+    }
+    return PsiSearchHelper.getInstance(project).processRequests(collector, reference -> true);
+  }
+}
@@ -31,6 +31,7 @@ import consulo.util.collection.ContainerUtil;
 
 import org.jspecify.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 
@@ -133,6 +134,31 @@ public class MethodReferencesSearch extends ExtensibleQueryFactory<PsiReference,
         nested)), nested, inReadAction, processor));
   }
 
+  /**
+   * Finds the same references as {@link #search(PsiMethod, SearchScope, boolean)} for each method, the searches of all the methods
+   * share one {@link SearchRequestCollector} as in {@link MemberReferencesSearch#searchAll}. Unlike the reference search used there,
+   * this covers what the method searchers add: calls resolved to overriding methods, calls of overloads unless the search is strict,
+   * and {@code super(...)} and implicit calls of constructors.
+   * A reference may be reported more than once for the same method, the processor may be called from several threads.
+   *
+   * @param processor receives the method and a reference to it, false stops the search
+   * @return false if the processor stopped the search
+   */
+  public static boolean searchAll(Project project,
+                                  Collection<? extends PsiMethod> methods,
+                                  SearchScope scope,
+                                  boolean strictSignatureSearch,
+                                  BiPredicate<? super PsiMethod, ? super PsiReference> processor) {
+    if (methods.isEmpty()) {
+      return true;
+    }
+    SearchRequestCollector collector = new SearchRequestCollector(new SearchSession());
+    for (PsiMethod method : methods) {
+      searchOptimized(method, scope, strictSignatureSearch, collector, reference -> processor.test(method, reference));
+    }
+    return PsiSearchHelper.getInstance(project).processRequests(collector, reference -> true);
+  }
+
   public static Query<PsiReference> search(final SearchParameters parameters) {
     final Query<PsiReference> result = INSTANCE.createQuery(parameters);
     if (parameters.isSharedOptimizer) {
@@ -112,6 +112,17 @@ public class CompositeShortNamesCache extends PsiShortNamesCache {
         return true;
     }
 
+    @Override
+    public boolean processClassNamesMatching(String pattern, Predicate<String> processor) {
+        CommonProcessors.UniqueProcessor<String> uniqueProcessor = new CommonProcessors.UniqueProcessor<>(processor);
+        for (PsiShortNameProvider cache : myCaches) {
+            if (!cache.processClassNamesMatching(pattern, uniqueProcessor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean processAllClassNames(Predicate<String> processor, GlobalSearchScope scope, IdFilter filter) {
         for (PsiShortNameProvider cache : myCaches) {
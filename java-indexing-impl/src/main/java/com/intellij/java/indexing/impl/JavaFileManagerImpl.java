@@ -23,11 +23,13 @@ import com.intellij.java.language.impl.JavaClassFileType;
 import com.intellij.java.language.impl.psi.impl.PsiImplUtil;
 import com.intellij.java.language.impl.psi.impl.file.impl.JavaFileManager;
 import com.intellij.java.language.impl.psi.impl.light.LightJavaModule;
+import com.intellij.java.language.impl.psi.util.CacheHitCounter;
 import com.intellij.java.language.psi.PsiClass;
 import com.intellij.java.language.psi.PsiJavaModule;
 import com.intellij.java.language.psi.PsiJavaPackage;
 import com.intellij.java.language.psi.PsiNameHelper;
 import consulo.annotation.component.ServiceImpl;
+import consulo.component.messagebus.MessageBusConnection;
 import consulo.disposer.Disposable;
 import consulo.java.language.module.extension.JavaModuleExtension;
 import consulo.language.psi.PsiFile;
@@ -46,6 +48,7 @@ import consulo.module.content.layer.event.ModuleRootEvent;
 import consulo.module.content.layer.event.ModuleRootListener;
 import consulo.module.content.layer.orderEntry.ModuleExtensionWithSdkOrderEntry;
 import consulo.module.content.scope.ModuleWithDependenciesScope;
+import consulo.project.DumbService;
 import consulo.project.Project;
 import consulo.util.collection.ContainerUtil;
 import consulo.util.collection.Lists;
@@ -53,12 +56,15 @@ import consulo.util.lang.Comparing;
 import consulo.util.lang.Pair;
 import consulo.virtualFileSystem.VirtualFile;
 import consulo.virtualFileSystem.VirtualFileWithId;
+import consulo.virtualFileSystem.event.BulkFileListener;
+import consulo.virtualFileSystem.event.VFileEvent;
 import org.jspecify.annotations.Nullable;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 /**
@@ -68,11 +74,14 @@ import java.util.stream.Stream;
 @ServiceImpl
 public class JavaFileManagerImpl implements JavaFileManager, Disposable {
   private static final Logger LOG = Logger.getInstance(JavaFileManagerImpl.class);
+  private static final int MAX_MISSING_CLASSES_PER_SCOPE = 10_000;
 
   private final Project myProject;
   private final PsiManager myManager;
   private final PsiPackageManager myPackageManager;
   private volatile Set<String> myNontrivialPackagePrefixes;
+  private volatile MissingClasses myMissingClasses = new MissingClasses(-1, ContainerUtil.createConcurrentWeakMap());
+  private final CacheHitCounter myMissingClassesCounter = new CacheHitCounter("Missing classes", LOG);
   private boolean myDisposed;
 
   @Inject
@@ -80,10 +89,19 @@ public class JavaFileManagerImpl implements JavaFileManager, Disposable {
     myProject = project;
     myManager = psiManager;
     myPackageManager = packageManager;
-    project.getMessageBus().connect().subscribe(ModuleRootListener.class, new ModuleRootListener() {
+    MessageBusConnection connection = project.getMessageBus().connect();
+    connection.subscribe(ModuleRootListener.class, new ModuleRootListener() {
       @Override
       public void rootsChanged(final ModuleRootEvent event) {
         myNontrivialPackagePrefixes = null;
+        dropMissingClasses();
+      }
+    });
+    // files may appear in directories never loaded to PSI, without any PSI events
+    connection.subscribe(BulkFileListener.class, new BulkFileListener() {
+      @Override
+      public void after(List<? extends VFileEvent> events) {
+        dropMissingClasses();
       }
     });
   }
@@ -117,6 +135,47 @@ public class JavaFileManagerImpl implements JavaFileManager, Disposable {
   }
 
   private List<Pair<PsiClass, VirtualFile>> doFindClasses(String qName, final GlobalSearchScope scope) {
+    Set<String> missing = getMissingClasses(scope);
+    if (missing.contains(qName)) {
+      myMissingClassesCounter.hit();
+      return Collections.emptyList();
+    }
+    myMissingClassesCounter.miss();
+
+    List<Pair<PsiClass, VirtualFile>> result = findClassesInIndex(qName, scope);
+    // classes not indexed yet are not missing
+    if (result.isEmpty() && !DumbService.isDumb(myProject)) {
+      if (missing.size() >= MAX_MISSING_CLASSES_PER_SCOPE) {
+        missing.clear();
+      }
+      missing.add(qName);
+    }
+    return result;
+  }
+
+  /**
+   * Qualified names not found in the scope, the same names are looked up again and again by import and reference resolve.
+   * Any class may appear with an out-of-code-block change (a new class is one), with a VFS change or with a roots change.
+   */
+  private Set<String> getMissingClasses(GlobalSearchScope scope) {
+    long stamp = myManager.getModificationTracker().getOutOfCodeBlockModificationCount();
+    MissingClasses missingClasses = myMissingClasses;
+    if (missingClasses.stamp() != stamp) {
+      missingClasses = new MissingClasses(stamp, ContainerUtil.createConcurrentWeakMap());
+      myMissingClasses = missingClasses;
+    }
+    return missingClasses.byScope().computeIfAbsent(scope, __ -> ConcurrentHashMap.newKeySet());
+  }
+
+  private void dropMissingClasses() {
+    myMissingClasses = new MissingClasses(-1, ContainerUtil.createConcurrentWeakMap());
+  }
+
+  public CacheHitCounter getMissingClassesCounter() {
+    return myMissingClassesCounter;
+  }
+
+  private List<Pair<PsiClass, VirtualFile>> findClassesInIndex(String qName, GlobalSearchScope scope) {
     final Collection<PsiClass> classes = JavaFullClassNameIndex.getInstance().get(qName.hashCode(), myProject, scope);
     if (classes.isEmpty()) {
       return Collections.emptyList();
@@ -280,4 +339,7 @@ public class JavaFileManagerImpl implements JavaFileManager, Disposable {
       return super.contains(file) && (!myIndex.isInLibrarySource(file) || myIndex.isInLibraryClasses(file));
     }
   }
-}
\ No newline at end of file
+
+  private record MissingClasses(long stamp, Map<GlobalSearchScope, Set<String>> byScope) {
+  }
+}
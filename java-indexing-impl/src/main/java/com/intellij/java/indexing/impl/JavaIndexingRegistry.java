@@ -0,0 +1,21 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl;
+
+public interface JavaIndexingRegistry {
+    // Look up direct inheritors of a hierarchy level and overriding methods of inheritors on a bounded pool, on by default
+    String HIERARCHY_SEARCH_PARALLEL = "java.hierarchy.search.parallel";
+}
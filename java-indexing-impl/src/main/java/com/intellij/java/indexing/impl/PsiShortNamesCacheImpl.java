@@ -34,26 +34,42 @@ import consulo.language.psi.PsiManager;
 import consulo.language.psi.scope.GlobalSearchScope;
 import consulo.language.psi.search.FilenameIndex;
 import consulo.language.psi.stub.IdFilter;
+import consulo.language.psi.stub.StringStubIndexExtension;
 import consulo.language.psi.stub.StubIndex;
+import consulo.project.DumbService;
 import consulo.project.Project;
-import consulo.util.collection.ArrayUtil;
+import consulo.project.content.ProjectRootModificationTracker;
 import consulo.util.collection.HashingStrategy;
 import consulo.util.collection.Sets;
 import consulo.util.collection.SmartList;
 import consulo.virtualFileSystem.VirtualFile;
+import consulo.virtualFileSystem.event.BulkFileListener;
+import consulo.virtualFileSystem.event.VFileEvent;
 import org.jspecify.annotations.Nullable;
 import jakarta.inject.Inject;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
 @ExtensionImpl
 public class PsiShortNamesCacheImpl implements PsiShortNameProvider {
     private final Project myProject;
+    private final AtomicReference<ShortNameSnapshot> myClassNames = new AtomicReference<>();
+    private final AtomicReference<ShortNameSnapshot> myMethodNames = new AtomicReference<>();
+    private final AtomicReference<ShortNameSnapshot> myFieldNames = new AtomicReference<>();
 
     @Inject
     public PsiShortNamesCacheImpl(Project project) {
         myProject = project;
+        project.getMessageBus().connect(project).subscribe(BulkFileListener.class, new BulkFileListener() {
+            @Override
+            public void after(List<? extends VFileEvent> events) {
+                myClassNames.set(null);
+                myMethodNames.set(null);
+                myFieldNames.set(null);
+            }
+        });
     }
 
     @Override
@@ -109,7 +125,7 @@ public class PsiShortNamesCacheImpl implements PsiShortNameProvider {
 
     @Override
     public String[] getAllClassNames() {
-        return ArrayUtil.toStringArray(JavaShortClassNameIndex.getInstance().getAllKeys(myProject));
+        return getNames(myClassNames, JavaShortClassNameIndex.getInstance()).getNames();
     }
 
     @Override
@@ -119,7 +135,32 @@ public class PsiShortNamesCacheImpl implements PsiShortNameProvider {
 
     @Override
     public boolean processAllClassNames(Predicate<String> processor) {
-        return JavaShortClassNameIndex.getInstance().processAllKeys(myProject, processor);
+        return getNames(myClassNames, JavaShortClassNameIndex.getInstance()).process(processor);
+    }
+
+    @Override
+    public boolean processClassNamesMatching(String pattern, Predicate<String> processor) {
+        return getNames(myClassNames, JavaShortClassNameIndex.getInstance()).processMatching(pattern, processor);
+    }
+
+    /**
+     * Names are enumerated once per change of Java structure, project roots, files (names may appear in directories never loaded to PSI)
+     * or indices (dumb mode), names of the index are not cached while it's being updated
+     */
+    private ShortNameSnapshot getNames(AtomicReference<ShortNameSnapshot> ref, StringStubIndexExtension<?> index) {
+        DumbService dumbService = DumbService.getInstance(myProject);
+        long stamp = PsiManager.getInstance(myProject).getModificationTracker().getOutOfCodeBlockModificationCount() +
+            ProjectRootModificationTracker.getInstance(myProject).getModificationCount() +
+            dumbService.getModificationTracker().getModificationCount();
+        ShortNameSnapshot snapshot = ref.get();
+        if (snapshot != null && snapshot.getStamp() == stamp) {
+            return snapshot;
+        }
+        snapshot = new ShortNameSnapshot(stamp, index.getAllKeys(myProject));
+        if (!dumbService.isDumb()) {
+            ref.set(snapshot);
+        }
+        return snapshot;
     }
 
     @Override
@@ -186,12 +227,12 @@ public class PsiShortNamesCacheImpl implements PsiShortNameProvider {
 
     @Override
     public String[] getAllMethodNames() {
-        return ArrayUtil.toStringArray(JavaMethodNameIndex.getInstance().getAllKeys(myProject));
+        return getNames(myMethodNames, JavaMethodNameIndex.getInstance()).getNames();
     }
 
     @Override
     public void getAllMethodNames(HashSet<String> set) {
-        JavaMethodNameIndex.getInstance().processAllKeys(myProject, new CommonProcessors.CollectProcessor<>(set));
+        getNames(myMethodNames, JavaMethodNameIndex.getInstance()).process(new CommonProcessors.CollectProcessor<>(set));
     }
 
     @Override
@@ -232,12 +273,12 @@ public class PsiShortNamesCacheImpl implements PsiShortNameProvider {
 
     @Override
     public String[] getAllFieldNames() {
-        return ArrayUtil.toStringArray(JavaFieldNameIndex.getInstance().getAllKeys(myProject));
+        return getNames(myFieldNames, JavaFieldNameIndex.getInstance()).getNames();
     }
 
     @Override
     public void getAllFieldNames(HashSet<String> set) {
-        JavaFieldNameIndex.getInstance().processAllKeys(myProject, new CommonProcessors.CollectProcessor<>(set));
+        getNames(myFieldNames, JavaFieldNameIndex.getInstance()).process(new CommonProcessors.CollectProcessor<>(set));
     }
 
     @Override
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl;
+
+import consulo.application.progress.ProgressManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * Sorted array of the keys of a name index at some modification stamp.
+ * <p>
+ * Names are sorted ignoring case. A camel-hump pattern ({@code NPE}, {@code nuPoEx}, {@code Buffer}) may match a name
+ * from any of its humps, so names are also indexed by the letter each of their humps starts with, and a pattern is looked up
+ * in the names having a hump starting with its first letter only. Lookups neither enumerate the index again nor hash its keys.
+ */
+final class ShortNameSnapshot {
+    private static final int[] NO_INDICES = new int[0];
+
+    private final long myStamp;
+    private final String[] myNames;
+    // positions of names in myNames by the lower case ascii letter one of their humps starts with, built on first lookup
+    private volatile int[][] myByHumpStart;
+
+    ShortNameSnapshot(long stamp, Collection<String> names) {
+        myStamp = stamp;
+        myNames = names.toArray(String[]::new);
+        Arrays.sort(myNames, String.CASE_INSENSITIVE_ORDER);
+    }
+
+    long getStamp() {
+        return myStamp;
+    }
+
+    String[] getNames() {
+        return myNames.clone();
+    }
+
+    boolean process(Predicate<? super String> processor) {
+        for (int i = 0; i < myNames.length; i++) {
+            if ((i & 0xFFF) == 0) {
+                ProgressManager.checkCanceled();
+            }
+            if (!processor.test(myNames[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Processes names which may be matched by the camel-hump pattern: the names having a hump which starts with the first letter
+     * of the pattern, in any case. Names are processed in sorted order, a pattern not starting with an ascii letter processes all names.
+     */
+    boolean processMatching(String pattern, Predicate<? super String> processor) {
+        int letter = pattern.isEmpty() ? -1 : toLetterIndex(pattern.charAt(0));
+        if (letter < 0) {
+            return process(processor);
+        }
+        int[] indices = getByHumpStart()[letter];
+        for (int i = 0; i < indices.length; i++) {
+            if ((i & 0xFFF) == 0) {
+                ProgressManager.checkCanceled();
+            }
+            if (!processor.test(myNames[indices[i]])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[][] getByHumpStart() {
+        int[][] byHumpStart = myByHumpStart;
+        if (byHumpStart == null) {
+            int[] sizes = new int[26];
+            int[][] letters = new int[myNames.length][];
+            for (int i = 0; i < myNames.length; i++) {
+                if ((i & 0xFFF) == 0) {
+                    ProgressManager.checkCanceled();
+                }
+                letters[i] = getHumpStartLetters(myNames[i]);
+                for (int letter : letters[i]) {
+                    sizes[letter]++;
+                }
+            }
+            byHumpStart = new int[26][];
+            for (int letter = 0; letter < 26; letter++) {
+                byHumpStart[letter] = sizes[letter] == 0 ? NO_INDICES : new int[sizes[letter]];
+                sizes[letter] = 0;
+            }
+            for (int i = 0; i < myNames.length; i++) {
+                for (int letter : letters[i]) {
+                    byHumpStart[letter][sizes[letter]++] = i;
+                }
+            }
+            myByHumpStart = byHumpStart;
+        }
+        return byHumpStart;
+    }
+
+    /**
+     * @return distinct letter indices of the hump starts of the name: its first character, upper case letters
+     * and characters following a non-letter
+     */
+    private static int[] getHumpStartLetters(String name) {
+        int mask = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (i == 0 || Character.isUpperCase(c) || !Character.isLetter(name.charAt(i - 1))) {
+                int letter = toLetterIndex(c);
+                if (letter >= 0) {
+                    mask |= 1 << letter;
+                }
+            }
+        }
+        int[] letters = new int[Integer.bitCount(mask)];
+        for (int i = 0; mask != 0; i++) {
+            letters[i] = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+        return letters;
+    }
+
+    private static int toLetterIndex(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower >= 'a' && lower <= 'z' ? lower - 'a' : -1;
+    }
+}
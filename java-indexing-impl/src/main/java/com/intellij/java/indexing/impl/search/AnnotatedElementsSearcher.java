@@ -16,21 +16,24 @@
 package com.intellij.java.indexing.impl.search;
 
 import com.intellij.java.indexing.impl.stubs.index.JavaAnnotationIndex;
+import com.intellij.java.indexing.impl.stubs.index.JavaImportedAnnotationIndex;
 import com.intellij.java.indexing.search.searches.AnnotatedElementsSearch;
 import com.intellij.java.indexing.search.searches.AnnotatedElementsSearchExecutor;
 import com.intellij.java.language.psi.*;
+import consulo.annotation.access.RequiredReadAction;
 import consulo.annotation.component.ExtensionImpl;
 import consulo.application.Application;
 import consulo.content.scope.SearchScope;
 import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
 import consulo.language.psi.PsiManager;
+import consulo.language.psi.PsiUtilCore;
 import consulo.language.psi.scope.GlobalSearchScope;
 import consulo.language.psi.scope.LocalSearchScope;
 import consulo.language.psi.util.PsiTreeUtil;
+import consulo.virtualFileSystem.VirtualFile;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -55,6 +58,7 @@ public class AnnotatedElementsSearcher implements AnnotatedElementsSearchExecuto
 
         SearchScope useScope = p.getScope();
         Class<? extends PsiModifierListOwner>[] types = p.getTypes();
+        Set<VirtualFile> importingFiles = getFilesImportingAnnotation(annotationFQN, useScope);
 
         for (PsiAnnotation ann : getAnnotationCandidates(annClass, useScope)) {
             PsiModifierListOwner candidate =
@@ -70,7 +74,7 @@ public class AnnotatedElementsSearcher implements AnnotatedElementsSearchExecuto
                     }
 
                     PsiJavaCodeReferenceElement ref = ann.getNameReferenceElement();
-                    if (ref == null || !psiManager.areElementsEquivalent(ref.resolve(), annClass)) {
+                    if (ref == null || !isReferenceTo(ref, annClass, annotationFQN, importingFiles, psiManager)) {
                         return null;
                     }
 
@@ -85,6 +89,61 @@ public class AnnotatedElementsSearcher implements AnnotatedElementsSearchExecuto
         return true;
     }
 
+    /**
+     * Unqualified references of files importing the annotation by a single-type import and references spelled with the qualified name
+     * of the annotation are matched without resolve. Unqualified references in bodies of classes which may inherit member types are
+     * resolved: an inherited member type shadows the import there.
+     */
+    @RequiredReadAction
+    private static boolean isReferenceTo(
+        PsiJavaCodeReferenceElement ref,
+        PsiClass annClass,
+        String annotationFQN,
+        Set<VirtualFile> importingFiles,
+        PsiManager psiManager
+    ) {
+        if (ref.isQualified()
+            ? annotationFQN.equals(ref.getText())
+            : importingFiles.contains(PsiUtilCore.getVirtualFile(ref)) && !isInBodyOfInheritingClass(ref)) {
+            return true;
+        }
+        return psiManager.areElementsEquivalent(ref.resolve(), annClass);
+    }
+
+    @RequiredReadAction
+    private static boolean isInBodyOfInheritingClass(PsiElement element) {
+        PsiElement child = element;
+        PsiElement parent = element.getParent();
+        while (parent != null && !(parent instanceof PsiFile)) {
+            // members are the only children of a class in its body
+            if (parent instanceof PsiClass aClass && child instanceof PsiMember && mayInheritMemberTypes(aClass)) {
+                return true;
+            }
+            child = parent;
+            parent = parent.getParent();
+        }
+        return false;
+    }
+
+    @RequiredReadAction
+    private static boolean mayInheritMemberTypes(PsiClass aClass) {
+        // enums inherit java.lang.Enum.EnumDesc
+        return aClass instanceof PsiAnonymousClass || aClass.isEnum() || hasReferences(aClass.getExtendsList())
+            || hasReferences(aClass.getImplementsList());
+    }
+
+    private static boolean hasReferences(PsiReferenceList list) {
+        return list != null && list.getReferenceElements().length > 0;
+    }
+
+    private static Set<VirtualFile> getFilesImportingAnnotation(String annotationFQN, SearchScope useScope) {
+        if (!(useScope instanceof GlobalSearchScope globalSearchScope)) {
+            return Collections.emptySet();
+        }
+        return Application.get().runReadAction((Supplier<Set<VirtualFile>>)() ->
+            new HashSet<>(JavaImportedAnnotationIndex.getFilesByQualifiedName(annotationFQN, globalSearchScope)));
+    }
+
     private static Collection<PsiAnnotation> getAnnotationCandidates(PsiClass annClass, SearchScope useScope) {
         return Application.get().runReadAction((Supplier<Collection<PsiAnnotation>>)() -> {
             if (useScope instanceof GlobalSearchScope globalSearchScope) {
@@ -17,6 +17,7 @@ package com.intellij.java.indexing.impl.search;
 
 import com.intellij.java.indexing.search.searches.ClassInheritorsSearch;
 import com.intellij.java.language.LanguageLevel;
+import com.intellij.java.language.impl.JavaFileType;
 import com.intellij.java.language.impl.psi.impl.light.LightMemberReference;
 import com.intellij.java.language.impl.psi.impl.source.resolve.JavaResolveUtil;
 import com.intellij.java.language.psi.*;
@@ -29,13 +30,18 @@ import consulo.language.psi.PsiElement;
 import consulo.language.psi.PsiManager;
 import consulo.language.psi.PsiNameIdentifierOwner;
 import consulo.language.psi.PsiReference;
+import consulo.language.psi.scope.DelegatingGlobalSearchScope;
+import consulo.language.psi.scope.GlobalSearchScope;
 import consulo.language.psi.scope.PsiSearchScopeUtil;
 import consulo.language.psi.search.ReferencesSearch;
 import consulo.language.psi.search.SearchRequestCollector;
 import consulo.project.DumbService;
 import consulo.project.Project;
+import consulo.virtualFileSystem.VirtualFile;
 
+import java.util.Set;
 import java.util.function.BiPredicate;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -109,9 +115,25 @@ public class ConstructorReferencesSearchHelper {
             return true;
         };
 
-        ReferencesSearch.searchOptimized(containingClass, searchScope, ignoreAccessScope, collector, true, processor1);
+        SearchScope newExpressionsScope = MethodUsagesSearcher.resolveInReadAction(
+            project,
+            () -> restrictToInstantiatingFiles(
+                searchScope,
+                containingClass,
+                newExpressionArgumentsCount(constructor, isStrictSignatureSearch)
+            )
+        );
+        ReferencesSearch.searchOptimized(containingClass, newExpressionsScope, ignoreAccessScope, collector, true, processor1);
         if (isUnder18[0]) {
-            if (!process18MethodPointers(processor, constructor, project, containingClass, searchScope)) {
+            SearchScope constructorReferencesScope = MethodUsagesSearcher.resolveInReadAction(
+                project,
+                () -> restrictToInstantiatingFiles(
+                    searchScope,
+                    containingClass,
+                    count -> count == JavaNewExpressionIndex.CONSTRUCTOR_REFERENCE
+                )
+            );
+            if (!process18MethodPointers(processor, constructor, project, containingClass, constructorReferencesScope)) {
                 return false;
             }
         }
@@ -151,6 +173,37 @@ public class ConstructorReferencesSearchHelper {
         return ClassInheritorsSearch.search(containingClass, searchScope, false).forEach(processor2);
     }
 
+    /**
+     * @return numbers of arguments of "new" expressions which may call the constructor
+     */
+    @RequiredReadAction
+    private static IntPredicate newExpressionArgumentsCount(PsiMethod constructor, boolean isStrictSignatureSearch) {
+        if (!isStrictSignatureSearch) {
+            return count -> count >= 0;
+        }
+        int parametersCount = constructor.getParameterList().getParametersCount();
+        return constructor.isVarArgs() ? count -> count >= parametersCount - 1 : count -> count == parametersCount;
+    }
+
+    /**
+     * Narrows the scope to the Java files instantiating the class according to {@link JavaNewExpressionIndex}.
+     * Files of other languages are kept, the index doesn't cover them.
+     */
+    @RequiredReadAction
+    private static SearchScope restrictToInstantiatingFiles(SearchScope searchScope, PsiClass aClass, IntPredicate argumentsCount) {
+        String className = aClass.getName();
+        if (!(searchScope instanceof GlobalSearchScope globalScope) || className == null) {
+            return searchScope;
+        }
+        Set<VirtualFile> files = JavaNewExpressionIndex.getFiles(className, argumentsCount, globalScope);
+        return new DelegatingGlobalSearchScope(globalScope) {
+            @Override
+            public boolean contains(VirtualFile file) {
+                return super.contains(file) && (file.getFileType() != JavaFileType.INSTANCE || files.contains(file));
+            }
+        };
+    }
+
     private static boolean processEnumReferences(
         Predicate<? super PsiReference> processor,
         PsiMethod constructor,
@@ -27,9 +27,11 @@ import consulo.annotation.component.ExtensionImpl;
 import consulo.application.Application;
 import consulo.content.scope.SearchScope;
 import consulo.util.collection.MultiMap;
+import consulo.util.collection.SmartList;
 import consulo.util.lang.Couple;
 import consulo.util.lang.Pair;
 
+import java.util.List;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -59,52 +61,78 @@ public class JavaAllOverridingMethodsSearcher implements AllOverridingMethodsSea
 
         SearchScope scope = p.getScope();
 
-        Predicate<PsiClass> inheritorsProcessor = inheritor -> {
-            PsiSubstitutor substitutor = null;
+        Predicate<List<Pair<PsiMethod, PsiMethod>>> pairsConsumer = pairs -> {
+            for (Pair<PsiMethod, PsiMethod> pair : pairs) {
+                if (!consumer.test(pair)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+
+        if (ParallelHierarchySearch.isParallel()) {
+            // overriding methods of different inheritors are looked up in parallel, the consumer gets them in the order of inheritors
+            return ParallelHierarchySearch.<PsiClass, List<Pair<PsiMethod, PsiMethod>>>processSearchMapped(
+                processor -> ClassInheritorsSearch.search(psiClass, scope, true).forEach(processor),
+                inheritor -> Application.get().runReadAction(
+                    (Supplier<List<Pair<PsiMethod, PsiMethod>>>)() -> findOverridingMethods(psiClass, methods, inheritor)
+                ),
+                pairsConsumer
+            );
+        }
+
+        return ClassInheritorsSearch.search(psiClass, scope, true)
+            .forEach(inheritor -> pairsConsumer.test(findOverridingMethods(psiClass, methods, inheritor)));
+    }
+
+    /**
+     * @return pairs of a method of the class and the method overriding it in the inheritor
+     */
+    private static List<Pair<PsiMethod, PsiMethod>> findOverridingMethods(
+        PsiClass psiClass,
+        MultiMap<String, PsiMethod> methods,
+        PsiClass inheritor
+    ) {
+        List<Pair<PsiMethod, PsiMethod>> result = new SmartList<>();
+        PsiSubstitutor substitutor = null;
+
+        for (String name : methods.keySet()) {
+            if (inheritor.findMethodsByName(name, true).length == 0) {
+                continue;
+            }
 
-            for (String name : methods.keySet()) {
-                if (inheritor.findMethodsByName(name, true).length == 0) {
+            for (PsiMethod method : methods.get(name)) {
+                if (method.hasModifierProperty(PsiModifier.PACKAGE_LOCAL) && !JavaPsiFacade.getInstance(inheritor.getProject())
+                    .arePackagesTheSame(psiClass, inheritor)) {
                     continue;
                 }
 
-                for (PsiMethod method : methods.get(name)) {
-                    if (method.hasModifierProperty(PsiModifier.PACKAGE_LOCAL) && !JavaPsiFacade.getInstance(inheritor.getProject())
-                        .arePackagesTheSame(psiClass, inheritor)) {
-                        continue;
-                    }
-
+                if (substitutor == null) {
+                    //could be null if not java inheritor, TODO only JavaClassInheritors are needed
+                    substitutor = TypeConversionUtil.getClassSubstitutor(psiClass, inheritor, PsiSubstitutor.EMPTY);
                     if (substitutor == null) {
-                        //could be null if not java inheritor, TODO only JavaClassInheritors are needed
-                        substitutor = TypeConversionUtil.getClassSubstitutor(psiClass, inheritor, PsiSubstitutor.EMPTY);
-                        if (substitutor == null) {
-                            return true;
-                        }
+                        return result;
                     }
+                }
 
-                    MethodSignature signature = method.getSignature(substitutor);
-                    PsiMethod inInheritor = MethodSignatureUtil.findMethodBySuperSignature(inheritor, signature, false);
-                    if (inInheritor != null && !inInheritor.isStatic()) {
-                        if (!consumer.test(Couple.of(method, inInheritor))) {
-                            return false;
-                        }
-                    }
+                MethodSignature signature = method.getSignature(substitutor);
+                PsiMethod inInheritor = MethodSignatureUtil.findMethodBySuperSignature(inheritor, signature, false);
+                if (inInheritor != null && !inInheritor.isStatic()) {
+                    result.add(Couple.of(method, inInheritor));
+                }
 
-                    if (psiClass.isInterface() && !inheritor.isInterface()) {  //check for sibling implementation
-                        PsiClass superClass = inheritor.getSuperClass();
-                        if (superClass != null && !superClass.isInheritor(psiClass, true)) {
-                            inInheritor =
-                                MethodSignatureUtil.findMethodInSuperClassBySignatureInDerived(inheritor, superClass, signature, true);
-                            if (inInheritor != null && !inInheritor.isStatic() && !consumer.test(Couple.of(method, inInheritor))) {
-                                return false;
-                            }
+                if (psiClass.isInterface() && !inheritor.isInterface()) {  //check for sibling implementation
+                    PsiClass superClass = inheritor.getSuperClass();
+                    if (superClass != null && !superClass.isInheritor(psiClass, true)) {
+                        inInheritor =
+                            MethodSignatureUtil.findMethodInSuperClassBySignatureInDerived(inheritor, superClass, signature, true);
+                        if (inInheritor != null && !inInheritor.isStatic()) {
+                            result.add(Couple.of(method, inInheritor));
                         }
                     }
                 }
             }
-
-            return true;
-        };
-
-        return ClassInheritorsSearch.search(psiClass, scope, true).forEach(inheritorsProcessor);
+        }
+        return result;
     }
 }
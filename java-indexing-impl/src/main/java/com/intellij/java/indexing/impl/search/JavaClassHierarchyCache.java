@@ -0,0 +1,470 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl.search;
+
+import com.intellij.java.indexing.search.searches.DirectClassInheritorsSearch;
+import com.intellij.java.language.psi.PsiAnonymousClass;
+import com.intellij.java.language.psi.PsiClass;
+import com.intellij.java.language.psi.PsiClassOwner;
+import com.intellij.java.language.psi.PsiClassType;
+import com.intellij.java.language.psi.PsiCodeBlock;
+import com.intellij.java.language.psi.PsiTypeParameter;
+import consulo.annotation.access.RequiredReadAction;
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.application.Application;
+import consulo.application.progress.ProgressManager;
+import consulo.application.util.ReadActionProcessor;
+import consulo.disposer.Disposable;
+import consulo.language.impl.psi.PsiFileImpl;
+import consulo.language.psi.PsiAnchor;
+import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.PsiManager;
+import consulo.language.psi.PsiUtilCore;
+import consulo.language.psi.event.PsiTreeChangeAdapter;
+import consulo.language.psi.event.PsiTreeChangeEvent;
+import consulo.language.psi.scope.GlobalSearchScope;
+import consulo.language.psi.stub.StubElement;
+import consulo.language.psi.stub.StubTree;
+import consulo.language.psi.util.PsiTreeUtil;
+import consulo.project.Project;
+import consulo.project.content.ProjectRootModificationTracker;
+import consulo.virtualFileSystem.VirtualFile;
+import consulo.virtualFileSystem.archive.ArchiveFileType;
+import consulo.virtualFileSystem.event.BulkFileListener;
+import consulo.virtualFileSystem.event.VFileEvent;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.jspecify.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * In-memory supertype to direct subtypes graph of the project, filled lazily while inheritors are searched.
+ * <p>
+ * Direct inheritors of a class are found by {@link DirectClassInheritorsSearch} in the whole project once,
+ * so repeated and deep inheritor searches walk the graph without index lookups. The inheritance check of an inheritor
+ * is done on the first request and remembered until the next change of the hierarchy.
+ * <p>
+ * The graph is updated from the changed files: PSI changes outside of code blocks (and of classes in code blocks) and VFS changes
+ * of files mark them changed, and before the next lookup the entries listing a class of a changed file and the entries
+ * of the classes named as supertypes in a changed file are dropped. The whole graph is dropped when project roots change,
+ * when a directory or an archive changes or when it grows over {@link #MAX_GRAPH_SIZE} classes.
+ */
+@Singleton
+@ServiceAPI(ComponentScope.PROJECT)
+@ServiceImpl
+public final class JavaClassHierarchyCache implements Disposable {
+    private static final int MAX_GRAPH_SIZE = 50_000;
+
+    private final Project myProject;
+    // incremented with every change, entries looked up across a change are not remembered
+    private final AtomicLong myChangeCount = new AtomicLong();
+    private final Set<VirtualFile> myChangedFiles = ConcurrentHashMap.newKeySet();
+    private volatile Graph myGraph = new Graph(-1);
+
+    public static JavaClassHierarchyCache getInstance(Project project) {
+        return project.getInstance(JavaClassHierarchyCache.class);
+    }
+
+    @Inject
+    public JavaClassHierarchyCache(Project project) {
+        myProject = project;
+        project.getMessageBus().connect(this).subscribe(BulkFileListener.class, new BulkFileListener() {
+            @Override
+            public void after(List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    fileChanged(event.getFile());
+                }
+            }
+        });
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void beforeChildRemoval(PsiTreeChangeEvent event) {
+                psiChanged(event, event.getChild());
+            }
+
+            @Override
+            public void beforeChildReplacement(PsiTreeChangeEvent event) {
+                psiChanged(event, event.getOldChild());
+            }
+
+            @Override
+            public void beforeChildrenChange(PsiTreeChangeEvent event) {
+                psiChanged(event, event.getParent());
+            }
+
+            @Override
+            public void childAdded(PsiTreeChangeEvent event) {
+                psiChanged(event, event.getChild());
+            }
+
+            @Override
+            public void childReplaced(PsiTreeChangeEvent event) {
+                psiChanged(event, event.getNewChild());
+            }
+
+            @Override
+            public void childrenChanged(PsiTreeChangeEvent event) {
+                psiChanged(event, event.getParent());
+            }
+
+            @Override
+            public void childMoved(PsiTreeChangeEvent event) {
+                psiChanged(event, event.getChild());
+            }
+
+            @Override
+            public void propertyChanged(PsiTreeChangeEvent event) {
+                psiChanged(event, null);
+            }
+        }, this);
+    }
+
+    /**
+     * Passes direct inheritors of the class including anonymous ones to the processor, not filtered by the inheritance check.
+     * Inheritors are looked up in the index until the processor stops, only a complete list is remembered.
+     *
+     * @param anchor anchor of the class, used as the key of the graph
+     * @return false if the processor stopped the processing
+     */
+    public boolean processDirectInheritors(PsiAnchor anchor, PsiClass aClass, Predicate<? super Inheritor> processor) {
+        long changeCount = myChangeCount.get();
+        Graph graph = getGraph();
+        Entry entry = graph.get(anchor);
+        if (entry != null) {
+            for (Inheritor inheritor : entry.inheritors()) {
+                if (!processor.test(inheritor)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        List<Inheritor> result = new ArrayList<>();
+        Set<VirtualFile> files = new HashSet<>();
+        boolean completed = DirectClassInheritorsSearch.search(aClass, GlobalSearchScope.allScope(myProject), true, false)
+            .forEach(new ReadActionProcessor<>() {
+                @Override
+                @RequiredReadAction
+                public boolean processInReadAction(PsiClass candidate) {
+                    ProgressManager.checkCanceled();
+                    Inheritor inheritor = new Inheritor(
+                        anchor,
+                        PsiAnchor.create(candidate),
+                        candidate instanceof PsiAnonymousClass,
+                        myChangeCount
+                    );
+                    VirtualFile file = PsiUtilCore.getVirtualFile(candidate);
+                    synchronized (result) {
+                        result.add(inheritor);
+                        if (file != null) {
+                            files.add(file);
+                        }
+                    }
+                    return processor.test(inheritor);
+                }
+            });
+        if (completed) {
+            String name = Application.get().runReadAction((Supplier<String>)() -> {
+                VirtualFile file = PsiUtilCore.getVirtualFile(aClass);
+                synchronized (result) {
+                    if (file != null) {
+                        files.add(file);
+                    }
+                }
+                return aClass.getName();
+            });
+            synchronized (result) {
+                graph.put(anchor, new Entry(name, Set.copyOf(files), List.copyOf(result)), changeCount, myChangeCount);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * @return all direct inheritors of the class, see {@link #processDirectInheritors}
+     */
+    public List<Inheritor> getDirectInheritors(PsiAnchor anchor, PsiClass aClass) {
+        List<Inheritor> result = new ArrayList<>();
+        processDirectInheritors(anchor, aClass, inheritor -> {
+            synchronized (result) {
+                result.add(inheritor);
+            }
+            return true;
+        });
+        synchronized (result) {
+            return List.copyOf(result);
+        }
+    }
+
+    private Graph getGraph() {
+        long stamp = ProjectRootModificationTracker.getInstance(myProject).getModificationCount();
+        Graph graph = myGraph;
+        if (graph.stamp() != stamp || graph.size() >= MAX_GRAPH_SIZE) {
+            graph = new Graph(stamp);
+            myGraph = graph;
+        }
+        if (!myChangedFiles.isEmpty()) {
+            applyChanges(graph);
+        }
+        return graph;
+    }
+
+    private void applyChanges(Graph graph) {
+        List<VirtualFile> files = new ArrayList<>();
+        for (Iterator<VirtualFile> iterator = myChangedFiles.iterator(); iterator.hasNext(); ) {
+            files.add(iterator.next());
+            iterator.remove();
+        }
+        if (files.isEmpty() || graph.size() == 0) {
+            return;
+        }
+        Set<String> superClassNames = Application.get().runReadAction((Supplier<Set<String>>)() -> getSuperClassNames(files));
+        graph.invalidate(files, superClassNames);
+    }
+
+    /**
+     * @return short names of the supertypes of all classes in the files, the classes in code blocks included
+     */
+    @RequiredReadAction
+    private Set<String> getSuperClassNames(List<VirtualFile> files) {
+        Set<String> names = new HashSet<>();
+        PsiManager manager = PsiManager.getInstance(myProject);
+        for (VirtualFile file : files) {
+            PsiFile psiFile = file.isValid() ? manager.findFile(file) : null;
+            if (!(psiFile instanceof PsiClassOwner classOwner)) {
+                continue;
+            }
+            for (PsiClass aClass : classOwner.getClasses()) {
+                addSuperClassNames(aClass, names);
+            }
+            for (PsiClass aClass : getClassesInCodeBlocks(psiFile)) {
+                addSuperClassNames(aClass, names);
+            }
+        }
+        return names;
+    }
+
+    @RequiredReadAction
+    private static void addSuperClassNames(PsiClass aClass, Set<String> names) {
+        ProgressManager.checkCanceled();
+        for (PsiClassType superType : aClass.getSuperTypes()) {
+            String name = superType.getClassName();
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        for (PsiClass innerClass : aClass.getInnerClasses()) {
+            addSuperClassNames(innerClass, names);
+        }
+    }
+
+    /**
+     * @return anonymous and local classes of the file, from its stubs unless its AST is loaded already
+     */
+    @RequiredReadAction
+    private static List<PsiClass> getClassesInCodeBlocks(PsiFile file) {
+        StubTree stubTree = file instanceof PsiFileImpl fileImpl ? fileImpl.getStubTree() : null;
+        Collection<PsiElement> elements = new ArrayList<>();
+        if (stubTree != null) {
+            for (StubElement<?> stub : stubTree.getPlainList()) {
+                elements.add(stub.getPsi());
+            }
+        }
+        else {
+            elements.addAll(PsiTreeUtil.findChildrenOfType(file, PsiClass.class));
+        }
+
+        List<PsiClass> result = new ArrayList<>();
+        for (PsiElement element : elements) {
+            if (element instanceof PsiClass aClass && !(aClass instanceof PsiTypeParameter)) {
+                PsiElement parent = aClass.getParent();
+                if (!(parent instanceof PsiClass) && !(parent instanceof PsiFile)) {
+                    result.add(aClass);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void psiChanged(PsiTreeChangeEvent event, @Nullable PsiElement changed) {
+        PsiFile file = event.getFile();
+        if (file == null) {
+            // files and directories are added, moved or removed, the VFS listener gets them
+            return;
+        }
+        if (isInCodeBlock(event.getParent()) && !containsClass(changed)) {
+            return;
+        }
+        fileChanged(file.getVirtualFile());
+    }
+
+    private void fileChanged(@Nullable VirtualFile file) {
+        myChangeCount.incrementAndGet();
+        if (file == null || file.isDirectory() || file.getFileType() instanceof ArchiveFileType) {
+            // the classes of a directory or an archive are not known here
+            myGraph = new Graph(-1);
+        }
+        else {
+            myChangedFiles.add(file);
+        }
+    }
+
+    private static boolean isInCodeBlock(@Nullable PsiElement element) {
+        return element != null && PsiTreeUtil.getNonStrictParentOfType(element, PsiCodeBlock.class, PsiClass.class) instanceof PsiCodeBlock;
+    }
+
+    private static boolean containsClass(@Nullable PsiElement element) {
+        return element instanceof PsiClass || element != null && PsiTreeUtil.findChildOfType(element, PsiClass.class) != null;
+    }
+
+    @Override
+    public void dispose() {
+        myChangedFiles.clear();
+        myGraph = new Graph(-1);
+    }
+
+    public static final class Inheritor {
+        private final PsiAnchor myBase;
+        private final PsiAnchor myAnchor;
+        private final boolean myAnonymous;
+        private final AtomicLong myChangeCount;
+        private volatile @Nullable Check myCheck;
+
+        private Inheritor(PsiAnchor base, PsiAnchor anchor, boolean anonymous, AtomicLong changeCount) {
+            myBase = base;
+            myAnchor = anchor;
+            myAnonymous = anonymous;
+            myChangeCount = changeCount;
+        }
+
+        public PsiAnchor anchor() {
+            return myAnchor;
+        }
+
+        public boolean anonymous() {
+            return myAnonymous;
+        }
+
+        /**
+         * @return whether the class passes {@link PsiClass#isInheritor} check against its base class
+         */
+        @RequiredReadAction
+        public boolean isInheritor(PsiClass candidate) {
+            // any change may change what the supertype references resolve to
+            long changeCount = myChangeCount.get();
+            Check check = myCheck;
+            if (check == null || check.changeCount() != changeCount) {
+                PsiClass base = (PsiClass)myBase.retrieve();
+                check = new Check(changeCount, base != null && candidate.isInheritor(base, false));
+                myCheck = check;
+            }
+            return check.inheritor();
+        }
+    }
+
+    private record Check(long changeCount, boolean inheritor) {
+    }
+
+    /**
+     * @param name       short name of the base class
+     * @param files      files of the base class and of its inheritors
+     * @param inheritors direct inheritors of the base class
+     */
+    private record Entry(@Nullable String name, Set<VirtualFile> files, List<Inheritor> inheritors) {
+    }
+
+    private static final class Graph {
+        private final long myStamp;
+        private final ConcurrentMap<PsiAnchor, Entry> myEntries = new ConcurrentHashMap<>();
+        // guarded by this
+        private final Map<VirtualFile, Set<PsiAnchor>> myBasesByFile = new HashMap<>();
+        private final Map<String, Set<PsiAnchor>> myBasesByName = new HashMap<>();
+
+        Graph(long stamp) {
+            myStamp = stamp;
+        }
+
+        long stamp() {
+            return myStamp;
+        }
+
+        int size() {
+            return myEntries.size();
+        }
+
+        @Nullable
+        Entry get(PsiAnchor base) {
+            return myEntries.get(base);
+        }
+
+        /**
+         * Remembers the entry unless anything was changed since it was looked up
+         */
+        synchronized void put(PsiAnchor base, Entry entry, long changeCount, AtomicLong currentChangeCount) {
+            if (currentChangeCount.get() != changeCount || myEntries.putIfAbsent(base, entry) != null) {
+                return;
+            }
+            if (entry.name() != null) {
+                myBasesByName.computeIfAbsent(entry.name(), k -> new HashSet<>()).add(base);
+            }
+            for (VirtualFile file : entry.files()) {
+                myBasesByFile.computeIfAbsent(file, k -> new HashSet<>()).add(base);
+            }
+        }
+
+        synchronized void invalidate(Collection<VirtualFile> files, Set<String> superClassNames) {
+            List<PsiAnchor> invalid = new ArrayList<>();
+            for (VirtualFile file : files) {
+                invalid.addAll(myBasesByFile.getOrDefault(file, Set.of()));
+            }
+            for (String name : superClassNames) {
+                invalid.addAll(myBasesByName.getOrDefault(name, Set.of()));
+            }
+            for (PsiAnchor base : invalid) {
+                remove(base);
+            }
+        }
+
+        private void remove(PsiAnchor base) {
+            Entry entry = myEntries.remove(base);
+            if (entry == null) {
+                return;
+            }
+            if (entry.name() != null) {
+                removeFrom(myBasesByName, entry.name(), base);
+            }
+            for (VirtualFile file : entry.files()) {
+                removeFrom(myBasesByFile, file, base);
+            }
+        }
+
+        private static <K> void removeFrom(Map<K, Set<PsiAnchor>> map, K key, PsiAnchor base) {
+            Set<PsiAnchor> bases = map.get(key);
+            if (bases != null && bases.remove(base) && bases.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+}
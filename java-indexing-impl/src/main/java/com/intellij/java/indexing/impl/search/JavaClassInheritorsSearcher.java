@@ -18,7 +18,6 @@ package com.intellij.java.indexing.impl.search;
 import com.intellij.java.indexing.search.searches.AllClassesSearch;
 import com.intellij.java.indexing.search.searches.ClassInheritorsSearch;
 import com.intellij.java.indexing.search.searches.ClassInheritorsSearchExecutor;
-import com.intellij.java.indexing.search.searches.DirectClassInheritorsSearch;
 import com.intellij.java.language.psi.CommonClassNames;
 import com.intellij.java.language.psi.PsiAnonymousClass;
 import com.intellij.java.language.psi.PsiClass;
@@ -33,16 +32,15 @@ import consulo.content.scope.SearchScope;
 import consulo.language.psi.PsiAnchor;
 import consulo.language.psi.PsiBundle;
 import consulo.language.psi.PsiUtilCore;
-import consulo.language.psi.scope.GlobalSearchScope;
 import consulo.language.psi.scope.PsiSearchScopeUtil;
 import consulo.logging.Logger;
 import consulo.project.Project;
 import consulo.project.util.query.QueryExecutorBase;
-import consulo.util.collection.Stack;
-import consulo.util.lang.ref.SimpleReference;
 import jakarta.inject.Inject;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -103,18 +101,26 @@ public class JavaClassInheritorsSearcher extends QueryExecutorBase<PsiClass, Cla
             return;
         }
 
-        SimpleReference<PsiClass> currentBase = SimpleReference.create(null);
-        Stack<PsiAnchor> stack = new Stack<>();
+        // classes to expand on the next hierarchy level
+        List<PsiAnchor> pending = new ArrayList<>();
         Set<PsiAnchor> processed = new HashSet<>();
 
-        Predicate<PsiClass> processor = new ReadActionProcessor<>() {
+        Predicate<JavaClassHierarchyCache.Inheritor> processor = new ReadActionProcessor<>() {
             @Override
             @RequiredReadAction
-            public boolean processInReadAction(PsiClass candidate) {
+            public boolean processInReadAction(JavaClassHierarchyCache.Inheritor inheritor) {
                 ProgressManager.checkCanceled();
 
-                if (parameters.isCheckInheritance() || parameters.isCheckDeep() && !(candidate instanceof PsiAnonymousClass)) {
-                    if (!candidate.isInheritor(currentBase.get(), false)) {
+                if (inheritor.anonymous() && !parameters.isIncludeAnonymous()) {
+                    return true;
+                }
+                PsiClass candidate = (PsiClass)inheritor.anchor().retrieve();
+                if (candidate == null) {
+                    return true;
+                }
+
+                if (parameters.isCheckInheritance() || parameters.isCheckDeep() && !inheritor.anonymous()) {
+                    if (!inheritor.isInheritor(candidate)) {
                         return true;
                     }
                 }
@@ -131,30 +137,53 @@ public class JavaClassInheritorsSearcher extends QueryExecutorBase<PsiClass, Cla
                 }
 
                 if (parameters.isCheckDeep() && !(candidate instanceof PsiAnonymousClass) && !isFinal(app, candidate)) {
-                    stack.push(PsiAnchor.create(candidate));
+                    pending.add(inheritor.anchor());
                 }
                 return true;
             }
         };
 
-        app.runReadAction(() -> stack.push(PsiAnchor.create(baseClass)));
-        GlobalSearchScope projectScope = GlobalSearchScope.allScope(project);
+        app.runReadAction(() -> pending.add(PsiAnchor.create(baseClass)));
+        JavaClassHierarchyCache hierarchy = JavaClassHierarchyCache.getInstance(project);
 
-        while (!stack.isEmpty()) {
+        while (!pending.isEmpty()) {
             ProgressManager.checkCanceled();
 
-            PsiAnchor anchor = stack.pop();
-            if (!processed.add(anchor)) {
-                continue;
+            List<PsiAnchor> level = new ArrayList<>(pending.size());
+            for (PsiAnchor anchor : pending) {
+                if (processed.add(anchor)) {
+                    level.add(anchor);
+                }
             }
+            pending.clear();
 
-            PsiClass psiClass = app.runReadAction((Supplier<PsiClass>)() -> (PsiClass)anchor.retrieve());
-            if (psiClass == null) {
+            if (!ParallelHierarchySearch.isParallel()) {
+                for (PsiAnchor anchor : level) {
+                    PsiClass psiClass = app.runReadAction((Supplier<PsiClass>)() -> (PsiClass)anchor.retrieve());
+                    if (psiClass != null && !hierarchy.processDirectInheritors(anchor, psiClass, processor)) {
+                        return;
+                    }
+                }
                 continue;
             }
 
-            currentBase.set(psiClass);
-            if (!DirectClassInheritorsSearch.search(psiClass, projectScope, parameters.isIncludeAnonymous(), false).forEach(processor)) {
+            // direct inheritors of a level are independent, they are looked up in parallel batches
+            boolean completed = ParallelHierarchySearch.<PsiAnchor, List<JavaClassHierarchyCache.Inheritor>>processMapped(
+                level,
+                anchor -> {
+                    PsiClass psiClass = app.runReadAction((Supplier<PsiClass>)() -> (PsiClass)anchor.retrieve());
+                    return psiClass == null ? List.of() : hierarchy.getDirectInheritors(anchor, psiClass);
+                },
+                inheritors -> {
+                    for (JavaClassHierarchyCache.Inheritor inheritor : inheritors) {
+                        if (!processor.test(inheritor)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            );
+            if (!completed) {
                 return;
             }
         }
@@ -17,34 +17,40 @@ package com.intellij.java.indexing.impl.search;
 
 import com.intellij.java.language.impl.JavaFileType;
 import com.intellij.java.language.impl.psi.impl.java.stubs.JavaStubElementTypes;
-import com.intellij.java.language.psi.*;
+import com.intellij.java.language.impl.psi.impl.cache.RecordUtil;
+import com.intellij.java.language.impl.psi.impl.source.JavaLightTreeUtil;
+import com.intellij.java.language.impl.psi.impl.source.tree.ElementType;
+import com.intellij.java.language.psi.JavaTokenType;
 import consulo.annotation.component.ExtensionImpl;
+import consulo.application.util.StringSearcher;
 import consulo.index.io.DataIndexer;
 import consulo.index.io.EnumeratorStringDescriptor;
 import consulo.index.io.ID;
 import consulo.index.io.KeyDescriptor;
 import consulo.index.io.data.DataExternalizer;
 import consulo.index.io.data.DataInputOutputUtil;
-import consulo.language.psi.PsiElement;
-import consulo.language.psi.PsiFile;
-import consulo.language.psi.SyntaxTraverser;
-import consulo.language.psi.stub.DefaultFileTypeSpecificInputFilter;
-import consulo.language.psi.stub.FileBasedIndex;
-import consulo.language.psi.stub.FileBasedIndexExtension;
-import consulo.language.psi.stub.FileContent;
-import consulo.language.psi.util.PsiTreeUtil;
+import consulo.language.ast.*;
+import consulo.language.psi.stub.*;
 import consulo.util.lang.StringUtil;
+import org.jspecify.annotations.Nullable;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.*;
 
+import static com.intellij.java.language.impl.psi.impl.source.tree.JavaElementType.*;
+
 @ExtensionImpl
 public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<String, Collection<JavaFunctionalExpressionIndex.IndexHolder>> {
   public static final ID<String, Collection<IndexHolder>> JAVA_FUNCTIONAL_EXPRESSION_INDEX_ID = ID.create("java.functional.expression");
-  private static final String THIS_REF_NAME = "this";
-  private static final String SUPER_REF_NAME = "super";
+  private static final TokenSet EXPRESSION_LIST_SET = TokenSet.create(EXPRESSION_LIST);
+  // statements and modifier list owners
+  private static final TokenSet STOP_AT = TokenSet.orSet(ElementType.JAVA_STATEMENT_BIT_SET,
+    TokenSet.create(CLASS, ANONYMOUS_CLASS, ENUM_CONSTANT_INITIALIZER, TYPE_PARAMETER, METHOD, ANNOTATION_METHOD, FIELD, ENUM_CONSTANT,
+      LOCAL_VARIABLE, RESOURCE_VARIABLE, PARAMETER, RECORD_COMPONENT, MODULE));
+  private static final TokenSet CLASS_SET = TokenSet.create(CLASS, ANONYMOUS_CLASS, ENUM_CONSTANT_INITIALIZER);
+  private static final TokenSet REFERENCE_NAME_SET = TokenSet.create(JavaTokenType.IDENTIFIER, JavaTokenType.THIS_KEYWORD, JavaTokenType.SUPER_KEYWORD);
 
   @Override
   public ID<String, Collection<IndexHolder>> getName() {
@@ -64,69 +70,115 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
           return Collections.emptyMap();
         }
 
-        final PsiFile file = inputData.getPsiFile();
-        if (!(file instanceof PsiJavaFile)) {
-          return Collections.emptyMap();
+        return index(((PsiDependentFileContent) inputData).getLighterAST(), contentAsText);
+      }
+    };
+  }
+
+  static Map<String, Collection<IndexHolder>> index(LighterAST tree, CharSequence text) {
+    final HashMap<String, Collection<IndexHolder>> methodsMap = new HashMap<>();
+    for (LighterASTNode expression : findFunctionalExpressions(tree, text)) {
+      final LighterASTNode expressionList = getArgumentList(tree, expression);
+      if (expressionList != null) {
+        final String methodName = getCalledName(tree, tree.getParent(expressionList));
+        if (methodName != null) {
+          final List<LighterASTNode> arguments = JavaLightTreeUtil.getExpressionChildren(tree, expressionList);
+          methodsMap.computeIfAbsent(methodName, __ -> new HashSet<>())
+            .add(new IndexHolder(getLambdaParamsNumber(tree, expression), arguments.size(), getArgumentIndex(tree, arguments, expression)));
         }
+      }
+    }
+    return methodsMap;
+  }
 
-        final HashMap<String, Collection<IndexHolder>> methodsMap = new HashMap<>();
-        for (PsiFunctionalExpression expression : SyntaxTraverser.psiTraverser().withRoot(file).filter(PsiFunctionalExpression.class)) {
-          final PsiExpressionList expressionList = PsiTreeUtil.getParentOfType(expression, PsiExpressionList.class, true, PsiStatement.class, PsiModifierListOwner.class);
-          if (expressionList != null) {
-            final PsiElement parent = expressionList.getParent();
-            String methodName = null;
-            if (parent instanceof PsiMethodCallExpression) {
-              methodName = ((PsiMethodCallExpression) parent).getMethodExpression().getReferenceName();
-              if (methodName != null) {
-                final boolean thisRef = methodName.equals(THIS_REF_NAME);
-                if (thisRef || methodName.equals(SUPER_REF_NAME)) {
-                  methodName = null;
-                  final PsiClass containingClass = PsiTreeUtil.getParentOfType(parent, PsiClass.class);
-                  if (containingClass != null) {
-                    if (thisRef) {
-                      methodName = containingClass.getName();
-                    } else {
-                      final PsiReferenceList extendsList = containingClass.getExtendsList();
-                      if (extendsList != null) {
-                        final PsiJavaCodeReferenceElement[] referenceElements = extendsList.getReferenceElements();
-                        if (referenceElements.length > 0) {
-                          methodName = referenceElements[0].getReferenceName();
-                        }
-                      }
-                    }
-                  }
-                }
-              }
-            } else if (parent instanceof PsiNewExpression) {
-              final PsiJavaCodeReferenceElement classReference = ((PsiNewExpression) parent).getClassOrAnonymousClassReference();
-              if (classReference != null) {
-                methodName = classReference.getReferenceName();
-              }
-            } else if (parent instanceof PsiEnumConstant) {
-              final PsiClass containingClass = ((PsiEnumConstant) parent).getContainingClass();
-              if (containingClass != null) {
-                final String shortEnumName = containingClass.getName();
-                if (shortEnumName != null) { //should be always true as enums can't be local
-                  methodName = shortEnumName;
-                }
-              }
-            }
-
-            if (methodName != null) {
-              Collection<IndexHolder> holders = methodsMap.get(methodName);
-              if (holders == null) {
-                holders = new HashSet<IndexHolder>();
-                methodsMap.put(methodName, holders);
-              }
-              holders.add(new IndexHolder(expression instanceof PsiLambdaExpression ? ((PsiLambdaExpression) expression).getParameterList().getParametersCount() : -1,
-                  expressionList.getExpressions().length, LambdaUtil.getLambdaIdx(expressionList, expression)));
-            }
-          }
+  static Set<LighterASTNode> findFunctionalExpressions(LighterAST tree, CharSequence text) {
+    final Set<LighterASTNode> result = new LinkedHashSet<>();
+    addFunctionalExpressions(tree, new StringSearcher("->", true, true).findAllOccurrences(text), JavaTokenType.ARROW, LAMBDA_EXPRESSION, result);
+    addFunctionalExpressions(tree, new StringSearcher("::", true, true).findAllOccurrences(text), JavaTokenType.DOUBLE_COLON, METHOD_REF_EXPRESSION, result);
+    return result;
+  }
+
+  /**
+   * @return the argument list the functional expression is passed in, null if it isn't an argument
+   */
+  @Nullable
+  static LighterASTNode getArgumentList(LighterAST tree, LighterASTNode expression) {
+    return LightTreeUtil.getParentOfType(tree, expression, EXPRESSION_LIST_SET, STOP_AT);
+  }
+
+  private static void addFunctionalExpressions(LighterAST tree, int[] offsets, IElementType tokenType, IElementType expressionType, Set<LighterASTNode> result) {
+    for (int offset : offsets) {
+      // occurrences in comments, literals and switch rules are skipped by the token and parent types
+      final LighterASTNode leaf = LightTreeUtil.findLeafElementAt(tree, offset);
+      if (leaf != null && leaf.getTokenType() == tokenType) {
+        final LighterASTNode parent = tree.getParent(leaf);
+        if (parent != null && parent.getTokenType() == expressionType) {
+          result.add(parent);
         }
+      }
+    }
+  }
 
-        return methodsMap;
+  /**
+   * @return the name of the method or the class of the constructor called with the argument list, null if unknown
+   */
+  @Nullable
+  static String getCalledName(LighterAST tree, @Nullable LighterASTNode call) {
+    if (call == null) {
+      return null;
+    }
+    final IElementType type = call.getTokenType();
+    if (type == METHOD_CALL_EXPRESSION) {
+      final LighterASTNode methodExpression = LightTreeUtil.firstChildOfType(tree, call, REFERENCE_EXPRESSION);
+      final LighterASTNode nameElement = methodExpression == null ? null : getLastChildOfType(tree, methodExpression, REFERENCE_NAME_SET);
+      if (nameElement == null) {
+        return null;
       }
-    };
+      if (nameElement.getTokenType() == JavaTokenType.IDENTIFIER) {
+        return RecordUtil.intern(tree.getCharTable(), nameElement);
+      }
+      final LighterASTNode containingClass = LightTreeUtil.getParentOfType(tree, call, CLASS_SET, TokenSet.EMPTY);
+      if (containingClass == null || containingClass.getTokenType() != CLASS) {
+        return null;
+      }
+      if (nameElement.getTokenType() == JavaTokenType.THIS_KEYWORD) {
+        return JavaLightTreeUtil.getNameIdentifierText(tree, containingClass);
+      }
+      final LighterASTNode extendsList = LightTreeUtil.firstChildOfType(tree, containingClass, EXTENDS_LIST);
+      return JavaLightTreeUtil.getNameIdentifierText(tree, LightTreeUtil.firstChildOfType(tree, extendsList, JAVA_CODE_REFERENCE));
+    }
+    if (type == NEW_EXPRESSION) {
+      return JavaLightTreeUtil.getNameIdentifierText(tree, getLastChildOfType(tree, call, TokenSet.create(JAVA_CODE_REFERENCE)));
+    }
+    if (type == ENUM_CONSTANT) {
+      final LighterASTNode containingClass = tree.getParent(call);
+      return containingClass == null ? null : JavaLightTreeUtil.getNameIdentifierText(tree, containingClass);
+    }
+    return null;
+  }
+
+  @Nullable
+  private static LighterASTNode getLastChildOfType(LighterAST tree, LighterASTNode node, TokenSet types) {
+    final List<LighterASTNode> children = LightTreeUtil.getChildrenOfType(tree, node, types);
+    return children.isEmpty() ? null : children.get(children.size() - 1);
+  }
+
+  static int getLambdaParamsNumber(LighterAST tree, LighterASTNode expression) {
+    if (expression.getTokenType() != LAMBDA_EXPRESSION) {
+      return -1;
+    }
+    final LighterASTNode parameterList = LightTreeUtil.firstChildOfType(tree, expression, PARAMETER_LIST);
+    return parameterList == null ? 0 : LightTreeUtil.getChildrenOfType(tree, parameterList, PARAMETER).size();
+  }
+
+  private static int getArgumentIndex(LighterAST tree, List<LighterASTNode> arguments, LighterASTNode expression) {
+    for (LighterASTNode node = expression; node != null; node = tree.getParent(node)) {
+      final int index = arguments.indexOf(node);
+      if (index >= 0) {
+        return index;
+      }
+    }
+    return -1;
   }
 
   @Override
@@ -171,7 +223,7 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
 
   @Override
   public int getVersion() {
-    return 0;
+    return 1;
   }
 
   public static class IndexHolder {
@@ -228,5 +280,10 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
       result = 31 * result + myFunctionExpressionIndex;
       return result;
     }
+
+    @Override
+    public String toString() {
+      return "IndexHolder{lambdaParams=" + myLambdaParamsNumber + ", args=" + myMethodArgsLength + ", index=" + myFunctionExpressionIndex + "}";
+    }
   }
 }
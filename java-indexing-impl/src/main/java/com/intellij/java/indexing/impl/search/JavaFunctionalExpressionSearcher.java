@@ -28,16 +28,13 @@ import consulo.annotation.component.ExtensionImpl;
 import consulo.application.AccessRule;
 import consulo.application.Application;
 import consulo.application.util.ReadActionProcessor;
-import consulo.application.util.function.CommonProcessors;
 import consulo.content.scope.SearchScope;
 import consulo.java.language.module.extension.JavaModuleExtension;
 import consulo.language.psi.*;
 import consulo.language.psi.scope.EverythingGlobalScope;
 import consulo.language.psi.scope.GlobalSearchScope;
 import consulo.language.psi.scope.LocalSearchScope;
-import consulo.language.psi.search.PsiSearchHelper;
 import consulo.language.psi.search.ReferencesSearch;
-import consulo.language.psi.search.UsageSearchContext;
 import consulo.language.psi.stub.FileBasedIndex;
 import consulo.language.psi.stub.StubIndex;
 import consulo.language.psi.stub.StubIndexKey;
@@ -51,6 +48,7 @@ import consulo.project.util.query.QueryExecutorBase;
 import consulo.util.collection.ContainerUtil;
 import consulo.util.lang.ref.SimpleReference;
 import consulo.virtualFileSystem.VirtualFile;
+import consulo.virtualFileSystem.VirtualFileWithId;
 
 import java.util.*;
 import java.util.function.Predicate;
@@ -111,8 +109,9 @@ public class JavaFunctionalExpressionSearcher
         GlobalSearchScope useScope = classLambdaInfo.scope();
         int expectedFunExprParamsCount = classLambdaInfo.expectedFunExprParamsCount();
 
-        //collect all files with '::' and '->' in useScope
-        Set<VirtualFile> candidateFiles = getFilesWithFunctionalExpressionsScope(project, new JavaSourceFilterScope(useScope));
+        //collect all files with method references and lambdas with the expected number of parameters in useScope
+        CandidateFiles candidates = getFilesWithFunctionalExpressions(expectedFunExprParamsCount, new JavaSourceFilterScope(useScope));
+        Set<VirtualFile> candidateFiles = candidates.select(candidates.ids());
         if (candidateFiles.size() < SMART_SEARCH_THRESHOLD) {
             searchInFiles(aClass, consumer, candidateFiles, expectedFunExprParamsCount);
             return;
@@ -120,9 +119,9 @@ public class JavaFunctionalExpressionSearcher
 
         GlobalSearchScope candidateScope = GlobalSearchScope.filesScope(project, candidateFiles);
 
-        //collect all methods with parameter of functional interface or free type parameter type
-        Collection<PsiMethod> methodCandidates =
-            getCandidateMethodsWithSuitableParams(aClass, project, useScope, candidateFiles, candidateScope);
+        //collect all methods with parameter of functional interface or free type parameter type, with the candidate files calling them
+        Map<PsiMethod, Set<VirtualFile>> methodCandidates =
+            getCandidateMethodsWithSuitableParams(aClass, project, useScope, candidates, candidateScope);
 
         LinkedHashSet<VirtualFile> filesToProcess = new LinkedHashSet<>();
         FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
@@ -130,7 +129,8 @@ public class JavaFunctionalExpressionSearcher
         Application app = project.getApplication();
 
         //find all usages of method candidates in files with functional expressions
-        for (PsiMethod psiMethod : methodCandidates) {
+        for (Map.Entry<PsiMethod, Set<VirtualFile>> methodCandidate : methodCandidates.entrySet()) {
+            PsiMethod psiMethod = methodCandidate.getKey();
             app.runReadAction(() -> {
                 if (!psiMethod.isValid()) {
                     return;
@@ -148,7 +148,7 @@ public class JavaFunctionalExpressionSearcher
                     psiMethod.getName(),
                     null,
                     processor,
-                    useScope.intersectWith(methodUseScope)
+                    GlobalSearchScope.filesScope(project, methodCandidate.getValue()).intersectWith(methodUseScope)
                 );
                 for (Map.Entry<VirtualFile, Set<JavaFunctionalExpressionIndex.IndexHolder>> entry : holders.entrySet()) {
                     for (JavaFunctionalExpressionIndex.IndexHolder holder : entry.getValue()) {
@@ -196,33 +196,38 @@ public class JavaFunctionalExpressionSearcher
         });
     }
 
+    /**
+     * @return methods which may accept the functional expression, with the candidate files passing functional expressions to them
+     */
     @RequiredReadAction
-    private static Collection<PsiMethod> getCandidateMethodsWithSuitableParams(
+    private static Map<PsiMethod, Set<VirtualFile>> getCandidateMethodsWithSuitableParams(
         PsiClass aClass,
         Project project,
         GlobalSearchScope useScope,
-        Set<VirtualFile> candidateFiles,
+        CandidateFiles candidates,
         GlobalSearchScope candidateScope
     ) {
-        return Application.get().runReadAction((Supplier<Collection<PsiMethod>>)() -> {
+        return Application.get().runReadAction((Supplier<Map<PsiMethod, Set<VirtualFile>>>)() -> {
             if (!aClass.isValid()) {
-                return Collections.emptyList();
+                return Collections.emptyMap();
             }
 
-            GlobalSearchScope visibleFromCandidates = combineResolveScopes(project, candidateFiles);
-
-            Set<String> usedMethodNames = new HashSet<>();
-            FileBasedIndex.getInstance().processAllKeys(
-                JavaFunctionalExpressionIndex.JAVA_FUNCTIONAL_EXPRESSION_INDEX_ID,
-                new CommonProcessors.CollectProcessor<>(usedMethodNames),
-                candidateScope,
-                null
-            );
+            GlobalSearchScope visibleFromCandidates = combineResolveScopes(project, candidates.files().values());
 
-            LinkedHashSet<PsiMethod> methods = new LinkedHashSet<>();
+            //overloads share the keys, the number of arguments of varargs calls is not known and only their name is matched
+            Map<String, BitSet> callingFiles = new HashMap<>();
+            LinkedHashMap<PsiMethod, Set<VirtualFile>> methods = new LinkedHashMap<>();
             Predicate<PsiMethod> methodProcessor = method -> {
-                if (usedMethodNames.contains(method.getName())) {
-                    methods.add(method);
+                String key = method.isVarArgs()
+                    ? method.getName()
+                    : JavaFunctionalExpressionShapeIndex.callKey(method.getName(), method.getParameterList().getParametersCount());
+                BitSet ids = callingFiles.computeIfAbsent(key, k -> {
+                    BitSet fileIds = JavaFunctionalExpressionShapeIndex.getFileIds(k, candidateScope);
+                    fileIds.and(candidates.ids());
+                    return fileIds;
+                });
+                if (!ids.isEmpty()) {
+                    methods.put(method, candidates.select(ids));
                 }
                 return true;
             };
@@ -243,7 +248,7 @@ public class JavaFunctionalExpressionSearcher
         });
     }
 
-    private static GlobalSearchScope combineResolveScopes(Project project, Set<VirtualFile> candidateFiles) {
+    private static GlobalSearchScope combineResolveScopes(Project project, Collection<VirtualFile> candidateFiles) {
         PsiManager psiManager = PsiManager.getInstance(project);
         LinkedHashSet<GlobalSearchScope> resolveScopes = new LinkedHashSet<>(candidateFiles.stream().map(file -> {
             PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
@@ -252,13 +257,33 @@ public class JavaFunctionalExpressionSearcher
         return GlobalSearchScope.union(resolveScopes.toArray(new GlobalSearchScope[resolveScopes.size()]));
     }
 
-    private static Set<VirtualFile> getFilesWithFunctionalExpressionsScope(Project project, GlobalSearchScope useScope) {
-        Set<VirtualFile> files = new LinkedHashSet<>();
-        PsiSearchHelper helper = PsiSearchHelper.getInstance(project);
-        CommonProcessors.CollectProcessor<VirtualFile> processor = new CommonProcessors.CollectProcessor<>(files);
-        helper.processFilesWithText(useScope, UsageSearchContext.IN_CODE, true, "::", processor);
-        helper.processFilesWithText(useScope, UsageSearchContext.IN_CODE, true, "->", processor);
-        return files;
+    private static CandidateFiles getFilesWithFunctionalExpressions(int expectedFunExprParamsCount, GlobalSearchScope useScope) {
+        return Application.get().runReadAction((Supplier<CandidateFiles>)() -> {
+            CandidateFiles candidates = new CandidateFiles(new BitSet(), new HashMap<>());
+            FileBasedIndex.ValueProcessor<Void> processor = (file, value) -> {
+                if (file instanceof VirtualFileWithId fileWithId) {
+                    candidates.ids().set(fileWithId.getId());
+                    candidates.files().put(fileWithId.getId(), file);
+                }
+                return true;
+            };
+            FileBasedIndex index = FileBasedIndex.getInstance();
+            index.processValues(
+                JavaFunctionalExpressionShapeIndex.NAME,
+                JavaFunctionalExpressionShapeIndex.expressionKey(expectedFunExprParamsCount),
+                null,
+                processor,
+                useScope
+            );
+            index.processValues(
+                JavaFunctionalExpressionShapeIndex.NAME,
+                JavaFunctionalExpressionShapeIndex.expressionKey(-1),
+                null,
+                processor,
+                useScope
+            );
+            return candidates;
+        });
     }
 
     private static GlobalSearchScope convertToGlobalScope(Project project, SearchScope useScope) {
@@ -380,6 +405,19 @@ public class JavaFunctionalExpressionSearcher
         return true;
     }
 
+    /**
+     * Files with functional expressions which may implement the searched interface, by their ids
+     */
+    private record CandidateFiles(BitSet ids, Map<Integer, VirtualFile> files) {
+        Set<VirtualFile> select(BitSet fileIds) {
+            Set<VirtualFile> result = new LinkedHashSet<>();
+            for (int id = fileIds.nextSetBit(0); id >= 0; id = fileIds.nextSetBit(id + 1)) {
+                addIfNotNull(result, files.get(id));
+            }
+            return result;
+        }
+    }
+
     private static class SuitableFilesProcessor
         implements FileBasedIndex.ValueProcessor<Collection<JavaFunctionalExpressionIndex.IndexHolder>> {
         private final Map<VirtualFile, Set<JavaFunctionalExpressionIndex.IndexHolder>> myHolders;
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl.search;
+
+import com.intellij.java.language.impl.JavaFileType;
+import com.intellij.java.language.impl.psi.impl.java.stubs.JavaStubElementTypes;
+import com.intellij.java.language.impl.psi.impl.source.JavaLightTreeUtil;
+import consulo.annotation.component.ExtensionImpl;
+import consulo.index.io.DataIndexer;
+import consulo.index.io.EnumeratorStringDescriptor;
+import consulo.index.io.ID;
+import consulo.index.io.KeyDescriptor;
+import consulo.language.ast.LighterAST;
+import consulo.language.ast.LighterASTNode;
+import consulo.language.psi.scope.GlobalSearchScope;
+import consulo.language.psi.stub.*;
+import consulo.util.lang.StringUtil;
+import consulo.virtualFileSystem.VirtualFileWithId;
+
+import java.util.*;
+
+/**
+ * Files by the shapes of their functional expressions: the number of parameters of lambdas, the presence of method references
+ * and the name and the number of arguments of the calls they are passed to.
+ * <p>
+ * {@link JavaFunctionalExpressionSearcher} intersects the file id sets of the keys to find the files which may contain
+ * implementations of a functional interface before any PSI is loaded. Full information about the call arguments is kept
+ * by {@link JavaFunctionalExpressionIndex}, which is only queried for the files left after the intersection.
+ */
+@ExtensionImpl
+public class JavaFunctionalExpressionShapeIndex extends ScalarIndexExtension<String> {
+  public static final ID<String, Void> NAME = ID.create("java.functional.expression.shape");
+  private static final String METHOD_REFERENCE_KEY = "::";
+
+  @Override
+  public ID<String, Void> getName() {
+    return NAME;
+  }
+
+  @Override
+  public DataIndexer<String, Void, FileContent> getIndexer() {
+    return inputData -> {
+      if (!JavaStubElementTypes.JAVA_FILE.shouldBuildStubFor(inputData.getFile())) {
+        return Collections.emptyMap();
+      }
+      final CharSequence contentAsText = inputData.getContentAsText();
+      if (!StringUtil.contains(contentAsText, "::") && !StringUtil.contains(contentAsText, "->")) {
+        return Collections.emptyMap();
+      }
+
+      final LighterAST tree = ((PsiDependentFileContent) inputData).getLighterAST();
+      final Map<String, Void> keys = new HashMap<>();
+      for (LighterASTNode expression : JavaFunctionalExpressionIndex.findFunctionalExpressions(tree, contentAsText)) {
+        keys.put(expressionKey(JavaFunctionalExpressionIndex.getLambdaParamsNumber(tree, expression)), null);
+        final LighterASTNode expressionList = JavaFunctionalExpressionIndex.getArgumentList(tree, expression);
+        if (expressionList != null) {
+          final String methodName = JavaFunctionalExpressionIndex.getCalledName(tree, tree.getParent(expressionList));
+          if (methodName != null) {
+            keys.put(methodName, null);
+            keys.put(callKey(methodName, JavaLightTreeUtil.getExpressionChildren(tree, expressionList).size()), null);
+          }
+        }
+      }
+      return keys;
+    };
+  }
+
+  /**
+   * @param lambdaParamsNumber the number of lambda parameters, or -1 for method references
+   */
+  static String expressionKey(int lambdaParamsNumber) {
+    return lambdaParamsNumber < 0 ? METHOD_REFERENCE_KEY : "->" + lambdaParamsNumber;
+  }
+
+  /**
+   * Key of the files passing functional expressions to a method or a constructor with the given number of arguments.
+   * The plain name of the method is a key too, for varargs methods, whose number of arguments is not known.
+   */
+  static String callKey(String methodName, int argsLength) {
+    return methodName + "/" + argsLength;
+  }
+
+  /**
+   * @return ids of the files in the scope with the key
+   */
+  static BitSet getFileIds(String key, GlobalSearchScope scope) {
+    final BitSet ids = new BitSet();
+    FileBasedIndex.getInstance().processValues(NAME, key, null, (file, value) -> {
+      if (file instanceof VirtualFileWithId fileWithId) {
+        ids.set(fileWithId.getId());
+      }
+      return true;
+    }, scope);
+    return ids;
+  }
+
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 0;
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl.search;
+
+import com.intellij.java.language.impl.JavaFileType;
+import com.intellij.java.language.impl.psi.impl.java.stubs.JavaStubElementTypes;
+import com.intellij.java.language.impl.psi.impl.source.JavaLightTreeUtil;
+import com.intellij.java.language.psi.JavaTokenType;
+import consulo.annotation.component.ExtensionImpl;
+import consulo.application.util.StringSearcher;
+import consulo.index.io.DataIndexer;
+import consulo.index.io.EnumeratorStringDescriptor;
+import consulo.index.io.ID;
+import consulo.index.io.KeyDescriptor;
+import consulo.index.io.data.DataExternalizer;
+import consulo.index.io.data.DataInputOutputUtil;
+import consulo.language.ast.LightTreeUtil;
+import consulo.language.ast.LighterAST;
+import consulo.language.ast.LighterASTNode;
+import consulo.language.ast.TokenSet;
+import consulo.language.psi.scope.GlobalSearchScope;
+import consulo.language.psi.stub.*;
+import consulo.util.lang.StringUtil;
+import consulo.virtualFileSystem.VirtualFile;
+import org.jspecify.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.IntPredicate;
+
+import static com.intellij.java.language.impl.psi.impl.source.tree.JavaElementType.*;
+
+/**
+ * Short names of classes instantiated in a file, with the numbers of arguments passed to their constructors.
+ * <p>
+ * {@code new X(...)} expressions and anonymous classes {@code new X(...) {...}} are indexed with the number of arguments,
+ * constructor references {@code X::new} with {@link #CONSTRUCTOR_REFERENCE}. Explicit {@code super(...)} calls are not indexed,
+ * they are found through the inheritors of the class.
+ */
+@ExtensionImpl
+public class JavaNewExpressionIndex extends FileBasedIndexExtension<String, Set<Integer>> {
+  public static final ID<String, Set<Integer>> NAME = ID.create("java.new.expression");
+  public static final int CONSTRUCTOR_REFERENCE = -1;
+  private static final TokenSet QUALIFIER_SET = TokenSet.create(TYPE, JAVA_CODE_REFERENCE, REFERENCE_EXPRESSION);
+
+  @Override
+  public ID<String, Set<Integer>> getName() {
+    return NAME;
+  }
+
+  @Override
+  public DataIndexer<String, Set<Integer>, FileContent> getIndexer() {
+    return inputData -> {
+      if (!JavaStubElementTypes.JAVA_FILE.shouldBuildStubFor(inputData.getFile())) {
+        return Collections.emptyMap();
+      }
+      final CharSequence contentAsText = inputData.getContentAsText();
+      if (!StringUtil.contains(contentAsText, "new")) {
+        return Collections.emptyMap();
+      }
+
+      final LighterAST tree = ((PsiDependentFileContent) inputData).getLighterAST();
+      final Map<String, Set<Integer>> result = new HashMap<>();
+      for (int offset : new StringSearcher("new", true, true).findAllOccurrences(contentAsText)) {
+        // occurrences in comments, literals and identifiers are skipped by the token and parent types
+        final LighterASTNode leaf = LightTreeUtil.findLeafElementAt(tree, offset);
+        final LighterASTNode parent = leaf == null || leaf.getTokenType() != JavaTokenType.NEW_KEYWORD ? null : tree.getParent(leaf);
+        if (parent == null) {
+          continue;
+        }
+        if (parent.getTokenType() == NEW_EXPRESSION) {
+          addNewExpression(tree, parent, result);
+        }
+        else if (parent.getTokenType() == METHOD_REF_EXPRESSION) {
+          final String name = getConstructorReferenceClassName(tree, parent);
+          if (name != null) {
+            result.computeIfAbsent(name, __ -> new HashSet<>()).add(CONSTRUCTOR_REFERENCE);
+          }
+        }
+      }
+      return result;
+    };
+  }
+
+  private static void addNewExpression(LighterAST tree, LighterASTNode newExpression, Map<String, Set<Integer>> result) {
+    final LighterASTNode anonymousClass = LightTreeUtil.firstChildOfType(tree, newExpression, ANONYMOUS_CLASS);
+    final LighterASTNode owner = anonymousClass != null ? anonymousClass : newExpression;
+    final List<LighterASTNode> references = LightTreeUtil.getChildrenOfType(tree, owner, JAVA_CODE_REFERENCE);
+    // array creation expressions have no argument list
+    final LighterASTNode arguments = LightTreeUtil.firstChildOfType(tree, owner, EXPRESSION_LIST);
+    if (references.isEmpty() || arguments == null) {
+      return;
+    }
+    final String name = JavaLightTreeUtil.getNameIdentifierText(tree, references.get(references.size() - 1));
+    if (name != null) {
+      result.computeIfAbsent(name, __ -> new HashSet<>()).add(JavaLightTreeUtil.getExpressionChildren(tree, arguments).size());
+    }
+  }
+
+  @Nullable
+  private static String getConstructorReferenceClassName(LighterAST tree, LighterASTNode methodReference) {
+    LighterASTNode qualifier = LightTreeUtil.firstChildOfType(tree, methodReference, QUALIFIER_SET);
+    if (qualifier != null && qualifier.getTokenType() == TYPE) {
+      qualifier = LightTreeUtil.firstChildOfType(tree, qualifier, JAVA_CODE_REFERENCE);
+    }
+    // array constructor references have a primitive qualifier type
+    return qualifier == null ? null : JavaLightTreeUtil.getNameIdentifierText(tree, qualifier);
+  }
+
+  /**
+   * @param argumentsCount accepts the numbers of constructor arguments (or {@link #CONSTRUCTOR_REFERENCE}) to look for
+   * @return files in the scope instantiating a class with the short name
+   */
+  static Set<VirtualFile> getFiles(String className, IntPredicate argumentsCount, GlobalSearchScope scope) {
+    final Set<VirtualFile> files = new HashSet<>();
+    FileBasedIndex.getInstance().processValues(NAME, className, null, (file, counts) -> {
+      for (int count : counts) {
+        if (argumentsCount.test(count)) {
+          files.add(file);
+          break;
+        }
+      }
+      return true;
+    }, scope);
+    return files;
+  }
+
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @Override
+  public DataExternalizer<Set<Integer>> getValueExternalizer() {
+    return new DataExternalizer<Set<Integer>>() {
+      @Override
+      public void save(DataOutput out, Set<Integer> counts) throws IOException {
+        DataInputOutputUtil.writeINT(out, counts.size());
+        for (int count : counts) {
+          DataInputOutputUtil.writeINT(out, count);
+        }
+      }
+
+      @Override
+      public Set<Integer> read(DataInput in) throws IOException {
+        int size = DataInputOutputUtil.readINT(in);
+        final Set<Integer> counts = new HashSet<>(size);
+        while (size-- > 0) {
+          counts.add(DataInputOutputUtil.readINT(in));
+        }
+        return counts;
+      }
+    };
+  }
+
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 0;
+  }
+}
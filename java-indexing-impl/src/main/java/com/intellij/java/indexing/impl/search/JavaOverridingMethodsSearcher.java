@@ -39,6 +39,15 @@ public class JavaOverridingMethodsSearcher implements OverridingMethodsSearchExe
             return found == null || consumer.test(found) && p.isCheckDeep();
         };
 
+        if (p.isCheckDeep() && ParallelHierarchySearch.isParallel()) {
+            // overriding methods of different inheritors are looked up in parallel, the consumer gets them in the order of inheritors
+            return ParallelHierarchySearch.<PsiClass, PsiMethod>processSearchMapped(
+                processor -> ClassInheritorsSearch.search(parentClass, scope, true).forEach(processor),
+                inheritor -> Application.get().runReadAction((Supplier<PsiMethod>)() -> findOverridingMethod(inheritor, method, parentClass)),
+                found -> found == null || consumer.test(found)
+            );
+        }
+
         return ClassInheritorsSearch.search(parentClass, scope, true).forEach(inheritorsProcessor);
     }
 
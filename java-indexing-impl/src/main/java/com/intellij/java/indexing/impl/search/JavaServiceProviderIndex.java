@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl.search;
+
+import com.intellij.java.language.impl.spi.SPIFileType;
+import consulo.annotation.component.ExtensionImpl;
+import consulo.index.io.DataIndexer;
+import consulo.index.io.EnumeratorStringDescriptor;
+import consulo.index.io.ID;
+import consulo.index.io.KeyDescriptor;
+import consulo.language.psi.scope.GlobalSearchScope;
+import consulo.language.psi.stub.DefaultFileTypeSpecificInputFilter;
+import consulo.language.psi.stub.FileBasedIndex;
+import consulo.language.psi.stub.FileContent;
+import consulo.language.psi.stub.ScalarIndexExtension;
+import consulo.util.lang.StringUtil;
+import consulo.virtualFileSystem.VirtualFile;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code META-INF/services} files of sources and libraries by the JVM names they mention: the service interface
+ * (the name of the file), the packages and outer classes it is nested in, and the providers listed in the file.
+ * <p>
+ * The service of a provider is the name of the file, so both directions are lookups of a single key.
+ */
+@ExtensionImpl
+public class JavaServiceProviderIndex extends ScalarIndexExtension<String> {
+  private static final ID<String, Void> NAME = ID.create("java.service.provider");
+
+  @Override
+  public ID<String, Void> getName() {
+    return NAME;
+  }
+
+  @Override
+  public DataIndexer<String, Void, FileContent> getIndexer() {
+    return inputData -> {
+      final Map<String, Void> result = new HashMap<>();
+      final String serviceName = inputData.getFile().getName();
+      for (int dot = serviceName.indexOf('.'); dot > 0; dot = serviceName.indexOf('.', dot + 1)) {
+        result.put(serviceName.substring(0, dot), null);
+      }
+      result.put(serviceName, null);
+      for (String provider : getProviders(inputData.getContentAsText())) {
+        result.put(provider, null);
+      }
+      return result;
+    };
+  }
+
+  /**
+   * @return provider names listed in the text of a services file, comments and blank lines are skipped
+   */
+  private static Collection<String> getProviders(CharSequence text) {
+    return StringUtil.split(text.toString(), "\n").stream()
+      .map(line -> {
+        final int comment = line.indexOf('#');
+        return (comment >= 0 ? line.substring(0, comment) : line).trim();
+      })
+      .filter(line -> !line.isEmpty())
+      .toList();
+  }
+
+  /**
+   * @param jvmName the JVM name of a service, a provider, or a package or class containing a service
+   * @return services files mentioning the name
+   */
+  public static Collection<VirtualFile> getFiles(String jvmName, GlobalSearchScope scope) {
+    return FileBasedIndex.getInstance().getContainingFiles(NAME, jvmName, scope);
+  }
+
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(SPIFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 0;
+  }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl.search;
+
+import com.intellij.java.indexing.impl.JavaIndexingRegistry;
+import consulo.application.Application;
+import consulo.application.ReadAction;
+import consulo.application.progress.ProgressIndicator;
+import consulo.application.progress.ProgressManager;
+import consulo.application.util.registry.Registry;
+import consulo.application.util.concurrent.AppExecutorUtil;
+import consulo.component.ProcessCanceledException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fan-out of independent hierarchy computations (direct inheritors of a hierarchy level, overriding methods of inheritors)
+ * to a bounded pool.
+ * <p>
+ * Only the computations run in parallel, their results are handed to the consumer on the calling thread in the original order,
+ * in batches of at most {@link #BATCH_SIZE} items, so consumers see no concurrency, get the first results before the rest is computed
+ * and a search still stops as soon as the consumer returns false.
+ * Workers take non-blocking read actions, which give way to write actions and are cancelled with the progress of the calling thread.
+ * The calling thread computes the items no worker has started, or a worker gave up, itself, so a search started inside a read action
+ * completes even while a write action is pending. Otherwise it blocks until a worker finishes or gives up the awaited item.
+ * The parallel mode is switched by the {@link JavaIndexingRegistry#HIERARCHY_SEARCH_PARALLEL} registry key.
+ */
+final class ParallelHierarchySearch {
+    private static final int BATCH_SIZE = 64;
+
+    private static final ExecutorService ourExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+        "Java Hierarchy Search",
+        Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1))
+    );
+
+    private ParallelHierarchySearch() {
+    }
+
+    static boolean isParallel() {
+        return Registry.is(JavaIndexingRegistry.HIERARCHY_SEARCH_PARALLEL, true);
+    }
+
+    /**
+     * Maps the items with the function in parallel batches and passes the results to the consumer in the order of the items
+     *
+     * @return false if the consumer stopped the processing
+     */
+    static <T, R> boolean processMapped(List<T> items, Function<? super T, ? extends R> function, Predicate<? super R> consumer) {
+        if (!isParallel()) {
+            for (T item : items) {
+                ProgressManager.checkCanceled();
+                if (!consumer.test(function.apply(item))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        for (int start = 0; start < items.size(); start += BATCH_SIZE) {
+            List<T> batch = items.subList(start, Math.min(items.size(), start + BATCH_SIZE));
+            for (R result : map(batch, function)) {
+                if (!consumer.test(result)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs the search on a pooled thread and maps the found items with the function in parallel batches while the search goes on,
+     * the results are passed to the consumer in the order of the items. The search is stopped when the consumer returns false.
+     *
+     * @param search search passing the items to the given processor, as {@code Query.forEach}
+     * @return false if the consumer stopped the processing
+     */
+    @SuppressWarnings("unchecked")
+    static <T, R> boolean processSearchMapped(
+        Predicate<Predicate<? super T>> search,
+        Function<? super T, ? extends R> function,
+        Predicate<? super R> consumer
+    ) {
+        if (!isParallel()) {
+            return search.test(item -> consumer.test(function.apply(item)));
+        }
+        if (Application.get().isReadAccessAllowed()) {
+            return processSearchMappedInline(search, function, consumer);
+        }
+
+        // the queue is unbounded: the search may hold a read action, it must never wait for the consumer
+        BlockingQueue<Object> found = new LinkedBlockingQueue<>();
+        Object end = new Object();
+        AtomicBoolean stopped = new AtomicBoolean();
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        Future<Boolean> searchFuture = AppExecutorUtil.getAppExecutorService().submit(() -> {
+            try {
+                return compute(search, s -> s.test(item -> !stopped.get() && found.add(item)), indicator);
+            }
+            finally {
+                found.add(end);
+            }
+        });
+
+        try {
+            List<Object> polled = new ArrayList<>(BATCH_SIZE);
+            List<T> batch = new ArrayList<>(BATCH_SIZE);
+            while (true) {
+                polled.add(take(found));
+                found.drainTo(polled, BATCH_SIZE - 1);
+
+                boolean reachedEnd = false;
+                for (Object item : polled) {
+                    if (item == end) {
+                        reachedEnd = true;
+                    }
+                    else {
+                        batch.add((T)item);
+                    }
+                }
+                if (!processMapped(batch, function, consumer)) {
+                    return false;
+                }
+                if (reachedEnd) {
+                    return get(searchFuture);
+                }
+                polled.clear();
+                batch.clear();
+            }
+        }
+        finally {
+            stopped.set(true);
+        }
+    }
+
+    /**
+     * Runs the search on the calling thread, which holds a read action: a search on another thread could wait for a pending write
+     * action. The found items are mapped in parallel batches while the search is paused.
+     */
+    private static <T, R> boolean processSearchMappedInline(
+        Predicate<Predicate<? super T>> search,
+        Function<? super T, ? extends R> function,
+        Predicate<? super R> consumer
+    ) {
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        boolean completed = search.test(item -> {
+            batch.add(item);
+            if (batch.size() < BATCH_SIZE) {
+                return true;
+            }
+            boolean proceed = processMapped(batch, function, consumer);
+            batch.clear();
+            return proceed;
+        });
+        return completed && processMapped(batch, function, consumer);
+    }
+
+    /**
+     * @return results of the function for all items, in the order of the items
+     */
+    private static <T, R> List<R> map(List<T> items, Function<? super T, ? extends R> function) {
+        List<R> results = new ArrayList<>(items.size());
+        if (items.size() < 2) {
+            for (T item : items) {
+                ProgressManager.checkCanceled();
+                results.add(function.apply(item));
+            }
+            return results;
+        }
+
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        List<Task<T, R>> tasks = new ArrayList<>(items.size());
+        List<Future<?>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            Task<T, R> task = new Task<>(item);
+            tasks.add(task);
+            futures.add(ourExecutor.submit(() -> runWorker(task, function, indicator)));
+        }
+        try {
+            for (Task<T, R> task : tasks) {
+                results.add(task.await(function));
+            }
+        }
+        finally {
+            for (Task<T, R> task : tasks) {
+                task.cancel();
+            }
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+        return results;
+    }
+
+    private static <T, R> void runWorker(Task<T, R> task, Function<? super T, ? extends R> function, ProgressIndicator indicator) {
+        if (!task.isPending() || indicator != null && indicator.isCanceled()) {
+            return;
+        }
+        // the non-blocking read action is cancelled with the progress it is started under
+        compute(task, t -> ReadAction.nonBlocking(() -> t.run(function)).executeSynchronously(), indicator);
+    }
+
+    private static Object take(BlockingQueue<Object> queue) {
+        // the search runs under the progress of the calling thread, it ends the queue when cancelled
+        try {
+            return queue.take();
+        }
+        catch (InterruptedException e) {
+            throw new ProcessCanceledException(e);
+        }
+    }
+
+    private static <T, R> R compute(T item, Function<? super T, ? extends R> function, ProgressIndicator indicator) {
+        if (indicator == null) {
+            return function.apply(item);
+        }
+        List<R> result = new ArrayList<>(1);
+        ProgressManager.getInstance().executeProcessUnderProgress(() -> result.add(function.apply(item)), indicator);
+        return result.get(0);
+    }
+
+    private static <R> R get(Future<R> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            throw new ProcessCanceledException(e);
+        }
+        catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        throw new RuntimeException(e);
+    }
+
+    /**
+     * An item computed by a worker or by the calling thread, whichever takes it first
+     */
+    private static final class Task<T, R> {
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+
+        private final T myItem;
+        private int myState = PENDING;
+        private R myResult;
+        private Throwable myError;
+
+        Task(T item) {
+            myItem = item;
+        }
+
+        synchronized boolean isPending() {
+            return myState == PENDING;
+        }
+
+        /**
+         * @return false if the task is taken by another thread
+         */
+        boolean run(Function<? super T, ? extends R> function) {
+            synchronized (this) {
+                if (myState != PENDING) {
+                    return false;
+                }
+                myState = RUNNING;
+            }
+            R result = null;
+            Throwable error = null;
+            try {
+                result = function.apply(myItem);
+            }
+            catch (ProcessCanceledException e) {
+                // cancelled or given up for a write action, the task can be taken again
+                setState(PENDING, null, null);
+                throw e;
+            }
+            catch (Throwable e) {
+                error = e;
+            }
+            setState(DONE, result, error);
+            return true;
+        }
+
+        R await(Function<? super T, ? extends R> function) {
+            while (true) {
+                ProgressManager.checkCanceled();
+                // the caller may hold a read action: a worker waiting for a pending write action gives the task back to it
+                if (run(function)) {
+                    break;
+                }
+                synchronized (this) {
+                    while (myState == RUNNING) {
+                        try {
+                            wait();
+                        }
+                        catch (InterruptedException e) {
+                            throw new ProcessCanceledException(e);
+                        }
+                    }
+                    if (myState == DONE) {
+                        break;
+                    }
+                }
+            }
+            synchronized (this) {
+                if (myError != null) {
+                    throw rethrow(myError);
+                }
+                return myResult;
+            }
+        }
+
+        synchronized void cancel() {
+            if (myState == PENDING) {
+                myState = DONE;
+            }
+        }
+
+        private synchronized void setState(int state, R result, Throwable error) {
+            myState = state;
+            myResult = result;
+            myError = error;
+            notifyAll();
+        }
+    }
+}
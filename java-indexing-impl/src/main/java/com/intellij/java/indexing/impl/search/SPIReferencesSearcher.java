@@ -23,15 +23,19 @@ import consulo.annotation.component.ExtensionImpl;
 import consulo.content.scope.SearchScope;
 import consulo.language.psi.PsiElement;
 import consulo.language.psi.PsiFile;
+import consulo.language.psi.PsiManager;
 import consulo.language.psi.PsiPackage;
 import consulo.language.psi.PsiReference;
 import consulo.language.psi.scope.GlobalSearchScope;
-import consulo.language.psi.search.FilenameIndex;
 import consulo.language.psi.search.ReferencesSearch;
 import consulo.language.psi.search.ReferencesSearchQueryExecutor;
 import consulo.project.Project;
 import consulo.project.util.query.QueryExecutorBase;
+import consulo.util.lang.StringUtil;
+import consulo.virtualFileSystem.VirtualFile;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 
 @ExtensionImpl
@@ -58,33 +62,64 @@ public class SPIReferencesSearcher extends QueryExecutorBase<PsiReference, Refer
             if (jvmClassName == null) {
                 return;
             }
-            PsiFile[] files = FilenameIndex.getFilesByName(aClass.getProject(), jvmClassName, globalSearchScope);
-            for (PsiFile file : files) {
-                if (file.getLanguage() == SPILanguage.INSTANCE) {
+            for (PsiFile file : getServicesFiles(aClass.getProject(), jvmClassName, globalSearchScope)) {
+                if (jvmClassName.equals(file.getName())) {
                     PsiReference reference = file.getReference();
-                    if (reference != null) {
-                        consumer.test(reference);
+                    if (reference != null && !consumer.test(reference)) {
+                        return;
                     }
                 }
+                else if (!processProviderReferences(file, aClass, jvmClassName, consumer)) {
+                    return;
+                }
             }
         }
         else if (element instanceof PsiPackage aPackage) {
             String qualifiedName = aPackage.getQualifiedName();
-            Project project = aPackage.getProject();
-            String[] filenames = FilenameIndex.getAllFilenames(project);
-            for (String filename : filenames) {
-                if (filename.startsWith(qualifiedName + ".")) {
-                    for (PsiFile file : FilenameIndex.getFilesByName(project, filename, globalSearchScope)) {
-                        if (file.getLanguage() == SPILanguage.INSTANCE) {
-                            for (PsiReference reference : file.getReferences()) {
-                                if (reference.getCanonicalText().equals(qualifiedName)) {
-                                    consumer.test(reference);
-                                }
-                            }
+            for (PsiFile file : getServicesFiles(aPackage.getProject(), qualifiedName, globalSearchScope)) {
+                if (file.getName().startsWith(qualifiedName + ".")) {
+                    for (PsiReference reference : file.getReferences()) {
+                        if (reference.getCanonicalText().equals(qualifiedName) && !consumer.test(reference)) {
+                            return;
                         }
                     }
                 }
             }
         }
     }
+
+    @RequiredReadAction
+    private static List<PsiFile> getServicesFiles(Project project, String jvmName, GlobalSearchScope scope) {
+        PsiManager psiManager = PsiManager.getInstance(project);
+        List<PsiFile> files = new ArrayList<>();
+        for (VirtualFile file : JavaServiceProviderIndex.getFiles(jvmName, scope)) {
+            PsiFile psiFile = psiManager.findFile(file);
+            if (psiFile != null && psiFile.getLanguage() == SPILanguage.INSTANCE) {
+                files.add(psiFile);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Processes references to the class from the provider lines of a services file
+     */
+    @RequiredReadAction
+    private static boolean processProviderReferences(
+        PsiFile file,
+        PsiClass aClass,
+        String jvmClassName,
+        Predicate<? super PsiReference> consumer
+    ) {
+        CharSequence text = file.getViewProvider().getContents();
+        int offset = StringUtil.indexOf(text, jvmClassName);
+        while (offset >= 0) {
+            PsiReference reference = file.findReferenceAt(offset + jvmClassName.length() - 1);
+            if (reference != null && reference.isReferenceTo(aClass) && !consumer.test(reference)) {
+                return false;
+            }
+            offset = StringUtil.indexOf(text, jvmClassName, offset + 1);
+        }
+        return true;
+    }
 }
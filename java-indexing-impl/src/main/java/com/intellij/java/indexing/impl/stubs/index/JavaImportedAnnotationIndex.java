@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl.stubs.index;
+
+import com.intellij.java.indexing.impl.search.JavaSourceFilterScope;
+import com.intellij.java.language.impl.JavaFileType;
+import com.intellij.java.language.impl.psi.impl.java.stubs.JavaStubElementTypes;
+import com.intellij.java.language.impl.psi.impl.source.JavaLightTreeUtil;
+import com.intellij.java.language.impl.psi.impl.source.tree.JavaElementType;
+import com.intellij.java.language.impl.psi.impl.source.tree.JavaSourceUtil;
+import com.intellij.java.language.psi.JavaTokenType;
+import consulo.annotation.component.ExtensionImpl;
+import consulo.index.io.DataIndexer;
+import consulo.index.io.EnumeratorStringDescriptor;
+import consulo.index.io.ID;
+import consulo.index.io.KeyDescriptor;
+import consulo.language.ast.IElementType;
+import consulo.language.ast.LighterAST;
+import consulo.language.ast.LighterASTNode;
+import consulo.language.ast.LightTreeUtil;
+import consulo.language.psi.scope.GlobalSearchScope;
+import consulo.language.psi.stub.*;
+import consulo.util.lang.StringUtil;
+import consulo.virtualFileSystem.VirtualFile;
+
+import java.util.*;
+
+/**
+ * Files by qualified names of annotations which are used in them by short names resolved by a single-type import.
+ * <p>
+ * A single-type import shadows on-demand imports, classes of the same package and {@code java.lang}, so a short annotation
+ * name matching it refers to the imported class unless the file declares a class with the same name; such files aren't indexed.
+ * Member types inherited by a class shadow the import in the class body too, so annotation searches accept unqualified annotations
+ * of the indexed files without resolving them only outside of bodies of classes with supertypes.
+ */
+@ExtensionImpl
+public class JavaImportedAnnotationIndex extends ScalarIndexExtension<String> {
+  private static final ID<String, Void> NAME = ID.create("java.imported.annotation");
+
+  @Override
+  public ID<String, Void> getName() {
+    return NAME;
+  }
+
+  @Override
+  public DataIndexer<String, Void, FileContent> getIndexer() {
+    return inputData -> {
+      if (!JavaStubElementTypes.JAVA_FILE.shouldBuildStubFor(inputData.getFile()) ||
+          !StringUtil.contains(inputData.getContentAsText(), "@")) {
+        return Collections.emptyMap();
+      }
+
+      final LighterAST tree = ((PsiDependentFileContent) inputData).getLighterAST();
+      final Map<String, String> imports = new HashMap<>();
+      final Set<String> annotationNames = new HashSet<>();
+      final Set<String> classNames = new HashSet<>();
+      final Deque<LighterASTNode> nodes = new ArrayDeque<>();
+      nodes.push(tree.getRoot());
+      while (!nodes.isEmpty()) {
+        final LighterASTNode node = nodes.pop();
+        final IElementType type = node.getTokenType();
+        if (type == JavaElementType.IMPORT_STATEMENT) {
+          addSingleTypeImport(tree, node, imports);
+          continue;
+        }
+        if (type == JavaElementType.ANNOTATION) {
+          final LighterASTNode reference = LightTreeUtil.firstChildOfType(tree, node, JavaElementType.JAVA_CODE_REFERENCE);
+          final String text = reference == null ? null : JavaSourceUtil.getReferenceText(tree, reference);
+          if (text != null && text.indexOf('.') < 0) {
+            annotationNames.add(text);
+          }
+        }
+        else if (type == JavaElementType.CLASS) {
+          final String name = JavaLightTreeUtil.getNameIdentifierText(tree, node);
+          if (name != null) {
+            classNames.add(name);
+          }
+        }
+        for (LighterASTNode child : tree.getChildren(node)) {
+          nodes.push(child);
+        }
+      }
+
+      final Map<String, Void> result = new HashMap<>();
+      for (String name : annotationNames) {
+        final String qualifiedName = imports.get(name);
+        if (qualifiedName != null && !classNames.contains(name)) {
+          result.put(qualifiedName, null);
+        }
+      }
+      return result;
+    };
+  }
+
+  private static void addSingleTypeImport(LighterAST tree, LighterASTNode importStatement, Map<String, String> imports) {
+    String qualifiedName = null;
+    for (LighterASTNode child : tree.getChildren(importStatement)) {
+      if (child.getTokenType() == JavaTokenType.ASTERISK) {
+        return;
+      }
+      if (child.getTokenType() == JavaElementType.JAVA_CODE_REFERENCE) {
+        qualifiedName = JavaSourceUtil.getReferenceText(tree, child);
+      }
+    }
+    if (qualifiedName != null) {
+      imports.put(StringUtil.getShortName(qualifiedName), qualifiedName);
+    }
+  }
+
+  public static Collection<VirtualFile> getFilesByQualifiedName(String qualifiedName, GlobalSearchScope scope) {
+    return FileBasedIndex.getInstance().getContainingFiles(NAME, qualifiedName, new JavaSourceFilterScope(scope));
+  }
+
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 0;
+  }
+}
@@ -65,6 +65,14 @@ public interface PsiShortNameProvider {
         return ContainerUtil.process(getAllClassNames(), processor);
     }
 
+    /**
+     * Processes class names which may be matched by the camel-hump pattern, at least all names having a hump which starts
+     * with the first letter of the pattern in any case. Other names may be processed too, so callers still match the names.
+     */
+    default boolean processClassNamesMatching(String pattern, Predicate<String> processor) {
+        return processAllClassNames(processor);
+    }
+
     /**
      * Adds the names of all classes in the project and (optionally) libraries
      * to the specified set.
@@ -92,6 +92,14 @@ public abstract class PsiShortNamesCache {
         return ContainerUtil.process(getAllClassNames(), processor);
     }
 
+    /**
+     * Processes class names which may be matched by the camel-hump pattern, at least all names having a hump which starts
+     * with the first letter of the pattern in any case. Other names may be processed too, so callers still match the names.
+     */
+    public boolean processClassNamesMatching(String pattern, Predicate<String> processor) {
+        return processAllClassNames(processor);
+    }
+
     /**
      * Adds the names of all classes in the project and (optionally) libraries
      * to the specified set.
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl.search;
+
+import com.intellij.java.indexing.impl.search.JavaFunctionalExpressionIndex.IndexHolder;
+import com.intellij.java.language.psi.*;
+import consulo.java.language.benchmark.JavaBenchmarkEnvironment;
+import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.SyntaxTraverser;
+import consulo.language.psi.util.PsiTreeUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexing of a file not parsed yet by {@link JavaFunctionalExpressionIndex}, which works on the light tree, and by the PSI based
+ * indexer it replaced, which needs the whole PSI of the file. Each input gets a class with the given number of methods passing
+ * lambdas and method references appended.
+ * <p>
+ * The benchmark is in the index package, as the indexing of a light tree is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JavaFunctionalExpressionIndexBenchmark {
+  @Param({
+    "psi/parser-full/declarationParsing/class/LongClass.java",
+    "psi/repositoryUse/src/StressClass.java",
+    "codeInsight/daemonCodeAnalyzer/advHighlighting/aThinlet.java"
+  })
+  public String myInput;
+
+  @Param({"0", "200"})
+  public int myLambdaMethods;
+
+  private JavaBenchmarkEnvironment myEnvironment;
+  private String myText;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    myEnvironment = new JavaBenchmarkEnvironment();
+    myEnvironment.start();
+
+    StringBuilder text = new StringBuilder(JavaBenchmarkEnvironment.loadResource(myInput));
+    text.append("\nclass Lambdas {\n");
+    for (int i = 0; i < myLambdaMethods; i++) {
+      text.append("  void m").append(i).append("(java.util.List<String> list) {\n")
+        .append("    list.forEach(s -> System.out.println(s));\n")
+        .append("    list.sort(String::compareTo);\n")
+        .append("    new Thread(() -> m").append(i).append("(list)).start();\n")
+        .append("    list.stream().map(s -> s.length()).reduce(0, (a, b) -> a + b);\n")
+        .append("  }\n");
+    }
+    text.append("}\n");
+    myText = text.toString();
+
+    Map<String, Collection<IndexHolder>> lightData = lightIndexer();
+    Map<String, Collection<IndexHolder>> psiData = psiIndexer();
+    if (!lightData.equals(psiData)) {
+      throw new IllegalStateException("Indexed data differs: " + lightData + " and " + psiData);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    myEnvironment.stop();
+  }
+
+  @Benchmark
+  public Map<String, Collection<IndexHolder>> lightIndexer() {
+    PsiJavaFile file = myEnvironment.createFile("A.java", myText);
+    return JavaFunctionalExpressionIndex.index(file.getNode().getLighterAST(), myText);
+  }
+
+  @Benchmark
+  public Map<String, Collection<IndexHolder>> psiIndexer() {
+    return psiIndex(myEnvironment.createFile("A.java", myText));
+  }
+
+  // the indexer before it moved to the light tree
+  private static Map<String, Collection<IndexHolder>> psiIndex(PsiFile file) {
+    Map<String, Collection<IndexHolder>> methodsMap = new HashMap<>();
+    for (PsiFunctionalExpression expression : SyntaxTraverser.psiTraverser().withRoot(file).filter(PsiFunctionalExpression.class)) {
+      PsiExpressionList expressionList = PsiTreeUtil.getParentOfType(expression, PsiExpressionList.class, true, PsiStatement.class, PsiModifierListOwner.class);
+      if (expressionList != null) {
+        String methodName = getCalledName(expressionList.getParent());
+        if (methodName != null) {
+          methodsMap.computeIfAbsent(methodName, __ -> new HashSet<>())
+            .add(new IndexHolder(expression instanceof PsiLambdaExpression ? ((PsiLambdaExpression)expression).getParameterList().getParametersCount() : -1,
+                                 expressionList.getExpressions().length, LambdaUtil.getLambdaIdx(expressionList, expression)));
+        }
+      }
+    }
+    return methodsMap;
+  }
+
+  private static String getCalledName(PsiElement parent) {
+    if (parent instanceof PsiMethodCallExpression) {
+      String methodName = ((PsiMethodCallExpression)parent).getMethodExpression().getReferenceName();
+      if (!PsiKeyword.THIS.equals(methodName) && !PsiKeyword.SUPER.equals(methodName)) {
+        return methodName;
+      }
+      PsiClass containingClass = PsiTreeUtil.getParentOfType(parent, PsiClass.class);
+      if (containingClass == null) {
+        return null;
+      }
+      if (PsiKeyword.THIS.equals(methodName)) {
+        return containingClass.getName();
+      }
+      PsiReferenceList extendsList = containingClass.getExtendsList();
+      PsiJavaCodeReferenceElement[] referenceElements = extendsList == null ? PsiJavaCodeReferenceElement.EMPTY_ARRAY : extendsList.getReferenceElements();
+      return referenceElements.length > 0 ? referenceElements[0].getReferenceName() : null;
+    }
+    if (parent instanceof PsiNewExpression) {
+      PsiJavaCodeReferenceElement classReference = ((PsiNewExpression)parent).getClassOrAnonymousClassReference();
+      return classReference == null ? null : classReference.getReferenceName();
+    }
+    if (parent instanceof PsiEnumConstant) {
+      PsiClass containingClass = ((PsiEnumConstant)parent).getContainingClass();
+      return containingClass == null ? null : containingClass.getName();
+    }
+    return null;
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.lexer;
+
+import com.intellij.java.language.LanguageLevel;
+import com.intellij.java.language.impl.psi.impl.source.tree.ElementType;
+import com.intellij.java.language.psi.JavaTokenType;
+import consulo.java.language.benchmark.JavaBenchmarkEnvironment;
+import consulo.language.lexer.FlexAdapter;
+import consulo.language.lexer.Lexer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.intellij.java.language.psi.PsiKeyword.*;
+
+/**
+ * Lexing of the stress inputs by {@link JavaLexer}, which scans ASCII identifiers and keywords itself, and by the flex lexer alone,
+ * which the lexer used for them before. Keyword lookups of all identifiers and keywords of the inputs compare the perfect hash
+ * {@link JavaKeywordTable} with the hash sets it replaced.
+ * <p>
+ * The benchmark is in the lexer package, as the keyword table and the flex lexer are package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JavaLexerBenchmark {
+  private static final LanguageLevel LEVEL = LanguageLevel.HIGHEST;
+
+  // the lookup of JavaLexer.isKeyword and isSoftKeyword before the keyword table
+  private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+    ABSTRACT, BOOLEAN, BREAK, BYTE, CASE, CATCH, CHAR, CLASS, CONST, CONTINUE, DEFAULT, DO, DOUBLE, ELSE, EXTENDS, FINAL, FINALLY,
+    FLOAT, FOR, GOTO, IF, IMPLEMENTS, IMPORT, INSTANCEOF, INT, INTERFACE, LONG, NATIVE, NEW, PACKAGE, PRIVATE, PROTECTED, PUBLIC,
+    RETURN, SHORT, STATIC, STRICTFP, SUPER, SWITCH, SYNCHRONIZED, THIS, THROW, THROWS, TRANSIENT, TRY, VOID, VOLATILE, WHILE,
+    TRUE, FALSE, NULL, NON_SEALED));
+  private static final Set<String> JAVA9_KEYWORDS = Set.of(OPEN, MODULE, REQUIRES, EXPORTS, OPENS, USES, PROVIDES, TRANSITIVE, TO, WITH);
+
+  @Param({
+    "psi/parser-full/declarationParsing/class/LongClass.java",
+    "psi/repositoryUse/src/StressClass.java",
+    "codeInsight/daemonCodeAnalyzer/advHighlighting/aThinlet.java"
+  })
+  public String myInput;
+
+  private JavaBenchmarkEnvironment myEnvironment;
+  private String myText;
+  private char[] myChars;
+  private int[] myWordOffsets;
+  private String[] myWords;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    myEnvironment = new JavaBenchmarkEnvironment();
+    myEnvironment.start();
+    myText = JavaBenchmarkEnvironment.loadResource(myInput);
+    myChars = myText.toCharArray();
+
+    List<String> words = new ArrayList<>();
+    List<Integer> offsets = new ArrayList<>();
+    JavaLexer lexer = new JavaLexer(LEVEL);
+    for (lexer.start(myText); lexer.getTokenType() != null; lexer.advance()) {
+      if (lexer.getTokenType() == JavaTokenType.IDENTIFIER || ElementType.KEYWORD_BIT_SET.contains(lexer.getTokenType())) {
+        words.add(myText.substring(lexer.getTokenStart(), lexer.getTokenEnd()));
+        offsets.add(lexer.getTokenStart());
+        offsets.add(lexer.getTokenEnd());
+      }
+    }
+    myWords = words.toArray(new String[0]);
+    myWordOffsets = offsets.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    myEnvironment.stop();
+  }
+
+  @Benchmark
+  public int lexer() {
+    return lex(new JavaLexer(LEVEL));
+  }
+
+  @Benchmark
+  public int flexLexer() {
+    return lex(new FlexAdapter(new _JavaLexer(LEVEL)));
+  }
+
+  @Benchmark
+  public int keywordTable() {
+    int keywords = 0;
+    for (int i = 0; i < myWordOffsets.length; i += 2) {
+      if (JavaKeywordTable.find(myChars, myWordOffsets[i], myWordOffsets[i + 1]) != null) {
+        keywords++;
+      }
+    }
+    return keywords;
+  }
+
+  @Benchmark
+  public int keywordTableByName() {
+    int keywords = 0;
+    for (String word : myWords) {
+      if (JavaLexer.isKeyword(word, LEVEL) || JavaLexer.isSoftKeyword(word, LEVEL)) {
+        keywords++;
+      }
+    }
+    return keywords;
+  }
+
+  @Benchmark
+  public int keywordSets() {
+    int keywords = 0;
+    for (String word : myWords) {
+      if (isKeyword(word) || isSoftKeyword(word)) {
+        keywords++;
+      }
+    }
+    return keywords;
+  }
+
+  private int lex(Lexer lexer) {
+    int tokens = 0;
+    for (lexer.start(myText); lexer.getTokenType() != null; lexer.advance()) {
+      tokens++;
+    }
+    return tokens;
+  }
+
+  private static boolean isKeyword(String id) {
+    return KEYWORDS.contains(id) || ASSERT.equals(id) || ENUM.equals(id);
+  }
+
+  private static boolean isSoftKeyword(String id) {
+    return JAVA9_KEYWORDS.contains(id) || VAR.equals(id) || RECORD.equals(id) || YIELD.equals(id) ||
+           SEALED.equals(id) || PERMITS.equals(id) || WHEN.equals(id);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.java.language.benchmark;
+
+import com.intellij.java.language.LanguageLevel;
+import com.intellij.java.language.psi.PsiJavaFile;
+import consulo.application.ApplicationManager;
+import consulo.language.impl.internal.psi.diff.BlockSupport;
+import consulo.language.psi.PsiRecursiveElementWalkingVisitor;
+import consulo.language.version.LanguageVersion;
+import consulo.testFramework.ParsingTestCase;
+import consulo.virtualFileSystem.fileType.FileType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The light application and project the benchmarks parse in. It reuses the parsing test fixture,
+ * started and stopped by hand from the JMH trial setup.
+ */
+public class JavaBenchmarkEnvironment extends ParsingTestCase {
+  public JavaBenchmarkEnvironment() {
+    super("psi", "java");
+  }
+
+  public void start() throws Exception {
+    setUp();
+  }
+
+  public void stop() throws Exception {
+    tearDown();
+  }
+
+  @Override
+  public LanguageVersion resolveLanguageVersion(FileType fileType) {
+    return LanguageLevel.HIGHEST.toLangVersion();
+  }
+
+  /**
+   * @return a file which is not parsed yet
+   */
+  public PsiJavaFile createFile(String name, String text) {
+    return (PsiJavaFile)createPsiFile(name, text);
+  }
+
+  /**
+   * @return a file with all chameleons expanded
+   */
+  public PsiJavaFile createParsedFile(String name, String text) {
+    PsiJavaFile file = createFile(name, text);
+    file.accept(new PsiRecursiveElementWalkingVisitor() {
+    });
+    return file;
+  }
+
+  public void reparseRange(PsiJavaFile file, int startOffset, int endOffset, CharSequence newText) {
+    BlockSupport blockSupport = myProject.getInstance(BlockSupport.class);
+    ApplicationManager.getApplication().runWriteAction(() -> blockSupport.reparseRange(file, startOffset, endOffset, newText));
+  }
+
+  public static String loadResource(String path) {
+    try (InputStream stream = JavaBenchmarkEnvironment.class.getClassLoader().getResourceAsStream(path)) {
+      if (stream == null) {
+        throw new IllegalArgumentException("No benchmark input " + path);
+      }
+      return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.java.language.benchmark;
+
+import com.intellij.java.language.psi.PsiJavaFile;
+import com.intellij.java.language.psi.PsiMethod;
+import com.intellij.java.language.psi.PsiMethodCallExpression;
+import consulo.language.psi.util.PsiTreeUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolve of the calls of a heavily overloaded method, with the resolve caches dropped before each invocation.
+ * Calls with variables and literals as arguments get the candidates pre-filtered by the erased argument types,
+ * calls with method calls as arguments go through the applicability check of all candidates of their arity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JavaOverloadResolutionBenchmark {
+  @Param({"10", "100"})
+  public int myOverloads;
+
+  private JavaResolveBenchmarkEnvironment myEnvironment;
+  private List<PsiMethodCallExpression> myStandaloneArgumentCalls;
+  private List<PsiMethodCallExpression> myCallArgumentCalls;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    myEnvironment = new JavaResolveBenchmarkEnvironment();
+    myEnvironment.start();
+
+    PsiJavaFile file = myEnvironment.addFile("Overloads.java", generateOverloads(myOverloads));
+    myStandaloneArgumentCalls = findCalls(file, "standaloneArguments");
+    myCallArgumentCalls = findCalls(file, "callArguments");
+    if (resolve(myStandaloneArgumentCalls) != myOverloads * 2 || resolve(myCallArgumentCalls) != myOverloads * 2) {
+      throw new IllegalStateException("Not all calls resolved");
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void dropCaches() {
+    myEnvironment.dropResolveCaches();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    myEnvironment.stop();
+  }
+
+  @Benchmark
+  public int standaloneArguments() {
+    return resolve(myStandaloneArgumentCalls);
+  }
+
+  @Benchmark
+  public int callArguments() {
+    return resolve(myCallArgumentCalls);
+  }
+
+  private static int resolve(List<PsiMethodCallExpression> calls) {
+    return JavaResolveBenchmarkEnvironment.readAction(() -> {
+      int resolved = 0;
+      for (PsiMethodCallExpression call : calls) {
+        if (call.resolveMethodGenerics().isValidResult()) {
+          resolved++;
+        }
+      }
+      return resolved;
+    });
+  }
+
+  private static List<PsiMethodCallExpression> findCalls(PsiJavaFile file, String methodName) {
+    return JavaResolveBenchmarkEnvironment.readAction(() -> {
+      PsiMethod method = file.getClasses()[0].findMethodsByName(methodName, false)[0];
+      List<PsiMethodCallExpression> calls = new ArrayList<>();
+      for (PsiMethodCallExpression call : PsiTreeUtil.findChildrenOfType(method.getBody(), PsiMethodCallExpression.class)) {
+        if ("foo".equals(call.getMethodExpression().getReferenceName())) {
+          calls.add(call);
+        }
+      }
+      return calls;
+    });
+  }
+
+  /**
+   * Overloads foo(Ci, String) and foo(String, Ci) of nested classes Ci, with each of them called once
+   */
+  private static String generateOverloads(int overloads) {
+    StringBuilder text = new StringBuilder("class Overloads {\n");
+    for (int i = 0; i < overloads; i++) {
+      text.append("  static class C").append(i).append(" {}\n")
+        .append("  static C").append(i).append(" c").append(i).append("() { return null; }\n")
+        .append("  void foo(C").append(i).append(" c, String s) {}\n")
+        .append("  void foo(String s, C").append(i).append(" c) {}\n");
+    }
+    text.append("  void standaloneArguments() {\n");
+    for (int i = 0; i < overloads; i++) {
+      text.append("    C").append(i).append(" v").append(i).append(" = null;\n")
+        .append("    foo(v").append(i).append(", \"\");\n")
+        .append("    foo(\"\", v").append(i).append(");\n");
+    }
+    text.append("  }\n  void callArguments() {\n");
+    for (int i = 0; i < overloads; i++) {
+      text.append("    foo(c").append(i).append("(), \"\");\n")
+        .append("    foo(\"\", c").append(i).append("());\n");
+    }
+    text.append("  }\n}\n");
+    return text.toString();
+  }
+}
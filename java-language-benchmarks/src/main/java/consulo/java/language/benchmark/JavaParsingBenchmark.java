@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.java.language.benchmark;
+
+import com.intellij.java.language.impl.psi.impl.source.JavaLightStubBuilder;
+import com.intellij.java.language.psi.PsiJavaFile;
+import consulo.language.psi.stub.StubElement;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full parse and stub building of the stress inputs. Stubs are built once over a parsed AST
+ * and once over a light tree of an unparsed file, which is what indexing does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JavaParsingBenchmark {
+  @Param({
+    "psi/parser-full/declarationParsing/class/LongClass.java",
+    "psi/repositoryUse/src/StressClass.java",
+    "codeInsight/daemonCodeAnalyzer/advHighlighting/aThinlet.java"
+  })
+  public String myInput;
+
+  private final JavaLightStubBuilder myStubBuilder = new JavaLightStubBuilder();
+  private JavaBenchmarkEnvironment myEnvironment;
+  private String myText;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    myEnvironment = new JavaBenchmarkEnvironment();
+    myEnvironment.start();
+    myText = JavaBenchmarkEnvironment.loadResource(myInput);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    myEnvironment.stop();
+  }
+
+  @Benchmark
+  public PsiJavaFile fullParse() {
+    return myEnvironment.createParsedFile("Input.java", myText);
+  }
+
+  @Benchmark
+  public StubElement stubsOverAst(ParsedFile parsed) {
+    return myStubBuilder.buildStubTree(parsed.myFile);
+  }
+
+  @Benchmark
+  public StubElement lightStubs() {
+    return myStubBuilder.buildStubTree(myEnvironment.createFile("Input.java", myText));
+  }
+
+  @State(Scope.Thread)
+  public static class ParsedFile {
+    private PsiJavaFile myFile;
+
+    @Setup(Level.Invocation)
+    public void parse(JavaParsingBenchmark benchmark) {
+      myFile = benchmark.myEnvironment.createParsedFile("Input.java", benchmark.myText);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.java.language.benchmark;
+
+import com.intellij.java.language.psi.PsiClass;
+import com.intellij.java.language.psi.PsiCodeBlock;
+import com.intellij.java.language.psi.PsiJavaFile;
+import com.intellij.java.language.psi.PsiMethod;
+import consulo.language.psi.util.PsiTreeUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incremental reparse of a single edit: a statement typed into a method of the stress inputs,
+ * an operator changed in an expression lambda body and a value changed in one switch rule.
+ * The last two use a generated class with many lambda fields and a switch expression with many rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JavaReparseBenchmark {
+  private static final int GENERATED_MEMBERS = 2000;
+  private static final String MIDDLE = String.valueOf(GENERATED_MEMBERS / 2);
+
+  @Param({
+    "psi/parser-full/declarationParsing/class/LongClass.java",
+    "psi/repositoryUse/src/StressClass.java",
+    "codeInsight/daemonCodeAnalyzer/advHighlighting/aThinlet.java"
+  })
+  public String myInput;
+
+  private JavaBenchmarkEnvironment myEnvironment;
+  private String myText;
+  private String myGeneratedText;
+
+  private PsiJavaFile myFile;
+  private PsiJavaFile myGeneratedFile;
+  private int myStatementOffset;
+  private int myLambdaOperatorOffset;
+  private int mySwitchValueOffset;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    myEnvironment = new JavaBenchmarkEnvironment();
+    myEnvironment.start();
+    myText = JavaBenchmarkEnvironment.loadResource(myInput);
+    myGeneratedText = generateLambdasAndSwitch();
+    myLambdaOperatorOffset = myGeneratedText.indexOf("x -> x + " + MIDDLE + ";") + "x -> x ".length();
+    mySwitchValueOffset = myGeneratedText.indexOf("case " + MIDDLE + " -> ") + ("case " + MIDDLE + " -> ").length();
+  }
+
+  @Setup(Level.Invocation)
+  public void parse() {
+    myFile = myEnvironment.createParsedFile("Input.java", myText);
+    myStatementOffset = findFirstMethodBodyStart(myFile);
+    myGeneratedFile = myEnvironment.createParsedFile("Generated.java", myGeneratedText);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    myEnvironment.stop();
+  }
+
+  @Benchmark
+  public PsiJavaFile insertStatement() {
+    myEnvironment.reparseRange(myFile, myStatementOffset, myStatementOffset, "int reparsed = 0;");
+    return myFile;
+  }
+
+  @Benchmark
+  public PsiJavaFile editLambdaBody() {
+    myEnvironment.reparseRange(myGeneratedFile, myLambdaOperatorOffset, myLambdaOperatorOffset + 1, "*");
+    return myGeneratedFile;
+  }
+
+  @Benchmark
+  public PsiJavaFile editSwitchRule() {
+    myEnvironment.reparseRange(myGeneratedFile, mySwitchValueOffset, mySwitchValueOffset + MIDDLE.length(), "-1");
+    return myGeneratedFile;
+  }
+
+  private static int findFirstMethodBodyStart(PsiJavaFile file) {
+    for (PsiClass aClass : PsiTreeUtil.findChildrenOfType(file, PsiClass.class)) {
+      for (PsiMethod method : aClass.getMethods()) {
+        PsiCodeBlock body = method.getBody();
+        if (body != null && body.getLBrace() != null) {
+          return body.getLBrace().getTextRange().getEndOffset();
+        }
+      }
+    }
+    throw new IllegalStateException("No method with a body in " + file.getName());
+  }
+
+  private static String generateLambdasAndSwitch() {
+    StringBuilder text = new StringBuilder("class Generated {\n");
+    for (int i = 0; i < GENERATED_MEMBERS; i++) {
+      text.append("  java.util.function.IntUnaryOperator f").append(i).append(" = x -> x + ").append(i).append(";\n");
+    }
+    text.append("  int m(int k) {\n    return switch (k) {\n");
+    for (int i = 0; i < GENERATED_MEMBERS; i++) {
+      text.append("      case ").append(i).append(" -> ").append(i).append(";\n");
+    }
+    text.append("      default -> -1;\n    };\n  }\n}\n");
+    return text.toString();
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.java.language.benchmark;
+
+import com.intellij.java.language.psi.PsiJavaFile;
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+import consulo.application.ApplicationManager;
+import consulo.application.util.function.Computable;
+import consulo.language.psi.PsiManager;
+
+/**
+ * The light project with the mock JDK the resolve benchmarks run in. It reuses the light code insight fixture,
+ * started and stopped by hand from the JMH trial setup.
+ */
+public class JavaResolveBenchmarkEnvironment extends LightCodeInsightFixtureTestCase {
+  public JavaResolveBenchmarkEnvironment() {
+    setName("benchmark");
+  }
+
+  public void start() throws Exception {
+    setUp();
+  }
+
+  public void stop() throws Exception {
+    tearDown();
+  }
+
+  public PsiJavaFile addFile(String name, String text) {
+    return (PsiJavaFile)myFixture.addFileToProject(name, text);
+  }
+
+  public void dropResolveCaches() {
+    PsiManager.getInstance(getProject()).dropResolveCaches();
+  }
+
+  public static <T> T readAction(Computable<T> computable) {
+    return ApplicationManager.getApplication().runReadAction(computable);
+  }
+}
@@ -26,6 +26,9 @@ import com.intellij.java.language.psi.PsiModifierListOwner;
 import com.intellij.java.language.psi.PsiNameValuePair;
 import com.intellij.java.language.psi.util.PsiFormatUtil;
 import consulo.application.util.LowMemoryWatcher;
+import consulo.index.io.data.DataExternalizer;
+import consulo.index.io.data.DataInputOutputUtil;
+import consulo.index.io.data.IOUtil;
 import consulo.language.file.light.LightVirtualFile;
 import consulo.language.impl.ast.CharTableImpl;
 import consulo.language.impl.psi.DummyHolder;
@@ -35,6 +38,8 @@ import consulo.language.parser.PsiBuilder;
 import consulo.language.psi.PsiElement;
 import consulo.language.psi.PsiFile;
 import consulo.language.psi.PsiManager;
+import consulo.language.psi.stub.gist.GistManager;
+import consulo.language.psi.stub.gist.PsiFileGist;
 import consulo.language.util.IncorrectOperationException;
 import consulo.logging.Logger;
 import consulo.util.collection.ConcurrentMostlySingularMultiMap;
@@ -45,6 +50,7 @@ import consulo.util.dataholder.Key;
 import consulo.util.io.CharSequenceReader;
 import consulo.util.lang.Pair;
 import consulo.util.lang.function.Condition;
+import consulo.util.lang.lazy.LazyValue;
 import consulo.virtualFileSystem.VirtualFile;
 import org.jspecify.annotations.Nullable;
 import org.xml.sax.Attributes;
@@ -56,10 +62,13 @@ import org.xml.sax.helpers.DefaultHandler;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static consulo.util.lang.Pair.pair;
 
@@ -67,12 +76,17 @@ public abstract class BaseExternalAnnotationsManager extends ExternalAnnotations
   private static final Logger LOG = Logger.getInstance(BaseExternalAnnotationsManager.class);
   private static final Key<Boolean> EXTERNAL_ANNO_MARKER = Key.create("EXTERNAL_ANNO_MARKER");
   private static final List<PsiFile> NULL_LIST = Collections.emptyList();
+  // created on first use, not when the class is loaded
+  private static final Supplier<PsiFileGist<Map<String, List<RawAnnotation>>>> ourRawDataGist = LazyValue.notNull(
+    () -> GistManager.getInstance().newPsiFileGist("javaExternalAnnotations", 1, new RawDataExternalizer(), BaseExternalAnnotationsManager::parseRawData));
 
   protected final PsiManager myPsiManager;
 
   private final ConcurrentMap<VirtualFile, List<PsiFile>> myExternalAnnotations = ContainerUtil.createConcurrentSoftValueMap();
   private final Map<AnnotationData, AnnotationData> myAnnotationDataCache = ContainerUtil.createWeakKeyWeakValueMap();
   private final ConcurrentMap<PsiFile, Pair<MostlySingularMultiMap<String, AnnotationData>, Long>> myAnnotationFileToDataAndModStamp = ContainerUtil.createConcurrentSoftMap();
+  // duplicates are reported once per file modification stamp, not every time the data is read back from the gist
+  private final ConcurrentMap<PsiFile, Long> myDuplicatesReportedStamps = ContainerUtil.createConcurrentWeakMap();
 
   public BaseExternalAnnotationsManager(PsiManager psiManager) {
     myPsiManager = psiManager;
@@ -181,7 +195,46 @@ public abstract class BaseExternalAnnotationsManager extends ExternalAnnotations
       return cached.getFirst();
     }
 
-    DataParsingSaxHandler handler = new DataParsingSaxHandler(file);
+    // the parsed file is persisted by the gist, after the soft cache is collected it's only read back, not parsed again
+    Map<String, List<RawAnnotation>> rawData = ourRawDataGist.get().getFileData(file);
+    MostlySingularMultiMap<String, AnnotationData> result = toAnnotationData(file, fileModificationStamp, rawData);
+    myAnnotationFileToDataAndModStamp.put(file, pair(result, fileModificationStamp));
+    return result;
+  }
+
+  private MostlySingularMultiMap<String, AnnotationData> toAnnotationData(PsiFile file,
+                                                                          long fileModificationStamp,
+                                                                          @Nullable Map<String, List<RawAnnotation>> rawData) {
+    if (rawData == null || rawData.isEmpty()) {
+      return MostlySingularMultiMap.emptyMap();
+    }
+    boolean reportDuplicates = !Long.valueOf(fileModificationStamp).equals(myDuplicatesReportedStamps.get(file));
+    boolean hasDuplicates = false;
+    MostlySingularMultiMap<String, AnnotationData> result = new MostlySingularMultiMap<>();
+    for (Map.Entry<String, List<RawAnnotation>> entry : rawData.entrySet()) {
+      String externalName = entry.getKey();
+      for (RawAnnotation raw : entry.getValue()) {
+        for (AnnotationData existingData : result.get(externalName)) {
+          if (existingData.myFqName.equals(raw.fqName())) {
+            hasDuplicates = true;
+            if (reportDuplicates) {
+              duplicateError(file, externalName, "Duplicate annotation '" + raw.fqName() + "'");
+            }
+          }
+        }
+        String arguments = raw.parameters().isEmpty() ? "" : intern(raw.parameters());
+        result.add(externalName, internAnnotationData(new AnnotationData(raw.fqName(), arguments)));
+      }
+    }
+    if (hasDuplicates) {
+      myDuplicatesReportedStamps.put(file, fileModificationStamp);
+    }
+    result.compact();
+    return result;
+  }
+
+  private static Map<String, List<RawAnnotation>> parseRawData(PsiFile file) {
+    DataParsingSaxHandler handler = new DataParsingSaxHandler();
     try {
       SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
       saxParser.parse(new InputSource(new CharSequenceReader(escapeAttributes(file.getViewProvider().getContents()))), handler);
@@ -192,10 +245,7 @@ public abstract class BaseExternalAnnotationsManager extends ExternalAnnotations
     } catch (SAXException e) {
       LOG.error(e);
     }
-
-    MostlySingularMultiMap<String, AnnotationData> result = handler.getResult();
-    myAnnotationFileToDataAndModStamp.put(file, pair(result, fileModificationStamp));
-    return result;
+    return handler.getResult();
   }
 
   protected void duplicateError(PsiFile file, String externalName, String text) {
@@ -437,18 +487,50 @@ public abstract class BaseExternalAnnotationsManager extends ExternalAnnotations
     }
   };
 
-  private class DataParsingSaxHandler extends DefaultHandler {
-    private final MostlySingularMultiMap<String, AnnotationData> myData = new MostlySingularMultiMap<String, AnnotationData>();
-    private final PsiFile myFile;
+  /**
+   * An annotation of an item as it's written in the file, before interning
+   */
+  private record RawAnnotation(String fqName, String parameters) {
+  }
+
+  private static class RawDataExternalizer implements DataExternalizer<Map<String, List<RawAnnotation>>> {
+    @Override
+    public void save(DataOutput out, Map<String, List<RawAnnotation>> value) throws IOException {
+      DataInputOutputUtil.writeINT(out, value.size());
+      for (Map.Entry<String, List<RawAnnotation>> entry : value.entrySet()) {
+        IOUtil.writeUTF(out, entry.getKey());
+        DataInputOutputUtil.writeINT(out, entry.getValue().size());
+        for (RawAnnotation annotation : entry.getValue()) {
+          IOUtil.writeUTF(out, annotation.fqName());
+          IOUtil.writeUTF(out, annotation.parameters());
+        }
+      }
+    }
+
+    @Override
+    public Map<String, List<RawAnnotation>> read(DataInput in) throws IOException {
+      int size = DataInputOutputUtil.readINT(in);
+      Map<String, List<RawAnnotation>> result = new LinkedHashMap<>(size);
+      for (int i = 0; i < size; i++) {
+        String externalName = IOUtil.readUTF(in);
+        int count = DataInputOutputUtil.readINT(in);
+        List<RawAnnotation> annotations = new SmartList<>();
+        for (int j = 0; j < count; j++) {
+          annotations.add(new RawAnnotation(IOUtil.readUTF(in), IOUtil.readUTF(in)));
+        }
+        result.put(externalName, annotations);
+      }
+      return result;
+    }
+  }
+
+  private static class DataParsingSaxHandler extends DefaultHandler {
+    private final Map<String, List<RawAnnotation>> myData = new LinkedHashMap<>();
 
     private String myExternalName = null;
     private String myAnnotationFqn = null;
     private StringBuilder myArguments = null;
 
-    private DataParsingSaxHandler(PsiFile file) {
-      myFile = file;
-    }
-
     @Override
     public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
       if ("item".equals(qName)) {
@@ -474,26 +556,14 @@ public abstract class BaseExternalAnnotationsManager extends ExternalAnnotations
       if ("item".equals(qName)) {
         myExternalName = null;
       } else if ("annotation".equals(qName) && myExternalName != null && myAnnotationFqn != null) {
-        String argumentsString = myArguments.length() == 0 ? "" : intern(myArguments.toString());
-        for (AnnotationData existingData : myData.get(myExternalName)) {
-          if (existingData.myFqName.equals(myAnnotationFqn)) {
-            duplicateError(myFile, myExternalName, "Duplicate annotation '" + myAnnotationFqn + "'");
-          }
-        }
-
-        AnnotationData data = new AnnotationData(myAnnotationFqn, argumentsString);
-        myData.add(myExternalName, internAnnotationData(data));
+        myData.computeIfAbsent(myExternalName, __ -> new SmartList<>()).add(new RawAnnotation(myAnnotationFqn, myArguments.toString()));
 
         myAnnotationFqn = null;
         myArguments = null;
       }
     }
 
-    public MostlySingularMultiMap<String, AnnotationData> getResult() {
-      if (myData.isEmpty()) {
-        return MostlySingularMultiMap.emptyMap();
-      }
-      myData.compact();
+    public Map<String, List<RawAnnotation>> getResult() {
       return myData;
     }
   }
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.lexer;
+
+import com.intellij.java.language.LanguageLevel;
+import com.intellij.java.language.psi.JavaTokenType;
+import consulo.language.ast.IElementType;
+import org.jspecify.annotations.Nullable;
+
+import static com.intellij.java.language.psi.PsiKeyword.*;
+
+/**
+ * Perfect hash table of java keywords and soft keywords, looked up directly over a char buffer without allocations.
+ * <p>
+ * The hash uses the length, the first two and the last two characters of a word, the multiplier is the smallest odd one
+ * for which no two keywords share a slot; it must be searched again when keywords are added.
+ * A lookup costs one hash computation and one comparison with the keyword in the slot.
+ */
+final class JavaKeywordTable {
+  static final int MIN_LENGTH = 2;
+  static final int MAX_LENGTH = 12;
+
+  static final byte IDENTIFIER_START = 1;
+  static final byte IDENTIFIER_PART = 2;
+  // classes of ASCII characters, same as Character.isJavaIdentifierStart/Part used by the flex lexer
+  static final byte[] ASCII_CLASSES = new byte[128];
+
+  private static final int BITS = 9;
+  static final int MULTIPLIER = 8559;
+  private static final Entry[] ENTRIES;
+  private static final Entry[] TABLE = new Entry[1 << BITS];
+
+  static {
+    for (char c = 0; c < ASCII_CLASSES.length; c++) {
+      ASCII_CLASSES[c] = (byte)((Character.isJavaIdentifierStart(c) ? IDENTIFIER_START : 0) |
+                                (Character.isJavaIdentifierPart(c) ? IDENTIFIER_PART : 0));
+    }
+
+    ENTRIES = new Entry[]{
+      new Entry(ABSTRACT, JavaTokenType.ABSTRACT_KEYWORD),
+      new Entry(BOOLEAN, JavaTokenType.BOOLEAN_KEYWORD),
+      new Entry(BREAK, JavaTokenType.BREAK_KEYWORD),
+      new Entry(BYTE, JavaTokenType.BYTE_KEYWORD),
+      new Entry(CASE, JavaTokenType.CASE_KEYWORD),
+      new Entry(CATCH, JavaTokenType.CATCH_KEYWORD),
+      new Entry(CHAR, JavaTokenType.CHAR_KEYWORD),
+      new Entry(CLASS, JavaTokenType.CLASS_KEYWORD),
+      new Entry(CONST, JavaTokenType.CONST_KEYWORD),
+      new Entry(CONTINUE, JavaTokenType.CONTINUE_KEYWORD),
+      new Entry(DEFAULT, JavaTokenType.DEFAULT_KEYWORD),
+      new Entry(DO, JavaTokenType.DO_KEYWORD),
+      new Entry(DOUBLE, JavaTokenType.DOUBLE_KEYWORD),
+      new Entry(ELSE, JavaTokenType.ELSE_KEYWORD),
+      new Entry(EXTENDS, JavaTokenType.EXTENDS_KEYWORD),
+      new Entry(FINAL, JavaTokenType.FINAL_KEYWORD),
+      new Entry(FINALLY, JavaTokenType.FINALLY_KEYWORD),
+      new Entry(FLOAT, JavaTokenType.FLOAT_KEYWORD),
+      new Entry(FOR, JavaTokenType.FOR_KEYWORD),
+      new Entry(GOTO, JavaTokenType.GOTO_KEYWORD),
+      new Entry(IF, JavaTokenType.IF_KEYWORD),
+      new Entry(IMPLEMENTS, JavaTokenType.IMPLEMENTS_KEYWORD),
+      new Entry(IMPORT, JavaTokenType.IMPORT_KEYWORD),
+      new Entry(INSTANCEOF, JavaTokenType.INSTANCEOF_KEYWORD),
+      new Entry(INT, JavaTokenType.INT_KEYWORD),
+      new Entry(INTERFACE, JavaTokenType.INTERFACE_KEYWORD),
+      new Entry(LONG, JavaTokenType.LONG_KEYWORD),
+      new Entry(NATIVE, JavaTokenType.NATIVE_KEYWORD),
+      new Entry(NEW, JavaTokenType.NEW_KEYWORD),
+      new Entry(PACKAGE, JavaTokenType.PACKAGE_KEYWORD),
+      new Entry(PRIVATE, JavaTokenType.PRIVATE_KEYWORD),
+      new Entry(PROTECTED, JavaTokenType.PROTECTED_KEYWORD),
+      new Entry(PUBLIC, JavaTokenType.PUBLIC_KEYWORD),
+      new Entry(RETURN, JavaTokenType.RETURN_KEYWORD),
+      new Entry(SHORT, JavaTokenType.SHORT_KEYWORD),
+      new Entry(STATIC, JavaTokenType.STATIC_KEYWORD),
+      new Entry(STRICTFP, JavaTokenType.STRICTFP_KEYWORD),
+      new Entry(SUPER, JavaTokenType.SUPER_KEYWORD),
+      new Entry(SWITCH, JavaTokenType.SWITCH_KEYWORD),
+      new Entry(SYNCHRONIZED, JavaTokenType.SYNCHRONIZED_KEYWORD),
+      new Entry(THIS, JavaTokenType.THIS_KEYWORD),
+      new Entry(THROW, JavaTokenType.THROW_KEYWORD),
+      new Entry(THROWS, JavaTokenType.THROWS_KEYWORD),
+      new Entry(TRANSIENT, JavaTokenType.TRANSIENT_KEYWORD),
+      new Entry(TRY, JavaTokenType.TRY_KEYWORD),
+      new Entry(VOID, JavaTokenType.VOID_KEYWORD),
+      new Entry(VOLATILE, JavaTokenType.VOLATILE_KEYWORD),
+      new Entry(WHILE, JavaTokenType.WHILE_KEYWORD),
+      new Entry(TRUE, JavaTokenType.TRUE_KEYWORD),
+      new Entry(FALSE, JavaTokenType.FALSE_KEYWORD),
+      new Entry(NULL, JavaTokenType.NULL_KEYWORD),
+      new Entry(ASSERT, JavaTokenType.ASSERT_KEYWORD, LanguageLevel.JDK_1_4, false),
+      new Entry(ENUM, JavaTokenType.ENUM_KEYWORD, LanguageLevel.JDK_1_5, false),
+      // not produced by the lexer, a keyword for isKeyword() only
+      new Entry(NON_SEALED, null, null, false),
+
+      new Entry(OPEN, null, LanguageLevel.JDK_1_9, true),
+      new Entry(MODULE, null, LanguageLevel.JDK_1_9, true),
+      new Entry(REQUIRES, null, LanguageLevel.JDK_1_9, true),
+      new Entry(EXPORTS, null, LanguageLevel.JDK_1_9, true),
+      new Entry(OPENS, null, LanguageLevel.JDK_1_9, true),
+      new Entry(USES, null, LanguageLevel.JDK_1_9, true),
+      new Entry(PROVIDES, null, LanguageLevel.JDK_1_9, true),
+      new Entry(TRANSITIVE, null, LanguageLevel.JDK_1_9, true),
+      new Entry(TO, null, LanguageLevel.JDK_1_9, true),
+      new Entry(WITH, null, LanguageLevel.JDK_1_9, true),
+      new Entry(VAR, null, LanguageLevel.JDK_10, true),
+      new Entry(RECORD, null, LanguageLevel.JDK_16, true),
+      new Entry(YIELD, null, LanguageLevel.JDK_14, true),
+      new Entry(SEALED, null, LanguageLevel.JDK_17, true),
+      new Entry(PERMITS, null, LanguageLevel.JDK_17, true),
+      new Entry(WHEN, null, LanguageLevel.JDK_20, true),
+    };
+
+    if (!fill(TABLE, MULTIPLIER)) {
+      throw new IllegalStateException("Keywords collide in the hash table, search for a new multiplier");
+    }
+  }
+
+  private JavaKeywordTable() {
+  }
+
+  /**
+   * @return true if no two keywords share a slot of the table with the multiplier
+   */
+  static boolean isPerfect(int multiplier) {
+    return fill(new Entry[TABLE.length], multiplier);
+  }
+
+  private static boolean fill(Entry[] table, int multiplier) {
+    for (Entry entry : ENTRIES) {
+      char[] name = entry.name;
+      int slot = slot(hash(name[0], name[1], name[name.length - 2], name[name.length - 1], name.length), multiplier);
+      if (table[slot] != null) {
+        return false;
+      }
+      table[slot] = entry;
+    }
+    return true;
+  }
+
+  private static int hash(char first, char second, char beforeLast, char last, int length) {
+    return (((first * 31 + second) * 31 + beforeLast) * 31 + last) * 31 + length;
+  }
+
+  private static int slot(int hash, int multiplier) {
+    return (hash * multiplier) >>> (32 - BITS);
+  }
+
+  @Nullable
+  static Entry find(char[] buffer, int start, int end) {
+    int length = end - start;
+    if (length < MIN_LENGTH || length > MAX_LENGTH) {
+      return null;
+    }
+    Entry entry = TABLE[slot(hash(buffer[start], buffer[start + 1], buffer[end - 2], buffer[end - 1], length), MULTIPLIER)];
+    if (entry == null || entry.name.length != length) {
+      return null;
+    }
+    char[] name = entry.name;
+    for (int i = 0; i < length; i++) {
+      if (name[i] != buffer[start + i]) {
+        return null;
+      }
+    }
+    return entry;
+  }
+
+  @Nullable
+  static Entry find(CharSequence buffer, int start, int end) {
+    int length = end - start;
+    if (length < MIN_LENGTH || length > MAX_LENGTH) {
+      return null;
+    }
+    Entry entry = TABLE[slot(hash(buffer.charAt(start), buffer.charAt(start + 1), buffer.charAt(end - 2), buffer.charAt(end - 1), length),
+                             MULTIPLIER)];
+    if (entry == null || entry.name.length != length) {
+      return null;
+    }
+    char[] name = entry.name;
+    for (int i = 0; i < length; i++) {
+      if (name[i] != buffer.charAt(start + i)) {
+        return null;
+      }
+    }
+    return entry;
+  }
+
+  static final class Entry {
+    final char[] name;
+    // null for keywords not produced by the lexer
+    @Nullable final IElementType tokenType;
+    // null if a keyword at all language levels
+    @Nullable final LanguageLevel level;
+    final boolean soft;
+
+    Entry(String name, IElementType tokenType) {
+      this(name, tokenType, null, false);
+    }
+
+    Entry(String name, @Nullable IElementType tokenType, @Nullable LanguageLevel level, boolean soft) {
+      this.name = name.toCharArray();
+      this.tokenType = tokenType;
+      this.level = level;
+      this.soft = soft;
+    }
+
+    boolean isAvailable(LanguageLevel languageLevel) {
+      return level == null || languageLevel.isAtLeast(level);
+    }
+  }
+}
@@ -7,46 +7,23 @@ import com.intellij.java.language.psi.JavaTokenType;
 import consulo.language.ast.IElementType;
 import consulo.language.ast.TokenType;
 import consulo.language.lexer.LexerBase;
-import consulo.util.collection.CharSequenceHashingStrategy;
-import consulo.util.collection.Sets;
 import consulo.util.lang.CharArrayUtil;
 
 import org.jspecify.annotations.Nullable;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
-
-import static com.intellij.java.language.psi.PsiKeyword.*;
 
 public final class JavaLexer extends LexerBase {
-  private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
-    ABSTRACT, BOOLEAN, BREAK, BYTE, CASE, CATCH, CHAR, CLASS, CONST, CONTINUE, DEFAULT, DO, DOUBLE, ELSE, EXTENDS, FINAL, FINALLY,
-    FLOAT, FOR, GOTO, IF, IMPLEMENTS, IMPORT, INSTANCEOF, INT, INTERFACE, LONG, NATIVE, NEW, PACKAGE, PRIVATE, PROTECTED, PUBLIC,
-    RETURN, SHORT, STATIC, STRICTFP, SUPER, SWITCH, SYNCHRONIZED, THIS, THROW, THROWS, TRANSIENT, TRY, VOID, VOLATILE, WHILE,
-    TRUE, FALSE, NULL, NON_SEALED));
-
-  private static final Set<CharSequence> JAVA9_KEYWORDS = Sets.newHashSet(CharSequenceHashingStrategy.CASE_SENSITIVE);
-
-  static {
-    JAVA9_KEYWORDS.addAll(Set.of(OPEN, MODULE, REQUIRES, EXPORTS, OPENS, USES, PROVIDES, TRANSITIVE, TO, WITH));
-  }
-
   public static boolean isKeyword(String id, LanguageLevel level) {
-    return KEYWORDS.contains(id) ||
-      level.isAtLeast(LanguageLevel.JDK_1_4) && ASSERT.equals(id) ||
-      level.isAtLeast(LanguageLevel.JDK_1_5) && ENUM.equals(id);
+    JavaKeywordTable.Entry entry = JavaKeywordTable.find(id, 0, id.length());
+    return entry != null && !entry.soft && entry.isAvailable(level);
   }
 
   public static boolean isSoftKeyword(CharSequence id, LanguageLevel level) {
-    return level.isAtLeast(LanguageLevel.JDK_1_9) && JAVA9_KEYWORDS.contains(id) ||
-      level.isAtLeast(LanguageLevel.JDK_10) && VAR.contentEquals(id) ||
-      level.isAtLeast(LanguageLevel.JDK_16) && RECORD.contentEquals(id) ||
-      level.isAtLeast(LanguageLevel.JDK_14) && YIELD.contentEquals(id) ||
-      level.isAtLeast(LanguageLevel.JDK_17) && (SEALED.contentEquals(id) || PERMITS.contentEquals(id)) ||
-      level.isAtLeast(LanguageLevel.JDK_20) && WHEN.contentEquals(id);
+    JavaKeywordTable.Entry entry = JavaKeywordTable.find(id, 0, id.length());
+    return entry != null && entry.soft && entry.isAvailable(level);
   }
 
+  private final LanguageLevel myLevel;
   private final _JavaLexer myFlexLexer;
   private CharSequence myBuffer;
   @Nullable
@@ -57,6 +34,7 @@ public final class JavaLexer extends LexerBase {
   private IElementType myTokenType;
 
   public JavaLexer(LanguageLevel level) {
+    myLevel = level;
     myFlexLexer = new _JavaLexer(level);
   }
 
@@ -178,7 +156,12 @@ public final class JavaLexer extends LexerBase {
         break;
 
       default:
-        flexLocateToken();
+        if (c < 128 && (JavaKeywordTable.ASCII_CLASSES[c] & JavaKeywordTable.IDENTIFIER_START) != 0) {
+          locateIdentifierOrKeyword();
+        }
+        else {
+          flexLocateToken();
+        }
     }
 
     if (myTokenEndOffset > myBufferEndOffset) {
@@ -205,6 +188,30 @@ public final class JavaLexer extends LexerBase {
     return pos;
   }
 
+  /**
+   * Scans ASCII identifiers and keywords without the flex lexer, falls back to it when a non-ASCII character is met
+   */
+  private void locateIdentifierOrKeyword() {
+    int pos = myBufferIndex + 1;
+    while (pos < myBufferEndOffset) {
+      char c = charAt(pos);
+      if (c >= 128) {
+        flexLocateToken();
+        return;
+      }
+      if ((JavaKeywordTable.ASCII_CLASSES[c] & JavaKeywordTable.IDENTIFIER_PART) == 0) {
+        break;
+      }
+      pos++;
+    }
+
+    JavaKeywordTable.Entry keyword = myBufferArray != null
+                                     ? JavaKeywordTable.find(myBufferArray, myBufferIndex, pos)
+                                     : JavaKeywordTable.find(myBuffer, myBufferIndex, pos);
+    myTokenType = keyword != null && keyword.tokenType != null && keyword.isAvailable(myLevel) ? keyword.tokenType : JavaTokenType.IDENTIFIER;
+    myTokenEndOffset = pos;
+  }
+
   private void flexLocateToken() {
     try {
       myFlexLexer.goTo(myBufferIndex);
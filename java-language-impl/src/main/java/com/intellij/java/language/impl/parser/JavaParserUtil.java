@@ -13,6 +13,7 @@ import com.intellij.java.language.psi.JavaTokenType;
 import com.intellij.java.language.psi.util.PsiUtil;
 import consulo.language.Language;
 import consulo.language.ast.*;
+import consulo.language.impl.ast.TreeElement;
 import consulo.language.impl.ast.TreeUtil;
 import consulo.language.lexer.Lexer;
 import consulo.language.parser.*;
@@ -207,6 +208,89 @@ public class JavaParserUtil {
     return builder.getTreeBuilt().getFirstChildNode();
   }
 
+  /**
+   * Parses {@code text} outside of any file as a single element of {@code type}. Used to reparse an element
+   * which is not a chameleon on its own, so lazy code blocks inside the result are left collapsed.
+   *
+   * @return the detached element or {@code null} if the text is not exactly one error-free element of {@code type}
+   */
+  @Nullable
+  public static ASTNode parseReparseableElement(CharSequence text, IElementType type, LanguageLevel level, ParserWrapper wrapper) {
+    ParserDefinition definition = ParserDefinition.forLanguage(JavaLanguage.INSTANCE);
+    PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(definition, new JavaLexer(level), level.toLangVersion(), text);
+    setLanguageLevel(builder, level);
+
+    PsiBuilder.Marker root = builder.mark();
+    wrapper.parse(builder);
+    boolean consumedAll = builder.eof();
+    while (!builder.eof()) {
+      builder.advanceLexer();
+    }
+    root.done(JavaElementType.DUMMY_ELEMENT);
+    if (!consumedAll) {
+      return null;
+    }
+
+    ASTNode element = builder.getTreeBuilt().getFirstChildNode();
+    if (element == null || element.getElementType() != type || element.getTreeNext() != null || hasErrorElements(element)) {
+      return null;
+    }
+    ((TreeElement)element).rawRemove();
+    return element;
+  }
+
+  /**
+   * Checks that {@code text} can replace an element of {@code type} under {@code parent} without reparsing the parent.
+   * The replacement is built by {@link #parseReparseableElement} at the highest language level, so the text must
+   * parse the same way at the language level of the file.
+   */
+  public static boolean isReparseableElement(@Nullable ASTNode parent, CharSequence text, IElementType type, ParserWrapper wrapper) {
+    LanguageLevel level = parent != null ? PsiUtil.getLanguageLevel(parent.getPsi()) : LanguageLevel.HIGHEST;
+    ASTNode element = parseReparseableElement(text, type, level, wrapper);
+    if (element == null) {
+      return false;
+    }
+    if (level == LanguageLevel.HIGHEST) {
+      return true;
+    }
+    ASTNode highest = parseReparseableElement(text, type, LanguageLevel.HIGHEST, wrapper);
+    return highest != null && isSameStructure(element, highest);
+  }
+
+  private static boolean isSameStructure(ASTNode node1, ASTNode node2) {
+    if (node1.getElementType() != node2.getElementType() || node1.getTextLength() != node2.getTextLength()) {
+      return false;
+    }
+    if (node1.getElementType() instanceof ILazyParseableElementType) {
+      return true;
+    }
+    ASTNode child1 = node1.getFirstChildNode();
+    ASTNode child2 = node2.getFirstChildNode();
+    while (child1 != null && child2 != null) {
+      if (!isSameStructure(child1, child2)) {
+        return false;
+      }
+      child1 = child1.getTreeNext();
+      child2 = child2.getTreeNext();
+    }
+    return child1 == null && child2 == null;
+  }
+
+  private static boolean hasErrorElements(ASTNode node) {
+    if (node.getElementType() == TokenType.ERROR_ELEMENT) {
+      return true;
+    }
+    if (node.getElementType() instanceof ILazyParseableElementType) {
+      return false;
+    }
+    for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+      if (hasErrorElements(child)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public static void done(final PsiBuilder.Marker marker, final IElementType type) {
     marker.done(type);
     final WhitespacesAndCommentsBinder left = PRECEDING_COMMENT_SET.contains(type) ? PRECEDING_COMMENT_BINDER : null;
@@ -1,18 +1,18 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package com.intellij.java.language.impl.psi.controlFlow;
 
+import com.intellij.java.language.impl.psi.impl.source.resolve.JavaResolveCache;
+import com.intellij.java.language.impl.psi.util.CacheHitCounter;
 import consulo.annotation.component.ComponentScope;
 import consulo.annotation.component.ServiceAPI;
 import consulo.annotation.component.ServiceImpl;
-import consulo.disposer.Disposable;
-import consulo.language.psi.AnyPsiChangeListener;
 import consulo.language.psi.PsiElement;
+import consulo.logging.Logger;
 import consulo.project.Project;
 import consulo.util.collection.ConcurrentList;
 import consulo.util.collection.Lists;
 import consulo.util.collection.Maps;
 import consulo.util.dataholder.NotNullLazyKey;
-import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 import java.util.Map;
@@ -20,7 +20,9 @@ import java.util.Map;
 @Singleton
 @ServiceAPI(ComponentScope.PROJECT)
 @ServiceImpl
-public final class ControlFlowFactory implements Disposable {
+public final class ControlFlowFactory {
+  private static final Logger LOG = Logger.getInstance(ControlFlowFactory.class);
+
   // psiElements hold weakly, controlFlows softly
   private final Map<PsiElement, ConcurrentList<ControlFlowContext>> cachedFlows = Maps.newConcurrentWeakKeySoftValueHashMap();
 
@@ -30,20 +32,10 @@ public final class ControlFlowFactory implements Disposable {
     return INSTANCE_KEY.getValue(project);
   }
 
-  @Inject
-  public ControlFlowFactory(Project project) {
-    project.getMessageBus().connect(this).subscribe(AnyPsiChangeListener.class, new AnyPsiChangeListener() {
-      @Override
-      public void beforePsiChanged(boolean isPhysical) {
-        if (isPhysical) {
-          clearCache();
-        }
-      }
-    });
-  }
+  private final CacheHitCounter myCounter = new CacheHitCounter("Control flows", LOG);
 
-  private void clearCache() {
-    cachedFlows.clear();
+  public CacheHitCounter getCacheCounter() {
+    return myCounter;
   }
 
   void registerSubRange(final PsiElement codeFragment,
@@ -136,13 +128,19 @@ public final class ControlFlowFactory implements Disposable {
     if (!element.isPhysical()) {
       return new ControlFlowAnalyzer(element, policy, options).buildControlFlow();
     }
-    final long modificationCount = element.getManager().getModificationTracker().getModificationCount();
+    // flows are not dropped on every change in the project, only when their own file or the code structure is changed
+    final long modificationCount = JavaResolveCache.getFileModificationStamp(element);
     ConcurrentList<ControlFlowContext> cached = getOrCreateCachedFlowsForElement(element);
     for (ControlFlowContext context : cached) {
       if (context.isFor(policy, options, modificationCount)) {
+        myCounter.hit();
         return context.controlFlow;
       }
+      if (context.modificationCount != modificationCount) {
+        cached.remove(context);
+      }
     }
+    myCounter.miss();
     ControlFlow controlFlow = new ControlFlowAnalyzer(element, policy, options).buildControlFlow();
     ControlFlowContext context = createContext(options, policy, controlFlow, modificationCount);
     cached.addIfAbsent(context);
@@ -160,7 +158,7 @@ public final class ControlFlowFactory implements Disposable {
                                    ControlFlow flow,
                                    ControlFlowOptions options,
                                    ControlFlowPolicy policy) {
-    final long modificationCount = element.getManager().getModificationTracker().getModificationCount();
+    final long modificationCount = JavaResolveCache.getFileModificationStamp(element);
     ControlFlowContext controlFlowContext = createContext(options, policy, flow, modificationCount);
 
     ConcurrentList<ControlFlowContext> cached = getOrCreateCachedFlowsForElement(element);
@@ -170,10 +168,5 @@ public final class ControlFlowFactory implements Disposable {
   private ConcurrentList<ControlFlowContext> getOrCreateCachedFlowsForElement(PsiElement element) {
     return cachedFlows.computeIfAbsent(element, __ -> Lists.newLockFreeCopyOnWriteList());
   }
-
-  @Override
-  public void dispose() {
-
-  }
 }
 
@@ -35,6 +35,7 @@ import com.intellij.java.language.psi.util.PsiUtil;
 import com.intellij.java.language.psi.util.TypeConversionUtil;
 import consulo.application.progress.ProgressIndicatorProvider;
 import consulo.application.util.*;
+import consulo.component.util.ModificationTracker;
 import consulo.content.scope.SearchScope;
 import consulo.language.content.FileIndexFacade;
 import consulo.language.impl.psi.ResolveScopeManager;
@@ -46,6 +47,8 @@ import consulo.language.psi.scope.LocalSearchScope;
 import consulo.language.psi.stub.StubElement;
 import consulo.language.util.IncorrectOperationException;
 import consulo.logging.Logger;
+import consulo.project.Project;
+import consulo.project.content.ProjectRootModificationTracker;
 import consulo.util.collection.ContainerUtil;
 import consulo.util.collection.SmartList;
 import consulo.util.dataholder.Key;
@@ -392,10 +395,31 @@ public class PsiClassImplUtil {
         @Override
         public CachedValueProvider.Result<Map<GlobalSearchScope, MembersMap>> compute(final PsiClass myClass) {
             final Map<GlobalSearchScope, MembersMap> map = ConcurrentFactoryMap.createMap(scope -> new MembersMap(myClass, scope));
-            return CachedValueProvider.Result.create(map, PsiModificationTracker.MODIFICATION_COUNT);
+            return CachedValueProvider.Result.create(map, getMembersDependencies(myClass));
         }
     }
 
+    /**
+     * Members of a compiled class change only with its roots.
+     * For a source class typing inside code blocks of other files doesn't affect its members (and the members of its supertypes),
+     * so the own file (local and anonymous classes live inside code blocks) and the out-of-code-block tracker are enough.
+     */
+    public static Object[] getMembersDependencies(PsiClass aClass) {
+        Project project = aClass.getProject();
+        PsiFile file = aClass.getContainingFile();
+        if (aClass instanceof PsiCompiledElement) {
+            return file == null
+                ? new Object[]{ProjectRootModificationTracker.getInstance(project)}
+                : new Object[]{ProjectRootModificationTracker.getInstance(project), file};
+        }
+        if (file == null || !aClass.isPhysical()) {
+            return new Object[]{PsiModificationTracker.MODIFICATION_COUNT};
+        }
+        PsiModificationTracker tracker = PsiManager.getInstance(project).getModificationTracker();
+        ModificationTracker outOfCodeBlock = tracker::getOutOfCodeBlockModificationCount;
+        return new Object[]{file, outOfCodeBlock, ProjectRootModificationTracker.getInstance(project)};
+    }
+
     public static boolean processDeclarationsInClass(PsiClass aClass,
                                                      final PsiScopeProcessor processor,
                                                      ResolveState state,
@@ -10,6 +10,7 @@ import consulo.language.ast.*;
 import consulo.language.psi.stub.StubElement;
 import consulo.language.psi.stub.StubInputStream;
 import consulo.language.psi.stub.StubOutputStream;
+import consulo.util.interner.Interner;
 import consulo.util.lang.StringUtil;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
@@ -31,6 +32,9 @@ public /*sealed*/ abstract class TypeInfo {
 
     public static final TypeInfo[] EMPTY_ARRAY = {};
 
+    private static final Interner<String> ourNameInterner = Interner.createWeakInterner();
+    private static final Interner<TypeInfo> ourTypeInterner = Interner.createWeakInterner();
+
     private static final String[] ourIndexFrequentType;
     private static final Object2IntMap<String> ourFrequentTypeIndex;
     private static final int ourTypeLengthMask;
@@ -171,6 +175,16 @@ public /*sealed*/ abstract class TypeInfo {
             return myChild;
         }
 
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof DerivedTypeInfo info && sameKindAndAnnotations(info) && myChild.equals(info.myChild);
+        }
+
+        @Override
+        public int hashCode() {
+            return getKind().hashCode() * 31 + myChild.hashCode();
+        }
+
         @Override
         public TypeInfo withEllipsis() {
             switch (getKind()) {
@@ -314,6 +328,20 @@ public /*sealed*/ abstract class TypeInfo {
             }
         }
 
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RefTypeInfo info &&
+                sameKindAndAnnotations(info) &&
+                myName.equals(info.myName) &&
+                Objects.equals(myOuter, info.myOuter) &&
+                Arrays.equals(myComponents, info.myComponents);
+        }
+
+        @Override
+        public int hashCode() {
+            return (myName.hashCode() * 31 + Objects.hashCode(myOuter)) * 31 + Arrays.hashCode(myComponents);
+        }
+
         String jvmName() {
             return myOuter == null ? myName.replace('.', '/') : myOuter.jvmName() + "$" + myName;
         }
@@ -362,12 +390,30 @@ public /*sealed*/ abstract class TypeInfo {
                 throw new IllegalArgumentException(kind.toString());
             }
         }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SimpleTypeInfo info && sameKindAndAnnotations(info);
+        }
+
+        @Override
+        public int hashCode() {
+            return getKind().hashCode();
+        }
     }
 
     private TypeInfo(TypeKind kind) {
         this.kind = kind;
     }
 
+    /**
+     * Type annotations are compared by identity, so only types without annotations
+     * (sharing {@link TypeAnnotationContainer#EMPTY}) are ever equal to another instance.
+     */
+    final boolean sameKindAndAnnotations(TypeInfo other) {
+        return kind == other.kind && getTypeAnnotations() == other.getTypeAnnotations();
+    }
+
     String text(boolean isShort) {
         return isShort && kind.text == null ? "" : kind.text;
     }
@@ -745,20 +791,20 @@ public /*sealed*/ abstract class TypeInfo {
         RefTypeInfo outer = null;
         switch (kind) {
             case REF:
-                info = new RefTypeInfo(requireNonNull(record.readNameString()));
+                info = new RefTypeInfo(readName(record));
                 break;
             case INNER_SIMPLE:
-                outer = new RefTypeInfo(requireNonNull(record.readNameString()));
-                info = new RefTypeInfo(requireNonNull(record.readNameString()), outer);
+                outer = new RefTypeInfo(readName(record));
+                info = new RefTypeInfo(readName(record), outer);
                 break;
             case INNER:
                 outer = (RefTypeInfo) readTYPE(record);
-                info = new RefTypeInfo(requireNonNull(record.readNameString()), outer);
+                info = new RefTypeInfo(readName(record), outer);
                 break;
             case INNER_GENERIC:
                 outer = (RefTypeInfo) readTYPE(record);
             case GENERIC:
-                String name = requireNonNull(record.readNameString());
+                String name = readName(record);
                 byte count = record.readByte();
                 TypeInfo[] components = new TypeInfo[count];
                 for (int i = 0; i < count; i++) {
@@ -775,8 +821,24 @@ public /*sealed*/ abstract class TypeInfo {
             default:
                 info = kind.isReference() ? new RefTypeInfo(requireNonNull(kind.text)) : new SimpleTypeInfo(kind);
         }
-        info.setTypeAnnotations(hasTypeAnnotations ? ExplicitTypeAnnotationContainer.readTypeAnnotations(record) : TypeAnnotationContainer.EMPTY);
-        return info;
+        if (hasTypeAnnotations) {
+            info.setTypeAnnotations(ExplicitTypeAnnotationContainer.readTypeAnnotations(record));
+            return info;
+        }
+        info.setTypeAnnotations(TypeAnnotationContainer.EMPTY);
+        return intern(info);
+    }
+
+    /**
+     * @return the instance shared by the types equal to the given one, which has no type annotations
+     * (types are immutable once their annotations are set)
+     */
+    static TypeInfo intern(TypeInfo info) {
+        return info == SimpleTypeInfo.NULL ? info : ourTypeInterner.intern(info);
+    }
+
+    private static String readName(StubInputStream record) throws IOException {
+        return ourNameInterner.intern(requireNonNull(record.readNameString()));
     }
 
     public static void writeTYPE(StubOutputStream dataStream, TypeInfo typeInfo) throws IOException {
@@ -82,7 +82,7 @@ public class ClassFileStubBuilder implements BinaryFileStubBuilder {
       }
 
       try {
-        PsiFileStub<?> stub = ClsFileImpl.buildFileStub(file, content);
+        PsiFileStub<?> stub = ClsPackageStubBuilder.getInstance(myApplication).buildFileStub(file, content);
         if (stub == null && fileContent.getFileName().indexOf('$') < 0) {
           LOG.info("No stub built for file " + fileContent);
         }
@@ -572,13 +572,35 @@ public class ClsFileImpl extends PsiBinaryFileImpl
 
     @Nullable
     public static PsiJavaFileStub buildFileStub(VirtualFile file, byte[] bytes) throws ClsFormatException {
+        ClassReader reader;
         try {
             if (ClassFileViewProvider.isInnerClass(file, bytes)) {
                 return null;
             }
+            reader = new ClassReader(bytes);
+        }
+        catch (ProcessCanceledException e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new ClsFormatException(file.getPath() + ": " + e.getMessage(), e);
+        }
 
-            ClassReader reader = new ClassReader(bytes);
-            String className = file.getNameWithoutExtension();
+        return buildFileStub(file.getNameWithoutExtension(), reader, new FileContentPair(file, reader), STRATEGY, file.getPath());
+    }
+
+    /**
+     * Builds the stub of a top-level class, looking up its inner classes through the given strategy.
+     */
+    @Nullable
+    static <T> PsiJavaFileStub buildFileStub(
+        String className,
+        ClassReader reader,
+        T source,
+        InnerClassSourceStrategy<T> strategy,
+        String path
+    ) throws ClsFormatException {
+        try {
             String internalName = reader.getClassName();
             boolean module = internalName.equals("module-info") && BitUtil.isSet(reader.getAccess(), Opcodes.ACC_MODULE);
             JavaSdkVersion jdkVersion = ClsParsingUtil.getJdkVersionByBytecode(reader.readUnsignedShort(6));
@@ -597,8 +619,7 @@ public class ClsFileImpl extends PsiBinaryFileImpl
             }
             else {
                 try {
-                    FileContentPair source = new FileContentPair(file, reader);
-                    StubBuildingVisitor<FileContentPair> visitor = new StubBuildingVisitor<>(source, STRATEGY, stub, 0, className);
+                    StubBuildingVisitor<T> visitor = new StubBuildingVisitor<>(source, strategy, stub, 0, className);
                     reader.accept(
                         visitor,
                         EMPTY_ATTRIBUTES,
@@ -610,7 +631,7 @@ public class ClsFileImpl extends PsiBinaryFileImpl
                 }
                 catch (OutOfOrderInnerClassException e) {
                     if (LOG.isTraceEnabled()) {
-                        LOG.trace(file.getPath());
+                        LOG.trace(path);
                     }
                 }
             }
@@ -621,7 +642,7 @@ public class ClsFileImpl extends PsiBinaryFileImpl
             throw e;
         }
         catch (Throwable e) {
-            throw new ClsFormatException(file.getPath() + ": " + e.getMessage(), e);
+            throw new ClsFormatException(path + ": " + e.getMessage(), e);
         }
     }
 
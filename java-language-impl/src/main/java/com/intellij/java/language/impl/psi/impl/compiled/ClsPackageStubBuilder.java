@@ -0,0 +1,408 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.impl.compiled;
+
+import com.intellij.java.language.impl.psi.impl.java.stubs.PsiJavaFileStub;
+import com.intellij.java.language.util.cls.ClsFormatException;
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.application.Application;
+import consulo.application.progress.ProgressManager;
+import consulo.application.util.LowMemoryWatcher;
+import consulo.application.util.concurrent.JobLauncher;
+import consulo.component.ProcessCanceledException;
+import consulo.disposer.Disposable;
+import consulo.internal.org.objectweb.asm.ClassReader;
+import consulo.logging.Logger;
+import consulo.virtualFileSystem.VirtualFile;
+import consulo.virtualFileSystem.archive.ArchiveFileSystem;
+import consulo.virtualFileSystem.event.BulkFileListener;
+import consulo.virtualFileSystem.event.VFileEvent;
+import consulo.virtualFileSystem.util.VirtualFileUtil;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.jspecify.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Jar-level stub building mode for compiled classes.
+ * <p>
+ * Once two top-level classes of the same archive package are requested, as the indexer does when it walks a jar,
+ * all class entries of that package are read from the archive in one pass. The stubs of the remaining top-level
+ * classes are built in parallel, with inner classes looked up in the entries read instead of the VFS, and handed
+ * out to the following requests. A single on-demand request keeps building its stub alone.
+ * <p>
+ * The stubs not handed out yet are bounded by count, the eldest packages are dropped first and their classes are built
+ * one at a time again. Everything cached for a jar is dropped when the jar or a file in it changes.
+ */
+@Singleton
+@ServiceAPI(ComponentScope.APPLICATION)
+@ServiceImpl
+public final class ClsPackageStubBuilder implements Disposable {
+  private static final Logger LOG = Logger.getInstance(ClsPackageStubBuilder.class);
+
+  private static final int MAX_PACKAGES = 8;
+  private static final int MAX_JARS = 2;
+  private static final int MAX_STUBS = 4096;
+
+  private static final InnerClassSourceStrategy<ClassEntry> STRATEGY = new InnerClassSourceStrategy<>() {
+    @Override
+    public @Nullable ClassEntry findInnerClass(String innerName, ClassEntry outerClass) {
+      String name = outerClass.name() + '$' + innerName;
+      byte[] bytes = outerClass.classes().get(name);
+      return bytes != null ? new ClassEntry(name, outerClass.path(), outerClass.classes(), new ClassReader(bytes)) : null;
+    }
+
+    @Override
+    public void accept(ClassEntry innerClass, StubBuildingVisitor<ClassEntry> visitor) {
+      try {
+        innerClass.reader().accept(visitor, ClsFileImpl.EMPTY_ATTRIBUTES, ClassReader.SKIP_FRAMES | ClassReader.SKIP_CODE | ClassReader.VISIT_LOCAL_VARIABLES);
+      }
+      catch (Exception e) {  // workaround for bug in skipping annotations when a first parameter of inner class is dropped (IDEA-204145)
+        if (LOG.isDebugEnabled()) {
+          LOG.debug(innerClass.path(), e);
+        }
+        else {
+          LOG.info(innerClass.path() + ": " + e.getMessage());
+        }
+      }
+    }
+  };
+
+  // "jar!/package/dir/" -> top-level class names requested so far, or the stubs being handed out; guarded by itself
+  private final Map<String, Object> myPackages = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+      return size() > MAX_PACKAGES;
+    }
+  };
+
+  // jar path -> class entry names by directory; guarded by itself
+  private final Map<String, JarIndex> myJars = new LinkedHashMap<>(4, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, JarIndex> eldest) {
+      return size() > MAX_JARS;
+    }
+  };
+
+  public static ClsPackageStubBuilder getInstance(Application application) {
+    return application.getInstance(ClsPackageStubBuilder.class);
+  }
+
+  @Inject
+  public ClsPackageStubBuilder(Application application) {
+    application.getMessageBus().connect(this).subscribe(BulkFileListener.class, new BulkFileListener() {
+      @Override
+      public void after(List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          String path = event.getPath();
+          int separator = path.indexOf("!/");
+          invalidate(separator >= 0 ? path.substring(0, separator) : path);
+        }
+      }
+    });
+    LowMemoryWatcher.register(this::clear, this);
+  }
+
+  @Nullable
+  PsiJavaFileStub buildFileStub(VirtualFile file, byte[] content) throws ClsFormatException {
+    String name = file.getNameWithoutExtension();
+    VirtualFile jar = file.getFileSystem() instanceof ArchiveFileSystem archiveFileSystem ? archiveFileSystem.getLocalVirtualFileFor(file) : null;
+    String directory = jar != null && name.indexOf('$') < 0 ? getEntryDirectory(file) : null;
+    if (directory == null) {
+      return ClsFileImpl.buildFileStub(file, content);
+    }
+
+    String key = jar.getPath() + "!/" + directory;
+    PackageTask task = null;
+    boolean owner = false;
+    synchronized (myPackages) {
+      Object value = myPackages.get(key);
+      if (value instanceof PackageTask packageTask) {
+        task = packageTask;
+      }
+      else {
+        @SuppressWarnings("unchecked") Set<String> requested = value != null ? (Set<String>)value : new HashSet<>();
+        if (requested.isEmpty() || requested.contains(name)) {
+          requested.add(name);
+          myPackages.put(key, requested);
+        }
+        else {
+          requested.add(name);
+          task = new PackageTask(() -> readPackage(jar, directory, requested));
+          myPackages.put(key, task);
+          owner = true;
+        }
+      }
+    }
+    if (task == null) {
+      return ClsFileImpl.buildFileStub(file, content);
+    }
+
+    if (owner) {
+      task.run();
+      trim(key);
+    }
+    PackageStubs stubs = null;
+    try {
+      stubs = task.get();
+    }
+    catch (InterruptedException | ExecutionException e) {
+      if (e.getCause() instanceof ProcessCanceledException pce) {
+        forget(key, task);
+        throw pce;
+      }
+      LOG.debug(key, e);
+    }
+
+    BuiltStub built = stubs != null ? stubs.take(name) : null;
+    if (stubs == null || stubs.isEmpty()) {
+      forget(key, task);
+    }
+    if (built != null && built.crc() == crc(content)) {
+      return built.stub();
+    }
+    return ClsFileImpl.buildFileStub(file, content);
+  }
+
+  private void forget(String key, PackageTask task) {
+    synchronized (myPackages) {
+      myPackages.remove(key, task);
+    }
+  }
+
+  /**
+   * Drops the eldest packages until the stubs not handed out yet fit the bound, keeping the package just read
+   */
+  private void trim(String key) {
+    synchronized (myPackages) {
+      int stubs = getPendingStubCount();
+      for (Iterator<Map.Entry<String, Object>> it = myPackages.entrySet().iterator(); stubs > MAX_STUBS && it.hasNext(); ) {
+        Map.Entry<String, Object> entry = it.next();
+        if (entry.getValue() instanceof PackageTask task && !entry.getKey().equals(key)) {
+          stubs -= task.getPendingStubs();
+          it.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops the packages and the entry names read from the jars at or under the given local path
+   */
+  private void invalidate(String path) {
+    synchronized (myPackages) {
+      myPackages.keySet().removeIf(key -> isAtOrUnder(key, path));
+    }
+    synchronized (myJars) {
+      myJars.keySet().removeIf(key -> isAtOrUnder(key, path));
+    }
+  }
+
+  private static boolean isAtOrUnder(String key, String path) {
+    if (!key.startsWith(path)) {
+      return false;
+    }
+    return key.length() == path.length() || key.charAt(path.length()) == '/' || key.startsWith("!/", path.length());
+  }
+
+  private void clear() {
+    synchronized (myPackages) {
+      myPackages.clear();
+    }
+    synchronized (myJars) {
+      myJars.clear();
+    }
+  }
+
+  @Override
+  public void dispose() {
+    clear();
+  }
+
+  /**
+   * @return the count of the stubs built in package batches which are not handed out yet
+   */
+  int getPendingStubCount() {
+    synchronized (myPackages) {
+      int stubs = 0;
+      for (Object value : myPackages.values()) {
+        if (value instanceof PackageTask task) {
+          stubs += task.getPendingStubs();
+        }
+      }
+      return stubs;
+    }
+  }
+
+  private PackageStubs readPackage(VirtualFile jar, String directory, Set<String> requested) throws IOException {
+    File ioFile = VirtualFileUtil.virtualToIoFile(jar);
+    Map<String, byte[]> classes = new HashMap<>();
+    Map<String, Long> crcs = new HashMap<>();
+    try (ZipFile zip = new ZipFile(ioFile)) {
+      for (String entryName : getJarIndex(jar, zip).getClassEntries(directory)) {
+        ZipEntry entry = zip.getEntry(entryName);
+        if (entry == null) {
+          continue;
+        }
+        String name = entryName.substring(directory.length(), entryName.length() - ".class".length());
+        try (InputStream stream = zip.getInputStream(entry)) {
+          classes.put(name, stream.readAllBytes());
+        }
+        crcs.put(name, entry.getCrc());
+      }
+    }
+
+    List<String> topLevel = new ArrayList<>();
+    for (String name : classes.keySet()) {
+      if (name.indexOf('$') < 0 && !requested.contains(name)) {
+        topLevel.add(name);
+      }
+    }
+    // the rest of a larger package is built one class at a time
+    if (topLevel.size() > MAX_STUBS) {
+      topLevel = topLevel.subList(0, MAX_STUBS);
+    }
+
+    PackageStubs stubs = new PackageStubs();
+    String pathPrefix = jar.getPath() + "!/" + directory;
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(topLevel, ProgressManager.getInstance().getProgressIndicator(), name -> {
+      String path = pathPrefix + name + ".class";
+      try {
+        ClassReader reader = new ClassReader(classes.get(name));
+        PsiJavaFileStub stub = ClsFileImpl.buildFileStub(name, reader, new ClassEntry(name, path, classes, reader), STRATEGY, path);
+        stubs.put(name, new BuiltStub(stub, crcs.get(name)));
+      }
+      catch (ClsFormatException | RuntimeException e) {
+        if (e instanceof ProcessCanceledException) {
+          throw (ProcessCanceledException)e;
+        }
+        // the class is built again on request and reports its problem there
+        LOG.debug(path, e);
+      }
+      return true;
+    });
+    return stubs;
+  }
+
+  private JarIndex getJarIndex(VirtualFile jar, ZipFile zip) {
+    long stamp = jar.getTimeStamp();
+    long length = jar.getLength();
+    synchronized (myJars) {
+      JarIndex index = myJars.get(jar.getPath());
+      if (index != null && index.timeStamp() == stamp && index.length() == length) {
+        return index;
+      }
+    }
+
+    Map<String, List<String>> classesByDirectory = new HashMap<>();
+    Enumeration<? extends ZipEntry> entries = zip.entries();
+    while (entries.hasMoreElements()) {
+      String entryName = entries.nextElement().getName();
+      if (entryName.endsWith(".class")) {
+        String directory = entryName.substring(0, entryName.lastIndexOf('/') + 1);
+        classesByDirectory.computeIfAbsent(directory, k -> new ArrayList<>()).add(entryName);
+      }
+    }
+    JarIndex index = new JarIndex(stamp, length, classesByDirectory);
+    synchronized (myJars) {
+      myJars.put(jar.getPath(), index);
+    }
+    return index;
+  }
+
+  /**
+   * @return the directory of the file inside its archive, like {@code "com/example/"}, or {@code null} for a root
+   */
+  @Nullable
+  private static String getEntryDirectory(VirtualFile file) {
+    StringBuilder directory = new StringBuilder();
+    VirtualFile parent = file.getParent();
+    if (parent == null) {
+      return null;
+    }
+    for (VirtualFile dir = parent; dir.getParent() != null; dir = dir.getParent()) {
+      directory.insert(0, dir.getName() + '/');
+    }
+    return directory.toString();
+  }
+
+  private static long crc(byte[] content) {
+    CRC32 crc = new CRC32();
+    crc.update(content);
+    return crc.getValue();
+  }
+
+  private record ClassEntry(String name, String path, Map<String, byte[]> classes, ClassReader reader) {
+  }
+
+  private record BuiltStub(@Nullable PsiJavaFileStub stub, long crc) {
+  }
+
+  private record JarIndex(long timeStamp, long length, Map<String, List<String>> classesByDirectory) {
+    List<String> getClassEntries(String directory) {
+      return classesByDirectory.getOrDefault(directory, Collections.emptyList());
+    }
+  }
+
+  private static final class PackageTask extends FutureTask<PackageStubs> {
+    PackageTask(Callable<PackageStubs> callable) {
+      super(callable);
+    }
+
+    int getPendingStubs() {
+      if (!isDone()) {
+        return 0;
+      }
+      try {
+        return get().size();
+      }
+      catch (InterruptedException | ExecutionException | CancellationException e) {
+        return 0;
+      }
+    }
+  }
+
+  private static final class PackageStubs {
+    private final Map<String, BuiltStub> myStubs = new ConcurrentHashMap<>();
+
+    void put(String name, BuiltStub stub) {
+      myStubs.put(name, stub);
+    }
+
+    @Nullable
+    BuiltStub take(String name) {
+      return myStubs.remove(name);
+    }
+
+    boolean isEmpty() {
+      return myStubs.isEmpty();
+    }
+
+    int size() {
+      return myStubs.size();
+    }
+  }
+}
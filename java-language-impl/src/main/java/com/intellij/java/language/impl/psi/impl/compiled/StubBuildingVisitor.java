@@ -300,7 +300,7 @@ public class StubBuildingVisitor<T> extends ClassVisitor {
             return null;
         }
         if (myAnnoBuilders == null) {
-            myAnnoBuilders = new HashMap<>();
+            myAnnoBuilders = new IdentityHashMap<>();
         }
         return myAnnoBuilders.computeIfAbsent(info, typeInfo -> new ClsTypeAnnotationCollector(typeInfo, myFirstPassData))
             .collect(typePath, desc);
@@ -742,7 +742,7 @@ public class StubBuildingVisitor<T> extends ClassVisitor {
                 return null;
             }
             if (myAnnoBuilders == null) {
-                myAnnoBuilders = new HashMap<>();
+                myAnnoBuilders = new IdentityHashMap<>();
             }
             return myAnnoBuilders.computeIfAbsent(info, typeInfo -> new ClsTypeAnnotationCollector(typeInfo, myFirstPassData))
                 .collect(typePath, desc);
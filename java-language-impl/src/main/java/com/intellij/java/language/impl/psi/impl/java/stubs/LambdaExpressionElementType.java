@@ -15,6 +15,9 @@
  */
 package com.intellij.java.language.impl.psi.impl.java.stubs;
 
+import com.intellij.java.language.LanguageLevel;
+import com.intellij.java.language.impl.parser.JavaParser;
+import com.intellij.java.language.impl.parser.JavaParserUtil;
 import com.intellij.java.language.impl.psi.impl.cache.RecordUtil;
 import com.intellij.java.language.impl.psi.impl.source.tree.ChildRole;
 import com.intellij.java.language.impl.psi.impl.source.tree.ElementType;
@@ -23,18 +26,49 @@ import com.intellij.java.language.impl.psi.impl.source.tree.JavaSourceUtil;
 import com.intellij.java.language.impl.psi.impl.source.tree.java.PsiLambdaExpressionImpl;
 import com.intellij.java.language.psi.JavaTokenType;
 import com.intellij.java.language.psi.PsiLambdaExpression;
+import consulo.language.Language;
 import consulo.language.ast.*;
 import consulo.language.impl.ast.CompositeElement;
 import consulo.language.impl.ast.TreeElement;
+import consulo.language.parser.PsiBuilder;
+import consulo.language.util.CharTable;
+import consulo.project.Project;
 import consulo.util.lang.ObjectUtil;
+import org.jspecify.annotations.Nullable;
 
 import java.util.List;
 
-public class LambdaExpressionElementType extends FunctionalExpressionElementType<PsiLambdaExpression> {
+/**
+ * Lambda expressions are reparsed on their own, so that an edit inside an expression body does not reparse
+ * the enclosing code block, or the whole class for lambdas in field initializers.
+ */
+public class LambdaExpressionElementType extends FunctionalExpressionElementType<PsiLambdaExpression>
+  implements IReparseableElementTypeBase, ICustomParsingType {
+  private static final JavaParserUtil.ParserWrapper LAMBDA_PARSER = builder -> JavaParser.INSTANCE.getExpressionParser().parse(builder);
+
   public LambdaExpressionElementType() {
     super("LAMBDA_EXPRESSION");
   }
 
+  @Override
+  public boolean isParsable(@Nullable ASTNode parent, CharSequence buffer, Language fileLanguage, Project project) {
+    // a cast in front of the lambda is resolved by the parser from the tokens that follow it
+    return (parent == null || parent.getElementType() != JavaElementType.TYPE_CAST_EXPRESSION) &&
+           JavaParserUtil.isReparseableElement(parent, buffer, this, LAMBDA_PARSER);
+  }
+
+  @Override
+  public ASTNode parse(CharSequence text, CharTable table) {
+    return JavaParserUtil.parseReparseableElement(text, this, LanguageLevel.HIGHEST, LAMBDA_PARSER);
+  }
+
+  @Override
+  public ASTNode parseContents(ASTNode chameleon) {
+    PsiBuilder builder = JavaParserUtil.createBuilder(chameleon);
+    LAMBDA_PARSER.parse(builder);
+    return builder.getTreeBuilt().getFirstChildNode();
+  }
+
   @Override
   public PsiLambdaExpression createPsi(ASTNode node) {
     return new PsiLambdaExpressionImpl(node);
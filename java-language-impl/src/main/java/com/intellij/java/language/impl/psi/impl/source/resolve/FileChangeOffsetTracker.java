@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.impl.source.resolve;
+
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.component.util.ModificationTracker;
+import consulo.disposer.Disposable;
+import consulo.document.util.TextRange;
+import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.PsiManager;
+import consulo.language.psi.event.PsiTreeChangeAdapter;
+import consulo.language.psi.event.PsiTreeChangeEvent;
+import consulo.project.Project;
+import consulo.util.collection.ContainerUtil;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Records start offsets of recent PSI changes per file, so that results computed for a range of a file
+ * can survive edits made after that range.
+ */
+@Singleton
+@ServiceAPI(ComponentScope.PROJECT)
+@ServiceImpl
+public final class FileChangeOffsetTracker implements Disposable {
+  private static final int LOG_SIZE = 256;
+
+  private final Map<PsiFile, ChangeLog> myLogs = ContainerUtil.createConcurrentWeakMap();
+
+  public static FileChangeOffsetTracker getInstance(Project project) {
+    return project.getInstance(FileChangeOffsetTracker.class);
+  }
+
+  @Inject
+  public FileChangeOffsetTracker(Project project) {
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void beforeChildAddition(PsiTreeChangeEvent event) {
+        changed(event, event.getParent(), null);
+      }
+
+      @Override
+      public void beforeChildRemoval(PsiTreeChangeEvent event) {
+        changed(event, event.getParent(), event.getChild());
+      }
+
+      @Override
+      public void beforeChildReplacement(PsiTreeChangeEvent event) {
+        changed(event, event.getParent(), event.getOldChild());
+      }
+
+      @Override
+      public void beforeChildMovement(PsiTreeChangeEvent event) {
+        changed(event, event.getOldParent(), event.getChild());
+        changed(event, event.getNewParent(), null);
+      }
+
+      @Override
+      public void beforeChildrenChange(PsiTreeChangeEvent event) {
+        changed(event, event.getParent(), null);
+      }
+    }, this);
+  }
+
+  /**
+   * Generic events are followed by specific ones. Changes of top level children of the file and of its properties
+   * are out-of-code-block changes, which are tracked by {@link consulo.language.psi.PsiModificationTracker}.
+   */
+  private void changed(PsiTreeChangeEvent event, @Nullable PsiElement parent, @Nullable PsiElement child) {
+    PsiFile file = event.getFile();
+    if (file == null || event.isGenericChange() || parent == null || parent instanceof PsiFile) {
+      return;
+    }
+    TextRange range = child != null && child.isValid() ? child.getTextRange() : null;
+    if (range == null) {
+      range = parent.getTextRange();
+    }
+    myLogs.computeIfAbsent(file, __ -> new ChangeLog()).add(range == null ? 0 : range.getStartOffset());
+  }
+
+  /**
+   * @return a tracker which changes when the file is changed before the given offset,
+   * or which is never changed for non-physical files (they are expected to be tracked by the caller by other means)
+   */
+  public ModificationTracker getChangeBeforeTracker(PsiFile file, int offset) {
+    if (!file.isPhysical()) {
+      return ModificationTracker.NEVER_CHANGED;
+    }
+    ChangeLog log = myLogs.computeIfAbsent(file, __ -> new ChangeLog());
+    return new ChangeBeforeTracker(log, log.getCount(), offset);
+  }
+
+  @Override
+  public void dispose() {
+    myLogs.clear();
+  }
+
+  private static final class ChangeLog {
+    private final int[] myOffsets = new int[LOG_SIZE];
+    private long myCount;
+
+    synchronized void add(int offset) {
+      myOffsets[(int)(myCount % LOG_SIZE)] = offset;
+      myCount++;
+    }
+
+    synchronized long getCount() {
+      return myCount;
+    }
+
+    /**
+     * @return true if a change before the offset happened since the given count, or if the log doesn't reach so far back
+     */
+    synchronized boolean hasChangeBefore(long sinceCount, int offset) {
+      if (myCount - sinceCount > LOG_SIZE) {
+        return true;
+      }
+      for (long i = sinceCount; i < myCount; i++) {
+        if (myOffsets[(int)(i % LOG_SIZE)] < offset) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class ChangeBeforeTracker implements ModificationTracker {
+    private final ChangeLog myLog;
+    private final long mySinceCount;
+    private final int myOffset;
+    private volatile boolean myChanged;
+
+    private ChangeBeforeTracker(ChangeLog log, long sinceCount, int offset) {
+      myLog = log;
+      mySinceCount = sinceCount;
+      myOffset = offset;
+    }
+
+    @Override
+    public long getModificationCount() {
+      if (!myChanged && myLog.hasChangeBefore(mySinceCount, myOffset)) {
+        myChanged = true;
+      }
+      return myChanged ? 1 : 0;
+    }
+  }
+}
@@ -7,6 +7,7 @@ package com.intellij.java.language.impl.psi.impl.source.resolve;
 
 import com.intellij.java.language.impl.psi.impl.source.PsiClassReferenceType;
 import com.intellij.java.language.impl.psi.impl.source.PsiImmediateClassType;
+import com.intellij.java.language.impl.psi.util.CacheHitCounter;
 import com.intellij.java.language.psi.*;
 import com.intellij.java.language.psi.impl.source.resolve.graphInference.PsiPolyExpressionUtil;
 import com.intellij.java.language.psi.infos.MethodCandidateInfo;
@@ -17,13 +18,15 @@ import consulo.annotation.component.ServiceImpl;
 import consulo.application.util.RecursionGuard;
 import consulo.application.util.RecursionManager;
 import consulo.language.psi.AnyPsiChangeListener;
+import consulo.language.psi.PsiElement;
 import consulo.language.psi.PsiFile;
+import consulo.language.psi.PsiManager;
+import consulo.language.psi.PsiModificationTracker;
 import consulo.logging.Logger;
 import consulo.logging.attachment.AttachmentFactory;
 import consulo.project.Project;
 import consulo.util.collection.ContainerUtil;
 import consulo.util.collection.Maps;
-import consulo.util.concurrent.ConcurrencyUtil;
 import consulo.util.dataholder.Key;
 import consulo.util.dataholder.NotNullLazyKey;
 import org.jspecify.annotations.Nullable;
@@ -34,8 +37,10 @@ import jakarta.inject.Singleton;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Singleton
 @ServiceAPI(ComponentScope.PROJECT)
@@ -48,40 +53,92 @@ public class JavaResolveCache {
     return INSTANCE_KEY.getValue(project);
   }
 
-  private final AtomicReference<ConcurrentMap<PsiExpression, PsiType>> myCalculatedTypes = new AtomicReference<>();
-  private final AtomicReference<Map<PsiVariable, Object>> myVarToConstValueMapPhysical = new AtomicReference<>();
-  private final AtomicReference<Map<PsiVariable, Object>> myVarToConstValueMapNonPhysical = new AtomicReference<>();
+  private final Map<PsiFile, Partition<PsiExpression, PsiType>> myCalculatedTypes = ContainerUtil.createConcurrentWeakMap();
+  private final Map<PsiFile, Partition<PsiVariable, Object>> myVarToConstValueMap = ContainerUtil.createConcurrentWeakMap();
+  // for elements without a file
+  private final AtomicReference<Partition<PsiExpression, PsiType>> myCalculatedTypesNoFile = new AtomicReference<>();
+  private final AtomicReference<Partition<PsiVariable, Object>> myVarToConstValueMapNoFile = new AtomicReference<>();
+
+  private final CacheHitCounter myTypeCounter = new CacheHitCounter("Expression types", LOG);
+  private final CacheHitCounter myConstValueCounter = new CacheHitCounter("Constant values", LOG);
+
+  private final PsiModificationTracker myModificationTracker;
+  // any change may affect non-physical copies and code fragments
+  private final AtomicLong myAnyChangeCount = new AtomicLong();
 
   private static final Object NULL = Key.create("NULL");
 
   @Inject
   public JavaResolveCache(Project project) {
+    myModificationTracker = PsiManager.getInstance(project).getModificationTracker();
     project.getMessageBus().connect().subscribe(AnyPsiChangeListener.class, new AnyPsiChangeListener() {
       @Override
       public void beforePsiChanged(boolean isPhysical) {
-        clearCaches(isPhysical);
+        myAnyChangeCount.incrementAndGet();
       }
     });
   }
 
-  private void clearCaches(boolean isPhysical) {
-    myCalculatedTypes.set(null);
-    if (isPhysical) {
-      myVarToConstValueMapPhysical.set(null);
+  /**
+   * Caches are partitioned by containing file. A partition of a physical file is dropped when the file itself is changed,
+   * or when any out-of-code-block change happens (the change may affect files depending on the changed one).
+   * Partitions of non-physical files are dropped on any change.
+   */
+  private long getStamp(@Nullable PsiFile file) {
+    if (file == null || !file.isPhysical()) {
+      return myAnyChangeCount.get();
+    }
+    return file.getModificationStamp() + myModificationTracker.getOutOfCodeBlockModificationCount();
+  }
+
+  /**
+   * @return a stamp which changes when the file of the element is changed or when an out-of-code-block change happens
+   */
+  public static long getFileModificationStamp(PsiElement element) {
+    PsiFile file = element.getContainingFile();
+    PsiModificationTracker tracker = element.getManager().getModificationTracker();
+    return file == null ? tracker.getModificationCount() : file.getModificationStamp() + tracker.getOutOfCodeBlockModificationCount();
+  }
+
+  private <K extends PsiElement, V> ConcurrentMap<K, V> getPartition(K element,
+                                                                    Map<PsiFile, Partition<K, V>> partitions,
+                                                                    AtomicReference<Partition<K, V>> noFilePartition,
+                                                                    Supplier<ConcurrentMap<K, V>> mapFactory) {
+    PsiFile file = element.getContainingFile();
+    long stamp = getStamp(file);
+    Partition<K, V> partition = file == null ? noFilePartition.get() : partitions.get(file);
+    if (partition == null || partition.stamp() != stamp) {
+      Partition<K, V> newPartition = new Partition<>(stamp, mapFactory.get());
+      if (file == null) {
+        noFilePartition.set(newPartition);
+      }
+      else {
+        partitions.put(file, newPartition);
+      }
+      partition = newPartition;
     }
-    myVarToConstValueMapNonPhysical.set(null);
+    return partition.map();
+  }
+
+  public CacheHitCounter getTypeCacheCounter() {
+    return myTypeCounter;
+  }
+
+  public CacheHitCounter getConstantValueCacheCounter() {
+    return myConstValueCounter;
   }
 
   @Nullable
   public <T extends PsiExpression> PsiType getType(T expr, Function<? super T, ? extends PsiType> f) {
-    ConcurrentMap<PsiExpression, PsiType> map = myCalculatedTypes.get();
-    if (map == null) {
-      map = ConcurrencyUtil.cacheOrGet(myCalculatedTypes, Maps.newConcurrentWeakKeySoftValueHashMap());
-    }
+    ConcurrentMap<PsiExpression, PsiType> map = getPartition(expr, myCalculatedTypes, myCalculatedTypesNoFile, Maps::newConcurrentWeakKeySoftValueHashMap);
 
     final boolean prohibitCaching = MethodCandidateInfo.isOverloadCheck() && PsiPolyExpressionUtil.isPolyExpression(expr);
     PsiType type = prohibitCaching ? null : map.get(expr);
-    if (type == null) {
+    if (type != null) {
+      myTypeCounter.hit();
+    }
+    else {
+      myTypeCounter.miss();
       RecursionGuard.StackStamp dStackStamp = RecursionManager.markStack();
       type = f.apply(expr);
       if (prohibitCaching || !dStackStamp.mayCacheNow()) {
@@ -126,27 +183,23 @@ public class JavaResolveCache {
   public Object computeConstantValueWithCaching(PsiVariable variable,
                                                 ConstValueComputer computer,
                                                 Set<PsiVariable> visitedVars) {
-    boolean physical = variable.isPhysical();
-
-    AtomicReference<Map<PsiVariable, Object>> ref = physical ? myVarToConstValueMapPhysical : myVarToConstValueMapNonPhysical;
-    Map<PsiVariable, Object> map = ref.get();
-    if (map == null) {
-      map = ConcurrencyUtil.cacheOrGet(ref, ContainerUtil.createConcurrentWeakMap());
-    }
+    Map<PsiVariable, Object> map = getPartition(variable, myVarToConstValueMap, myVarToConstValueMapNoFile, ContainerUtil::createConcurrentWeakMap);
 
     Object cached = map.get(variable);
-    if (cached == NULL) {
-      return null;
-    }
     if (cached != null) {
-      return cached;
+      myConstValueCounter.hit();
+      return cached == NULL ? null : cached;
     }
+    myConstValueCounter.miss();
 
     Object result = computer.execute(variable, visitedVars);
     map.put(variable, result == null ? NULL : result);
     return result;
   }
 
+  private record Partition<K, V>(long stamp, ConcurrentMap<K, V> map) {
+  }
+
   @FunctionalInterface
   public interface ConstValueComputer {
     Object execute(PsiVariable variable, Set<PsiVariable> visitedVars);
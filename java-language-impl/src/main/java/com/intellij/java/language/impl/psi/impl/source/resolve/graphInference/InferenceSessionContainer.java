@@ -15,6 +15,7 @@
  */
 package com.intellij.java.language.impl.psi.impl.source.resolve.graphInference;
 
+import com.intellij.java.language.impl.psi.impl.source.resolve.FileChangeOffsetTracker;
 import com.intellij.java.language.impl.psi.impl.source.resolve.graphInference.constraints.ExpressionCompatibilityConstraint;
 import com.intellij.java.language.psi.*;
 import com.intellij.java.language.psi.impl.source.resolve.ParameterTypeInferencePolicy;
@@ -24,11 +25,15 @@ import com.intellij.java.language.psi.util.PsiTypesUtil;
 import com.intellij.java.language.psi.util.PsiUtil;
 import consulo.application.util.CachedValueProvider;
 import consulo.application.util.function.Computable;
+import consulo.component.util.ModificationTracker;
 import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.PsiManager;
 import consulo.language.psi.PsiModificationTracker;
 import consulo.language.psi.util.LanguageCachedValueUtil;
 import consulo.language.psi.util.PsiTreeUtil;
 import consulo.logging.Logger;
+import consulo.project.Project;
 import consulo.util.lang.StringUtil;
 import org.jspecify.annotations.Nullable;
 import org.jetbrains.annotations.Contract;
@@ -100,7 +105,7 @@ public class InferenceSessionContainer {
               @Nullable
               @Override
               public Result<InferenceSession> compute() {
-                return new Result<InferenceSession>(startTopLevelInference(topLevelCall, policy), PsiModificationTracker.MODIFICATION_COUNT);
+                return new Result<InferenceSession>(startTopLevelInference(topLevelCall, policy), getTopLevelSessionDependencies(topLevelCall));
               }
             });
 
@@ -138,6 +143,24 @@ public class InferenceSessionContainer {
     return inferenceSession.infer(parameters, arguments, parent);
   }
 
+  /**
+   * Inference of a top level call depends on the signatures it refers to (out-of-code-block changes) and on the code of the file
+   * up to the end of the call (local variables, enclosing lambdas, the call itself). Edits after the call don't affect the result.
+   */
+  static Object[] getTopLevelSessionDependencies(PsiCall topLevelCall) {
+    PsiFile file = topLevelCall.getContainingFile();
+    if (file == null || !file.isPhysical()) {
+      return new Object[]{PsiModificationTracker.MODIFICATION_COUNT};
+    }
+    Project project = file.getProject();
+    PsiModificationTracker tracker = PsiManager.getInstance(project).getModificationTracker();
+    ModificationTracker outOfCodeBlock = tracker::getOutOfCodeBlockModificationCount;
+    return new Object[]{
+      outOfCodeBlock,
+      FileChangeOffsetTracker.getInstance(project).getChangeBeforeTracker(file, topLevelCall.getTextRange().getEndOffset())
+    };
+  }
+
   private static PsiSubstitutor inferNested(final PsiTypeParameter[] typeParameters,
                                             final PsiParameter[] parameters,
                                             final PsiExpression[] arguments,
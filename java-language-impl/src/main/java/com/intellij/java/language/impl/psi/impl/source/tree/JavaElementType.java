@@ -31,6 +31,7 @@ import consulo.language.ast.*;
 import consulo.language.impl.psi.CompositePsiElement;
 import consulo.language.lexer.Lexer;
 import consulo.language.parser.PsiBuilder;
+import consulo.language.util.CharTable;
 import consulo.language.util.FlyweightCapableTreeStructure;
 import consulo.project.Project;
 
@@ -140,7 +141,7 @@ public interface JavaElementType {
   IElementType SWITCH_STATEMENT = new JavaCompositeElementType("SWITCH_STATEMENT", PsiSwitchStatementImpl::new);
   IElementType SWITCH_EXPRESSION = new JavaCompositeElementType("SWITCH_EXPRESSION", PsiSwitchExpressionImpl::new);
   IElementType SWITCH_LABEL_STATEMENT = new JavaCompositeElementType("SWITCH_LABEL_STATEMENT", PsiSwitchLabelStatementImpl::new);
-  IElementType SWITCH_LABELED_RULE = new JavaCompositeElementType("SWITCH_LABELED_RULE", PsiSwitchLabeledRuleStatementImpl::new);
+  IElementType SWITCH_LABELED_RULE = new SwitchLabeledRuleElementType();
   IElementType YIELD_STATEMENT = new JavaCompositeElementType("YIELD_STATEMENT", PsiYieldStatementImpl::new);
   IElementType BREAK_STATEMENT = new JavaCompositeElementType("BREAK_STATEMENT", PsiBreakStatementImpl::new);
   IElementType CONTINUE_STATEMENT = new JavaCompositeElementType("CONTINUE_STATEMENT", PsiContinueStatementImpl::new);
@@ -263,6 +264,34 @@ public interface JavaElementType {
 
   ILazyParseableElementType CODE_BLOCK = new ICodeBlockElementType();
 
+  /**
+   * A switch rule is reparsed on its own, so that an edit inside one arm does not reparse the whole switch body.
+   */
+  class SwitchLabeledRuleElementType extends JavaCompositeElementType implements IReparseableElementTypeBase, ICustomParsingType {
+    private static final JavaParserUtil.ParserWrapper RULE_PARSER = builder -> JavaParser.INSTANCE.getStatementParser().parseStatement(builder);
+
+    private SwitchLabeledRuleElementType() {
+      super("SWITCH_LABELED_RULE", PsiSwitchLabeledRuleStatementImpl::new);
+    }
+
+    @Override
+    public boolean isParsable(@Nullable ASTNode parent, CharSequence buffer, Language fileLanguage, Project project) {
+      return JavaParserUtil.isReparseableElement(parent, buffer, this, RULE_PARSER);
+    }
+
+    @Override
+    public ASTNode parse(CharSequence text, CharTable table) {
+      return JavaParserUtil.parseReparseableElement(text, this, LanguageLevel.HIGHEST, RULE_PARSER);
+    }
+
+    @Override
+    public ASTNode parseContents(ASTNode chameleon) {
+      PsiBuilder builder = JavaParserUtil.createBuilder(chameleon);
+      RULE_PARSER.parse(builder);
+      return builder.getTreeBuilt().getFirstChildNode();
+    }
+  }
+
   IElementType STATEMENTS = new ICodeFragmentElementType("STATEMENTS", JavaLanguage.INSTANCE) {
     private final JavaParserUtil.ParserWrapper myParser = JavaParser.INSTANCE.getStatementParser()::parseStatements;
 
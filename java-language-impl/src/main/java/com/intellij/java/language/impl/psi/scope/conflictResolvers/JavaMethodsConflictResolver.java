@@ -16,6 +16,7 @@
 package com.intellij.java.language.impl.psi.scope.conflictResolvers;
 
 import com.intellij.java.language.LanguageLevel;
+import com.intellij.java.language.impl.psi.impl.PsiClassImplUtil;
 import com.intellij.java.language.impl.psi.impl.PsiSuperMethodImplUtil;
 import com.intellij.java.language.impl.psi.impl.source.PsiImmediateClassType;
 import com.intellij.java.language.impl.psi.impl.source.resolve.graphInference.InferenceSession;
@@ -29,9 +30,12 @@ import com.intellij.java.language.psi.infos.CandidateInfo;
 import com.intellij.java.language.psi.infos.MethodCandidateInfo;
 import com.intellij.java.language.psi.util.*;
 import consulo.application.progress.ProgressManager;
+import consulo.application.util.CachedValueProvider;
+import consulo.application.util.ConcurrentFactoryMap;
 import consulo.application.util.function.Computable;
 import consulo.language.psi.PsiElement;
 import consulo.language.psi.scope.GlobalSearchScope;
+import consulo.language.psi.util.LanguageCachedValueUtil;
 import consulo.language.psi.util.PsiTreeUtil;
 import consulo.logging.Logger;
 import consulo.util.collection.FactoryMap;
@@ -126,7 +130,15 @@ public class JavaMethodsConflictResolver implements PsiConflictResolver {
       }
     }
 
-    final int applicabilityLevel = checkApplicability(conflicts);
+    List<CandidateInfo> beforeErasedTypesCheck = atLeastOneMatch ? checkErasedParameterTypes(conflicts) : null;
+
+    int applicabilityLevel = checkApplicability(conflicts);
+    if (applicabilityLevel == MethodCandidateInfo.ApplicabilityLevel.NOT_APPLICABLE && beforeErasedTypesCheck != null) {
+      // no applicable candidates at all, keep the candidates rejected by the pre-filter for error reporting
+      conflicts.clear();
+      conflicts.addAll(beforeErasedTypesCheck);
+      applicabilityLevel = checkApplicability(conflicts);
+    }
     if (conflicts.size() == 1) {
       return conflicts.get(0);
     }
@@ -452,6 +464,133 @@ public class JavaMethodsConflictResolver implements PsiConflictResolver {
     return null;
   }
 
+  /**
+   * Cheap pre-filter before the applicability check: removes candidates which are not applicable even to the erasures of the
+   * arguments with standalone types. The erasure of a declared parameter type is a necessary condition for any instantiation
+   * of the method, so applicable candidates are never removed and the inference runs for the survivors only.
+   *
+   * @return the candidates before filtering, or null if nothing was removed
+   */
+  @Nullable
+  private List<CandidateInfo> checkErasedParameterTypes(List<CandidateInfo> conflicts) {
+    if (!(myArgumentsList instanceof PsiExpressionList)) {
+      return null;
+    }
+    PsiExpression[] args = ((PsiExpressionList) myArgumentsList).getExpressions();
+    PsiType[] argTypes = null;
+    for (int i = 0; i < args.length; i++) {
+      PsiType type = getStandaloneErasedType(args[i]);
+      if (type != null) {
+        if (argTypes == null) {
+          argTypes = new PsiType[args.length];
+        }
+        argTypes[i] = type;
+      }
+    }
+    if (argTypes == null) {
+      return null;
+    }
+
+    List<CandidateInfo> before = null;
+    for (int i = conflicts.size() - 1; i >= 0; i--) {
+      ProgressManager.checkCanceled();
+      MethodCandidateInfo info = (MethodCandidateInfo) conflicts.get(i);
+      if (!isErasureApplicable(info, argTypes)) {
+        if (before == null) {
+          before = new ArrayList<>(conflicts);
+        }
+        conflicts.remove(i);
+      }
+    }
+    if (before != null && conflicts.isEmpty()) {
+      conflicts.addAll(before);
+      return null;
+    }
+    return before;
+  }
+
+  private static boolean isErasureApplicable(MethodCandidateInfo info, PsiType[] argTypes) {
+    PsiMethod method = info.getElement();
+    PsiClass containingClass = method.getContainingClass();
+    if (containingClass == null) {
+      return true;
+    }
+    PsiType[] parameterTypes = getErasedParameterTypes(containingClass).get(method);
+    // the last parameter of a variable arity method accepts both an array and its components
+    int checkedCount = method.isVarArgs() ? parameterTypes.length - 1 : parameterTypes.length;
+    for (int i = 0; i < checkedCount && i < argTypes.length; i++) {
+      PsiType argType = argTypes[i];
+      PsiType parameterType = parameterTypes[i];
+      if (argType != null && parameterType != null && !TypeConversionUtil.isAssignable(parameterType, argType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Erased parameter types of the methods of a class, shared by all calls of its (possibly heavily overloaded) methods.
+   * A null element stands for a type which can't be checked without resolve problems.
+   */
+  private static Map<PsiMethod, PsiType[]> getErasedParameterTypes(PsiClass aClass) {
+    return LanguageCachedValueUtil.getCachedValue(aClass, () -> {
+      Map<PsiMethod, PsiType[]> map = ConcurrentFactoryMap.createMap(method -> {
+        PsiParameter[] parameters = method.getParameterList().getParameters();
+        PsiType[] types = new PsiType[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+          PsiType type = TypeConversionUtil.erasure(parameters[i].getType());
+          types[i] = isResolved(type) ? type : null;
+        }
+        return types;
+      });
+      return CachedValueProvider.Result.create(map, PsiClassImplUtil.getMembersDependencies(aClass));
+    });
+  }
+
+  /**
+   * @return the erased type of an argument whose type doesn't depend on the target type and is cheap to compute, or null
+   */
+  @Nullable
+  private static PsiType getStandaloneErasedType(PsiExpression arg) {
+    PsiExpression expression = PsiUtil.skipParenthesizedExprDown(arg);
+    if (!(expression instanceof PsiLiteralExpression ||
+        expression instanceof PsiThisExpression ||
+        expression instanceof PsiTypeCastExpression ||
+        expression instanceof PsiClassObjectAccessExpression ||
+        expression instanceof PsiReferenceExpression && ((PsiReferenceExpression) expression).resolve() instanceof PsiVariable)) {
+      return null;
+    }
+    PsiType type = expression.getType();
+    if (type == null || PsiType.VOID.equals(type) || !hasSingleBound(type)) {
+      return null;
+    }
+    type = TypeConversionUtil.erasure(type);
+    return isResolved(type) ? type : null;
+  }
+
+  /**
+   * The erasure of a type variable, a capture, an intersection or a disjunction is its first bound only,
+   * a candidate accepting another bound would be removed by the erased check
+   */
+  private static boolean hasSingleBound(PsiType type) {
+    PsiType deepComponentType = type.getDeepComponentType();
+    if (deepComponentType instanceof PsiPrimitiveType) {
+      return true;
+    }
+    return deepComponentType instanceof PsiClassType && !(((PsiClassType) deepComponentType).resolve() instanceof PsiTypeParameter);
+  }
+
+  private static boolean isResolved(@Nullable PsiType type) {
+    if (type == null) {
+      return false;
+    }
+    PsiType deepComponentType = type.getDeepComponentType();
+    if (deepComponentType instanceof PsiPrimitiveType) {
+      return true;
+    }
+    return deepComponentType instanceof PsiClassType && ((PsiClassType) deepComponentType).resolve() != null;
+  }
+
   public boolean checkParametersNumber(List<CandidateInfo> conflicts, final int argumentsCount, Map<MethodCandidateInfo, PsiSubstitutor> map, boolean ignoreIfStaticsProblem) {
     boolean atLeastOneMatch = false;
     IntList unmatchedIndices = null;
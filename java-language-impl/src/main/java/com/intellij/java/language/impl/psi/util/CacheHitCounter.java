@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.util;
+
+import consulo.logging.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit and miss counters of a cache, to measure its effectiveness.
+ * <p>
+ * Lookups are counted only while debug logging of the owner's logger is enabled,
+ * the counters are written to that log every {@link #LOG_INTERVAL} lookups.
+ */
+public final class CacheHitCounter {
+  private static final long LOG_INTERVAL = 10_000;
+
+  private final String myName;
+  private final Logger myLog;
+  private final AtomicLong myHits = new AtomicLong();
+  private final AtomicLong myMisses = new AtomicLong();
+
+  public CacheHitCounter(String name, Logger log) {
+    myName = name;
+    myLog = log;
+  }
+
+  public void hit() {
+    if (myLog.isDebugEnabled()) {
+      logPeriodically(myHits.incrementAndGet() + myMisses.get());
+    }
+  }
+
+  public void miss() {
+    if (myLog.isDebugEnabled()) {
+      logPeriodically(myHits.get() + myMisses.incrementAndGet());
+    }
+  }
+
+  private void logPeriodically(long lookups) {
+    if (lookups % LOG_INTERVAL == 0) {
+      myLog.debug(toString());
+    }
+  }
+
+  public long getHits() {
+    return myHits.get();
+  }
+
+  public long getMisses() {
+    return myMisses.get();
+  }
+
+  public double getHitRate() {
+    long hits = myHits.get();
+    long total = hits + myMisses.get();
+    return total == 0 ? 0 : (double)hits / total;
+  }
+
+  public void reset() {
+    myHits.set(0);
+    myMisses.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return myName + ": hits=" + getHits() + ", misses=" + getMisses() + String.format(", hit rate=%.2f", getHitRate());
+  }
+}
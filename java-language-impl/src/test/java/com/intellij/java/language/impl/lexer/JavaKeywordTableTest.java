@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.lexer;
+
+import com.intellij.java.language.psi.JavaTokenType;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JavaKeywordTableTest {
+  @Test
+  public void multiplierHasNoCollisions() {
+    assertTrue(JavaKeywordTable.isPerfect(JavaKeywordTable.MULTIPLIER));
+  }
+
+  @Test
+  public void keywordsFound() {
+    doTest("synchronized", true);
+    doTest("do", true);
+    doTest("non-sealed", true);
+    doTest("record", true);
+    doTest("synchronizes", false);
+    doTest("dot", false);
+  }
+
+  @Test
+  public void tokenTypes() {
+    char[] text = "x instanceof y".toCharArray();
+    JavaKeywordTable.Entry entry = JavaKeywordTable.find(text, 2, 12);
+    assertNotNull(entry);
+    assertEquals(JavaTokenType.INSTANCEOF_KEYWORD, entry.tokenType);
+  }
+
+  private static void doTest(String word, boolean keyword) {
+    assertEquals(word, keyword, JavaKeywordTable.find(word.toCharArray(), 0, word.length()) != null);
+    assertEquals(word, keyword, JavaKeywordTable.find(word, 0, word.length()) != null);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.impl.cache;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TypeInfoTest {
+    @Test
+    public void simpleTypes() {
+        assertEqualTypes("int");
+        assertEqualTypes("java.lang.String");
+        assertDifferentTypes("int", "long");
+        assertDifferentTypes("java.lang.String", "java.lang.Object");
+    }
+
+    @Test
+    public void genericTypes() {
+        assertEqualTypes("java.util.Map<java.lang.String,java.util.List<T>>");
+        assertEqualTypes("java.util.List<? extends java.lang.Number>");
+        assertEqualTypes("A<B>.C<D>");
+        assertDifferentTypes("java.util.Map<java.lang.String,java.util.List<T>>", "java.util.Map<java.lang.String,java.util.List<S>>");
+        assertDifferentTypes("java.util.List<T>", "java.util.Set<T>");
+        assertDifferentTypes("java.util.List<T>", "java.util.List");
+        assertDifferentTypes("java.util.List<? extends T>", "java.util.List<? super T>");
+        assertDifferentTypes("java.util.List<?>", "java.util.List<T>");
+        assertDifferentTypes("A<B>.C<D>", "A<E>.C<D>");
+    }
+
+    @Test
+    public void arrayTypes() {
+        assertEqualTypes("int[]");
+        assertEqualTypes("java.util.List<java.lang.String>[][]");
+        assertEqualTypes("java.lang.String...");
+        assertDifferentTypes("int[]", "int[][]");
+        assertDifferentTypes("int[]", "long[]");
+        assertDifferentTypes("java.lang.String[]", "java.lang.String...");
+        assertDifferentTypes("java.util.List<java.lang.String>[]", "java.util.List<java.lang.Object>[]");
+    }
+
+    @Test
+    public void innerTypes() {
+        TypeInfo.RefTypeInfo outer = new TypeInfo.RefTypeInfo("A");
+        assertEquals(new TypeInfo.RefTypeInfo("B", outer), new TypeInfo.RefTypeInfo("B", new TypeInfo.RefTypeInfo("A")));
+        assertNotEquals(new TypeInfo.RefTypeInfo("B", outer), new TypeInfo.RefTypeInfo("B"));
+        assertNotEquals(new TypeInfo.RefTypeInfo("B", outer), new TypeInfo.RefTypeInfo("B", new TypeInfo.RefTypeInfo("C")));
+    }
+
+    @Test
+    public void annotatedTypesDiffer() {
+        TypeInfo annotated = annotate(TypeInfo.fromString("java.lang.String"));
+        assertNotEquals(TypeInfo.fromString("java.lang.String"), annotated);
+        assertNotEquals(annotate(TypeInfo.fromString("java.lang.String")), annotated);
+        assertEquals(annotated, annotated);
+    }
+
+    @Test
+    public void internSharesEqualTypes() {
+        for (String text : List.of("int", "java.lang.String", "java.util.Map<K,V[]>", "java.util.List<? super T>[]", "T...")) {
+            TypeInfo first = TypeInfo.intern(TypeInfo.fromString(text));
+            assertSame(text, first, TypeInfo.intern(TypeInfo.fromString(text)));
+            assertEquals(text, first.text());
+        }
+        assertNotSame(TypeInfo.intern(TypeInfo.fromString("int[]")), TypeInfo.intern(TypeInfo.fromString("long[]")));
+        assertSame(TypeInfo.SimpleTypeInfo.NULL, TypeInfo.intern(TypeInfo.SimpleTypeInfo.NULL));
+    }
+
+    private static void assertEqualTypes(String text) {
+        TypeInfo info = TypeInfo.fromString(text);
+        TypeInfo other = TypeInfo.fromString(text);
+        assertNotSame(info, other);
+        assertEquals(text, info, other);
+        assertEquals(text, info.hashCode(), other.hashCode());
+    }
+
+    private static void assertDifferentTypes(String text, String otherText) {
+        assertNotEquals(text, TypeInfo.fromString(text), TypeInfo.fromString(otherText));
+    }
+
+    private static TypeInfo annotate(TypeInfo info) {
+        ExplicitTypeAnnotationContainer.Collector collector = new ExplicitTypeAnnotationContainer.Collector(info);
+        collector.add(new byte[0], "@Anno");
+        collector.install();
+        return info;
+    }
+}
@@ -32,5 +32,7 @@ public interface JavaRtClassNames
 
 	String DEFAULT_METHOD_INVOKER = "com.intellij.rt.debugger.DefaultMethodInvoker";
 
+	String CAPTURE_STORAGE = "com.intellij.rt.debugger.CaptureStorage";
+
 	String APP_MAINV2 = "com.intellij.rt.execution.application.AppMainV2";
 }
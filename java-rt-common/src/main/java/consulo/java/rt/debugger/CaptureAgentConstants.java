@@ -0,0 +1,32 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.java.rt.debugger;
+
+/**
+ * Arguments of the capture agent: {@link #ARGS_PREFIX} followed by capture points separated by {@link #POINT_SEPARATOR},
+ * each point is {@code className,methodName,key} where the class name is in the internal form
+ * and the key is a parameter index or {@link #THIS_KEY}.
+ */
+public interface CaptureAgentConstants
+{
+	public static final String ARGS_PREFIX = "capture:";
+
+	public static final String POINT_SEPARATOR = ";";
+
+	public static final String FIELD_SEPARATOR = ",";
+
+	public static final int THIS_KEY = -1;
+}
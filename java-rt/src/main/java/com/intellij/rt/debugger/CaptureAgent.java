@@ -0,0 +1,178 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.rt.debugger;
+
+import consulo.java.rt.debugger.CaptureAgentConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Java agent which records stacks at capture points into {@link CaptureStorage} without stopping the VM.
+ * <p>
+ * A call of {@code CaptureStorage.capture(key)} is inserted at the start of every capture method.
+ * The storage is put on the bootstrap class path, so that it is visible from the instrumented classes of any class loader, JDK ones included.
+ *
+ * @noinspection UseOfSystemOutOrSystemErr
+ */
+public class CaptureAgent
+{
+	private static final String STORAGE_CLASS = "com.intellij.rt.debugger.CaptureStorage";
+
+	public static void premain(String args, Instrumentation instrumentation)
+	{
+		try
+		{
+			Map<String, Map<String, Integer>> points = parsePoints(args);
+			if(points.isEmpty())
+			{
+				return;
+			}
+			Class storage = appendStorageToBootstrap(instrumentation);
+			instrumentation.addTransformer(new CaptureTransformer(points), true);
+			retransformLoaded(instrumentation, points);
+			// the IDE stops at the capture points until it finds them here
+			storage.getMethod("setAgentPoints", String.class).invoke(null, args);
+		}
+		catch(Throwable t)
+		{
+			System.err.println("Capture agent failed - async stack traces are not recorded (" + t + ')');
+		}
+	}
+
+	/**
+	 * @return capture method names and keys by internal class names
+	 */
+	private static Map<String, Map<String, Integer>> parsePoints(String args)
+	{
+		Map<String, Map<String, Integer>> points = new HashMap<String, Map<String, Integer>>();
+		for(String point : args.split(CaptureAgentConstants.POINT_SEPARATOR))
+		{
+			String[] parts = point.split(CaptureAgentConstants.FIELD_SEPARATOR);
+			if(parts.length != 3)
+			{
+				continue;
+			}
+			Map<String, Integer> methods = points.get(parts[0]);
+			if(methods == null)
+			{
+				methods = new HashMap<String, Integer>();
+				points.put(parts[0], methods);
+			}
+			methods.put(parts[1], Integer.valueOf(parts[2]));
+		}
+		return points;
+	}
+
+	private static Class appendStorageToBootstrap(Instrumentation instrumentation) throws IOException, ClassNotFoundException
+	{
+		String entryName = STORAGE_CLASS.replace('.', '/') + ".class";
+		InputStream stream = CaptureAgent.class.getClassLoader().getResourceAsStream(entryName);
+		if(stream == null)
+		{
+			throw new IOException(entryName + " not found");
+		}
+		File jar = File.createTempFile("captureStorage", ".jar");
+		jar.deleteOnExit();
+		JarOutputStream output = new JarOutputStream(new FileOutputStream(jar));
+		try
+		{
+			output.putNextEntry(new JarEntry(entryName));
+			output.write(readAll(stream));
+			output.closeEntry();
+		}
+		finally
+		{
+			output.close();
+			stream.close();
+		}
+		instrumentation.appendToBootstrapClassLoaderSearch(new JarFile(jar));
+		return Class.forName(STORAGE_CLASS, true, null);
+	}
+
+	private static void retransformLoaded(Instrumentation instrumentation, Map<String, Map<String, Integer>> points) throws Exception
+	{
+		if(!instrumentation.isRetransformClassesSupported())
+		{
+			return;
+		}
+		List<Class> loaded = new ArrayList<Class>();
+		for(Class aClass : instrumentation.getAllLoadedClasses())
+		{
+			if(points.containsKey(aClass.getName().replace('.', '/')) && instrumentation.isModifiableClass(aClass))
+			{
+				loaded.add(aClass);
+			}
+		}
+		if(!loaded.isEmpty())
+		{
+			instrumentation.retransformClasses(loaded.toArray(new Class[loaded.size()]));
+		}
+	}
+
+	private static byte[] readAll(InputStream stream) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while((read = stream.read(buffer)) > 0)
+		{
+			bytes.write(buffer, 0, read);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static class CaptureTransformer implements ClassFileTransformer
+	{
+		private final Map<String, Map<String, Integer>> myPoints;
+
+		CaptureTransformer(Map<String, Map<String, Integer>> points)
+		{
+			myPoints = points;
+		}
+
+		public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer)
+		{
+			Map<String, Integer> methods = className != null ? myPoints.get(className) : null;
+			if(methods == null)
+			{
+				return null;
+			}
+			try
+			{
+				return CaptureInstrumenter.instrument(classfileBuffer, methods);
+			}
+			catch(Throwable t)
+			{
+				System.err.println("Capture agent: unable to instrument " + className + " (" + t + ')');
+				return null;
+			}
+		}
+	}
+}
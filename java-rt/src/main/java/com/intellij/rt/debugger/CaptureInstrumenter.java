@@ -0,0 +1,565 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.rt.debugger;
+
+import consulo.java.rt.debugger.CaptureAgentConstants;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inserts {@code CaptureStorage.capture(key)} at the start of capture methods of a class file.
+ * <p>
+ * The call is padded with nops to a multiple of 4 bytes, so that switch alignment is kept, and placed before the original code.
+ * Relative branches stay valid, absolute code offsets of the exception table, line numbers, local variables, stack map frames
+ * and type annotations of the code are shifted. The first method with the name is instrumented, as the capture breakpoint does.
+ */
+final class CaptureInstrumenter
+{
+	private static final String STORAGE_CLASS = "com/intellij/rt/debugger/CaptureStorage";
+	private static final String CAPTURE_METHOD = "capture";
+	private static final String CAPTURE_DESCRIPTOR = "(Ljava/lang/Object;)V";
+	private static final int ADDED_CONSTANTS = 6;
+
+	private static final int ACC_STATIC = 0x0008;
+	private static final int ACC_ABSTRACT = 0x0400;
+	private static final int ACC_NATIVE = 0x0100;
+
+	private static final int NOP = 0x00;
+	private static final int ALOAD = 0x19;
+	private static final int ALOAD_0 = 0x2a;
+	private static final int INVOKESTATIC = 0xb8;
+	private static final int WIDE = 0xc4;
+
+	private final byte[] myBytes;
+	private final Map<String, Integer> myMethods;
+	private final Set<String> myInstrumented = new HashSet<String>();
+	private int myPos;
+	private String[] myUtf8;
+	private int myCaptureRef;
+
+	private CaptureInstrumenter(byte[] bytes, Map<String, Integer> methods)
+	{
+		myBytes = bytes;
+		myMethods = methods;
+	}
+
+	/**
+	 * @return the instrumented class, or null if it has none of the methods
+	 */
+	static byte[] instrument(byte[] bytes, Map<String, Integer> methods) throws IOException
+	{
+		return new CaptureInstrumenter(bytes, methods).instrument();
+	}
+
+	private byte[] instrument() throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(myBytes.length + 256);
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		copy(out, 8); // magic and version
+		int constantCount = u2();
+		if(constantCount + ADDED_CONSTANTS > 0xFFFF)
+		{
+			return null;
+		}
+		int constantsStart = myPos;
+		readConstants(constantCount);
+		out.writeShort(constantCount + ADDED_CONSTANTS);
+		out.write(myBytes, constantsStart, myPos - constantsStart);
+		writeCaptureConstants(out, constantCount);
+
+		copy(out, 6); // access flags, this and super classes
+		int interfaceCount = u2();
+		out.writeShort(interfaceCount);
+		copy(out, interfaceCount * 2);
+
+		int fieldCount = u2();
+		out.writeShort(fieldCount);
+		for(int i = 0; i < fieldCount; i++)
+		{
+			copy(out, 6);
+			copyAttributes(out);
+		}
+
+		int methodCount = u2();
+		out.writeShort(methodCount);
+		for(int i = 0; i < methodCount; i++)
+		{
+			int access = u2();
+			int nameIndex = u2();
+			int descriptorIndex = u2();
+			out.writeShort(access);
+			out.writeShort(nameIndex);
+			out.writeShort(descriptorIndex);
+			int slot = getKeySlot(access, myUtf8[nameIndex], myUtf8[descriptorIndex]);
+			int attributeCount = u2();
+			out.writeShort(attributeCount);
+			for(int j = 0; j < attributeCount; j++)
+			{
+				int attributeName = u2();
+				int length = u4();
+				if(slot >= 0 && "Code".equals(myUtf8[attributeName]))
+				{
+					int start = myPos;
+					byte[] code = instrumentCode(slot);
+					if(code != null)
+					{
+						myInstrumented.add(myUtf8[nameIndex]);
+						out.writeShort(attributeName);
+						out.writeInt(code.length);
+						out.write(code);
+						myPos = start + length;
+						continue;
+					}
+					myPos = start;
+				}
+				out.writeShort(attributeName);
+				out.writeInt(length);
+				copy(out, length);
+			}
+		}
+
+		copyAttributes(out);
+		return myInstrumented.isEmpty() ? null : bytes.toByteArray();
+	}
+
+	private void readConstants(int count) throws IOException
+	{
+		myUtf8 = new String[count];
+		for(int i = 1; i < count; i++)
+		{
+			int tag = u1();
+			switch(tag)
+			{
+				case 1: // Utf8
+					int length = u2();
+					myUtf8[i] = new DataInputStream(new ByteArrayInputStream(myBytes, myPos - 2, length + 2)).readUTF();
+					myPos += length;
+					break;
+				case 3: // Integer
+				case 4: // Float
+				case 9: // Fieldref
+				case 10: // Methodref
+				case 11: // InterfaceMethodref
+				case 12: // NameAndType
+				case 17: // Dynamic
+				case 18: // InvokeDynamic
+					myPos += 4;
+					break;
+				case 5: // Long
+				case 6: // Double
+					myPos += 8;
+					i++;
+					break;
+				case 7: // Class
+				case 8: // String
+				case 16: // MethodType
+				case 19: // Module
+				case 20: // Package
+					myPos += 2;
+					break;
+				case 15: // MethodHandle
+					myPos += 3;
+					break;
+				default:
+					throw new IOException("Unknown constant pool tag " + tag);
+			}
+		}
+	}
+
+	private void writeCaptureConstants(DataOutputStream out, int first) throws IOException
+	{
+		out.writeByte(1);
+		out.writeUTF(STORAGE_CLASS);
+		out.writeByte(7);
+		out.writeShort(first);
+		out.writeByte(1);
+		out.writeUTF(CAPTURE_METHOD);
+		out.writeByte(1);
+		out.writeUTF(CAPTURE_DESCRIPTOR);
+		out.writeByte(12);
+		out.writeShort(first + 2);
+		out.writeShort(first + 3);
+		out.writeByte(10);
+		out.writeShort(first + 1);
+		out.writeShort(first + 4);
+		myCaptureRef = first + 5;
+	}
+
+	/**
+	 * @return the local variable slot of the key of a capture method, or -1 if the method is not instrumented
+	 */
+	private int getKeySlot(int access, String name, String descriptor)
+	{
+		Integer key = myMethods.get(name);
+		if(key == null || myInstrumented.contains(name) || (access & (ACC_ABSTRACT | ACC_NATIVE)) != 0)
+		{
+			return -1;
+		}
+		boolean isStatic = (access & ACC_STATIC) != 0;
+		if(key.intValue() == CaptureAgentConstants.THIS_KEY)
+		{
+			// this is not initialized in a constructor before the super call
+			return isStatic || "<init>".equals(name) ? -1 : 0;
+		}
+		int slot = isStatic ? 0 : 1;
+		int i = 1;
+		for(int param = 0; i < descriptor.length() && descriptor.charAt(i) != ')'; param++)
+		{
+			char type = descriptor.charAt(i);
+			if(param == key.intValue())
+			{
+				return type == 'L' || type == '[' ? slot : -1;
+			}
+			while(descriptor.charAt(i) == '[')
+			{
+				i++;
+			}
+			if(descriptor.charAt(i) == 'L')
+			{
+				i = descriptor.indexOf(';', i);
+			}
+			slot += type == 'J' || type == 'D' ? 2 : 1;
+			i++;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the body of the instrumented Code attribute, or null if the code gets too long
+	 */
+	private byte[] instrumentCode(int slot) throws IOException
+	{
+		byte[] capture = createCapture(slot);
+		int shift = capture.length;
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeShort(Math.max(u2(), 1)); // max stack
+		copy(out, 2); // max locals
+		int codeLength = u4();
+		if(codeLength + shift > 0xFFFF)
+		{
+			return null;
+		}
+		out.writeInt(codeLength + shift);
+		out.write(capture);
+		copy(out, codeLength);
+
+		int exceptionCount = u2();
+		out.writeShort(exceptionCount);
+		for(int i = 0; i < exceptionCount; i++)
+		{
+			out.writeShort(u2() + shift); // start
+			out.writeShort(u2() + shift); // end
+			out.writeShort(u2() + shift); // handler
+			copy(out, 2); // catch type
+		}
+
+		int attributeCount = u2();
+		ByteArrayOutputStream attributes = new ByteArrayOutputStream();
+		DataOutputStream attributesOut = new DataOutputStream(attributes);
+		int written = 0;
+		for(int i = 0; i < attributeCount; i++)
+		{
+			int attributeName = u2();
+			int length = u4();
+			int end = myPos + length;
+			String name = myUtf8[attributeName];
+			// the first stack map frame may get an extended form, so the length is computed again
+			ByteArrayOutputStream body = new ByteArrayOutputStream(length);
+			DataOutputStream bodyOut = new DataOutputStream(body);
+			if("LineNumberTable".equals(name))
+			{
+				int count = u2();
+				bodyOut.writeShort(count);
+				for(int j = 0; j < count; j++)
+				{
+					int start = u2();
+					// the capture call belongs to the first line
+					bodyOut.writeShort(start == 0 ? 0 : start + shift);
+					copy(bodyOut, 2);
+				}
+			}
+			else if("LocalVariableTable".equals(name) || "LocalVariableTypeTable".equals(name))
+			{
+				int count = u2();
+				bodyOut.writeShort(count);
+				for(int j = 0; j < count; j++)
+				{
+					int start = u2();
+					int rangeLength = u2();
+					bodyOut.writeShort(start == 0 ? 0 : start + shift);
+					bodyOut.writeShort(start == 0 ? rangeLength + shift : rangeLength);
+					copy(bodyOut, 6);
+				}
+			}
+			else if("StackMapTable".equals(name))
+			{
+				copyStackMapTable(bodyOut, shift);
+			}
+			else if("RuntimeVisibleTypeAnnotations".equals(name) || "RuntimeInvisibleTypeAnnotations".equals(name))
+			{
+				copyTypeAnnotations(bodyOut, shift);
+			}
+			else
+			{
+				copy(bodyOut, length);
+			}
+			myPos = end;
+			attributesOut.writeShort(attributeName);
+			attributesOut.writeInt(body.size());
+			body.writeTo(attributesOut);
+			written++;
+		}
+		out.writeShort(written);
+		out.write(attributes.toByteArray());
+		return bytes.toByteArray();
+	}
+
+	private void copyTypeAnnotations(DataOutputStream out, int shift) throws IOException
+	{
+		int count = u2();
+		out.writeShort(count);
+		for(int i = 0; i < count; i++)
+		{
+			int targetType = u1();
+			out.writeByte(targetType);
+			if(targetType == 0x40 || targetType == 0x41) // local variable, resource variable
+			{
+				int ranges = u2();
+				out.writeShort(ranges);
+				for(int j = 0; j < ranges; j++)
+				{
+					int start = u2();
+					int rangeLength = u2();
+					out.writeShort(start == 0 ? 0 : start + shift);
+					out.writeShort(start == 0 ? rangeLength + shift : rangeLength);
+					copy(out, 2); // index
+				}
+			}
+			else if(targetType == 0x42) // exception parameter, an index of the exception table
+			{
+				copy(out, 2);
+			}
+			else if(targetType >= 0x43 && targetType <= 0x46) // instanceof, new, method references
+			{
+				out.writeShort(u2() + shift);
+			}
+			else if(targetType >= 0x47 && targetType <= 0x4B) // cast and type arguments of calls and method references
+			{
+				out.writeShort(u2() + shift);
+				copy(out, 1);
+			}
+			else
+			{
+				throw new IOException("Unknown type annotation target " + targetType);
+			}
+			int pathLength = u1();
+			out.writeByte(pathLength);
+			copy(out, pathLength * 2); // type path
+			copyAnnotation(out);
+		}
+	}
+
+	private void copyAnnotation(DataOutputStream out) throws IOException
+	{
+		copy(out, 2); // type
+		int pairs = u2();
+		out.writeShort(pairs);
+		for(int i = 0; i < pairs; i++)
+		{
+			copy(out, 2); // name
+			copyElementValue(out);
+		}
+	}
+
+	private void copyElementValue(DataOutputStream out) throws IOException
+	{
+		int tag = u1();
+		out.writeByte(tag);
+		if(tag == 'e')
+		{
+			copy(out, 4);
+		}
+		else if(tag == '@')
+		{
+			copyAnnotation(out);
+		}
+		else if(tag == '[')
+		{
+			int count = u2();
+			out.writeShort(count);
+			for(int i = 0; i < count; i++)
+			{
+				copyElementValue(out);
+			}
+		}
+		else
+		{
+			copy(out, 2);
+		}
+	}
+
+	private void copyStackMapTable(DataOutputStream out, int shift) throws IOException
+	{
+		int count = u2();
+		out.writeShort(count);
+		for(int i = 0; i < count; i++)
+		{
+			// only the offset of the first frame is absolute
+			int added = i == 0 ? shift : 0;
+			int type = u1();
+			if(type < 64)
+			{
+				writeSameFrame(out, type + added, 0, 251);
+			}
+			else if(type < 128)
+			{
+				writeSameFrame(out, type - 64 + added, 64, 247);
+				copyVerificationTypes(out, 1, shift);
+			}
+			else if(type < 247)
+			{
+				throw new IOException("Unknown stack map frame type " + type);
+			}
+			else
+			{
+				out.writeByte(type);
+				out.writeShort(u2() + added);
+				if(type == 247)
+				{
+					copyVerificationTypes(out, 1, shift);
+				}
+				else if(type >= 252 && type <= 254)
+				{
+					copyVerificationTypes(out, type - 251, shift);
+				}
+				else if(type == 255)
+				{
+					int locals = u2();
+					out.writeShort(locals);
+					copyVerificationTypes(out, locals, shift);
+					int stack = u2();
+					out.writeShort(stack);
+					copyVerificationTypes(out, stack, shift);
+				}
+			}
+		}
+	}
+
+	private static void writeSameFrame(DataOutputStream out, int delta, int compactBase, int extendedType) throws IOException
+	{
+		if(delta < 64)
+		{
+			out.writeByte(compactBase + delta);
+		}
+		else
+		{
+			out.writeByte(extendedType);
+			out.writeShort(delta);
+		}
+	}
+
+	private void copyVerificationTypes(DataOutputStream out, int count, int shift) throws IOException
+	{
+		for(int i = 0; i < count; i++)
+		{
+			int tag = u1();
+			out.writeByte(tag);
+			if(tag == 7) // Object
+			{
+				copy(out, 2);
+			}
+			else if(tag == 8) // Uninitialized, the offset of the new instruction
+			{
+				out.writeShort(u2() + shift);
+			}
+		}
+	}
+
+	private byte[] createCapture(int slot)
+	{
+		int loadLength = slot <= 3 ? 1 : slot <= 0xFF ? 2 : 4;
+		int padding = (4 - (loadLength + 3) % 4) % 4;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		for(int i = 0; i < padding; i++)
+		{
+			bytes.write(NOP);
+		}
+		if(slot <= 3)
+		{
+			bytes.write(ALOAD_0 + slot);
+		}
+		else if(slot <= 0xFF)
+		{
+			bytes.write(ALOAD);
+			bytes.write(slot);
+		}
+		else
+		{
+			bytes.write(WIDE);
+			bytes.write(ALOAD);
+			bytes.write(slot >> 8);
+			bytes.write(slot & 0xFF);
+		}
+		bytes.write(INVOKESTATIC);
+		bytes.write(myCaptureRef >> 8);
+		bytes.write(myCaptureRef & 0xFF);
+		return bytes.toByteArray();
+	}
+
+	private void copyAttributes(DataOutputStream out) throws IOException
+	{
+		int count = u2();
+		out.writeShort(count);
+		for(int i = 0; i < count; i++)
+		{
+			copy(out, 2);
+			int length = u4();
+			out.writeInt(length);
+			copy(out, length);
+		}
+	}
+
+	private void copy(DataOutputStream out, int length) throws IOException
+	{
+		out.write(myBytes, myPos, length);
+		myPos += length;
+	}
+
+	private int u1()
+	{
+		return myBytes[myPos++] & 0xFF;
+	}
+
+	private int u2()
+	{
+		return (u1() << 8) | u1();
+	}
+
+	private int u4()
+	{
+		return (u2() << 16) | u2();
+	}
+}
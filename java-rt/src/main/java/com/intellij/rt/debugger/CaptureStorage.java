@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.rt.debugger;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Debuggee side storage of captured stacks for async stack traces, filled by the capture points instrumented by {@link CaptureAgent}.
+ * <p>
+ * Stacks are kept in a fixed-size ring buffer, frames are interned, so the memory used in the target is bounded.
+ * The IDE transfers a stack only when it is requested via {@link #getStack(Object)}.
+ *
+ * @noinspection unused
+ */
+public class CaptureStorage
+{
+	private static final int MAX_STACK_LENGTH = 500;
+	private static final int MAX_INTERNED_FRAMES = 10000;
+
+	private static final int CAPACITY = Math.max(1, Integer.getInteger("consulo.debugger.capture.storage.size", 1000).intValue());
+
+	// String keys are stored as is (matched by value), other keys are stored weakly (matched by identity)
+	private static final Object[] ourKeys = new Object[CAPACITY];
+	private static final StackTraceElement[][] ourStacks = new StackTraceElement[CAPACITY][];
+	private static final Map<StackTraceElement, StackTraceElement> ourFrames = new HashMap<StackTraceElement, StackTraceElement>();
+	private static int ourNext;
+	// capture points instrumented by the capture agent, read by the IDE
+	private static String ourAgentPoints;
+
+	public static void setAgentPoints(String points)
+	{
+		ourAgentPoints = points;
+	}
+
+	public static void capture(Object key)
+	{
+		if(key == null)
+		{
+			return;
+		}
+		StackTraceElement[] trace = new Throwable().getStackTrace();
+		// the first frame is this method
+		int length = Math.min(trace.length - 1, MAX_STACK_LENGTH);
+		if(length <= 0)
+		{
+			return;
+		}
+		StackTraceElement[] frames = new StackTraceElement[length];
+		synchronized(CaptureStorage.class)
+		{
+			for(int i = 0; i < length; i++)
+			{
+				frames[i] = intern(trace[i + 1]);
+			}
+			ourKeys[ourNext] = key instanceof String ? key : new WeakReference<Object>(key);
+			ourStacks[ourNext] = frames;
+			ourNext = (ourNext + 1) % CAPACITY;
+		}
+	}
+
+	/**
+	 * @return the latest stack captured for the key packed as lines of <code>className\tmethodName\tlineNumber</code>, or null
+	 */
+	public static String getStack(Object key)
+	{
+		StackTraceElement[] frames = null;
+		synchronized(CaptureStorage.class)
+		{
+			for(int i = 1; i <= CAPACITY; i++)
+			{
+				int slot = (ourNext - i + CAPACITY) % CAPACITY;
+				if(matches(ourKeys[slot], key))
+				{
+					frames = ourStacks[slot];
+					break;
+				}
+			}
+		}
+		if(frames == null)
+		{
+			return null;
+		}
+		StringBuilder builder = new StringBuilder(frames.length * 64);
+		for(StackTraceElement frame : frames)
+		{
+			builder.append(frame.getClassName()).append('\t').append(frame.getMethodName()).append('\t').append(frame.getLineNumber()).append('\n');
+		}
+		return builder.toString();
+	}
+
+	private static boolean matches(Object stored, Object key)
+	{
+		if(stored == null || key == null)
+		{
+			return false;
+		}
+		if(stored instanceof WeakReference)
+		{
+			return ((WeakReference) stored).get() == key;
+		}
+		return stored.equals(key);
+	}
+
+	private static StackTraceElement intern(StackTraceElement frame)
+	{
+		StackTraceElement interned = ourFrames.get(frame);
+		if(interned != null)
+		{
+			return interned;
+		}
+		if(ourFrames.size() >= MAX_INTERNED_FRAMES)
+		{
+			ourFrames.clear();
+		}
+		ourFrames.put(frame, frame);
+		return frame;
+	}
+}
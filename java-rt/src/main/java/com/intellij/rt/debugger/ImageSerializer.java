@@ -18,6 +18,7 @@ package com.intellij.rt.debugger;
 import java.awt.Graphics2D;
 import java.awt.GraphicsEnvironment;
 import java.awt.Image;
+import java.awt.RenderingHints;
 import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
@@ -32,12 +33,40 @@ import javax.swing.ImageIcon;
  */
 public class ImageSerializer
 {
+	// larger images are downscaled in the target before transfer
+	private static final int MAX_PREVIEW_SIZE = 1024;
+
 	public static byte[] imageToBytes(Image image) throws IOException
+	{
+		return imageToBytes(image, image.getWidth(null), image.getHeight(null));
+	}
+
+	/**
+	 * @noinspection unused
+	 */
+	public static byte[] imageToBytesPreview(Image image) throws IOException
+	{
+		int width = image.getWidth(null);
+		int height = image.getHeight(null);
+		int max = Math.max(width, height);
+		if(max > MAX_PREVIEW_SIZE)
+		{
+			width = Math.max(1, (int) ((long) width * MAX_PREVIEW_SIZE / max));
+			height = Math.max(1, (int) ((long) height * MAX_PREVIEW_SIZE / max));
+		}
+		return imageToBytes(image, width, height);
+	}
+
+	private static byte[] imageToBytes(Image image, int width, int height) throws IOException
 	{
 		//noinspection UndesirableClassUsage
-		BufferedImage bi = new BufferedImage(image.getWidth(null), image.getHeight(null), BufferedImage.TYPE_INT_ARGB);
+		BufferedImage bi = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
 		Graphics2D g = bi.createGraphics();
-		g.drawImage(image, 0, 0, null);
+		if(width != image.getWidth(null) || height != image.getHeight(null))
+		{
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		}
+		g.drawImage(image, 0, 0, width, height, null);
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
 		ImageIO.write(bi, "png", baos);
 		g.dispose();
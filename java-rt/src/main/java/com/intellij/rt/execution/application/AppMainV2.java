@@ -15,6 +15,8 @@
  */
 package com.intellij.rt.execution.application;
 
+import com.intellij.rt.debugger.CaptureAgent;
+import consulo.java.rt.debugger.CaptureAgentConstants;
 import consulo.java.rt.execution.application.AppMainV2Constants;
 
 import java.io.BufferedReader;
@@ -200,6 +202,11 @@ public class AppMainV2 implements AppMainV2Constants
 	{
 		public static void premain(String args, Instrumentation i)
 		{
+			if(args != null && args.startsWith(CaptureAgentConstants.ARGS_PREFIX))
+			{
+				CaptureAgent.premain(args.substring(CaptureAgentConstants.ARGS_PREFIX.length()), i);
+				return;
+			}
 			AppMainV2.premain(args);
 		}
 	}
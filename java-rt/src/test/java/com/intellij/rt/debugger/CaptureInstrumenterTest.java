@@ -0,0 +1,496 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.rt.debugger;
+
+import consulo.java.rt.debugger.CaptureAgentConstants;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instruments a class compiled from {@link #SOURCE} by the running JDK and loads it with verification,
+ * so that the shifted offsets and stack map frames are checked by the VM.
+ */
+public class CaptureInstrumenterTest
+{
+	private static final String CLASS_NAME = "CaptureSample";
+	private static final String SOURCE = "import java.lang.annotation.*;\n" +
+			"public class CaptureSample {\n" +
+			"  @Retention(RetentionPolicy.RUNTIME) @Target(ElementType.TYPE_USE) @interface Tag {}\n" +
+			"  public CaptureSample(Object key) {\n" +
+			"    super();\n" +
+			"  }\n" +
+			"  public Object key(Object key) {\n" +
+			"    return key; // key line\n" +
+			"  }\n" +
+			"  public static Object wide(long first, double second, Object key) {\n" +
+			"    return key;\n" +
+			"  }\n" +
+			"  public Object self() {\n" +
+			"    return this;\n" +
+			"  }\n" +
+			"  public int loop(Object key, int count) {\n" +
+			"    int sum = 0;\n" +
+			"    for (int i = 0; i < count; i++) sum += i;\n" +
+			"    return sum;\n" +
+			"  }\n" +
+			"  public int caught(Object key, String number) {\n" +
+			"    try { return Integer.parseInt(number); } catch (NumberFormatException e) { return -1; }\n" +
+			"  }\n" +
+			"  public int switched(Object key, int i) {\n" +
+			"    switch (i) { case 0: return 10; case 1: return 11; case 2: return 12; default: return -1; }\n" +
+			"  }\n" +
+			"  public Object created(Object key, boolean flag) {\n" +
+			"    return new StringBuilder(flag ? \"a\" : \"b\");\n" +
+			"  }\n" +
+			"  public String cast(Object key) {\n" +
+			"    @Tag String value = (@Tag String) key;\n" +
+			"    return value;\n" +
+			"  }\n" +
+			"  public int primitive(int key) {\n" +
+			"    return key;\n" +
+			"  }\n" +
+			"  public native void nativeMethod(Object key);\n" +
+			"}\n";
+
+	private static final int CHECKCAST = 0xc0;
+	private static final int NOP = 0x00;
+
+	private static Map<String, byte[]> ourClasses;
+
+	@BeforeClass
+	public static void compile() throws IOException
+	{
+		File dir = File.createTempFile("captureSample", "");
+		assertTrue(dir.delete() && dir.mkdir());
+		File source = new File(dir, CLASS_NAME + ".java");
+		OutputStream out = new FileOutputStream(source);
+		try
+		{
+			out.write(SOURCE.getBytes("UTF-8"));
+		}
+		finally
+		{
+			out.close();
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertNotNull("the tests run on a JDK", compiler);
+		assertEquals(0, compiler.run(null, null, null, "-g", "-d", dir.getPath(), source.getPath()));
+
+		ourClasses = new HashMap<String, byte[]>();
+		for(File file : dir.listFiles())
+		{
+			if(file.getName().endsWith(".class"))
+			{
+				ourClasses.put(file.getName().substring(0, file.getName().length() - ".class".length()), readAll(file));
+			}
+			assertTrue(file.delete());
+		}
+		assertTrue(dir.delete());
+	}
+
+	@Test
+	public void testKeyParameter() throws Exception
+	{
+		Object key = new Object();
+		Object sample = newSample(instrument("key", 0));
+		assertSame(key, invoke(sample, "key", key));
+		assertCaptured(key, "key", lineOf("key line"));
+	}
+
+	@Test
+	public void testKeyAfterWideParameters() throws Exception
+	{
+		Object key = new Object();
+		Class sampleClass = load(instrument("wide", 2));
+		Method method = sampleClass.getMethod("wide", long.class, double.class, Object.class);
+		assertSame(key, method.invoke(null, Long.valueOf(1), Double.valueOf(2), key));
+		assertCaptured(key, "wide", lineOf("return key;\n  }\n  public Object self"));
+	}
+
+	@Test
+	public void testThisKey() throws Exception
+	{
+		Object sample = newSample(instrument("self", CaptureAgentConstants.THIS_KEY));
+		assertSame(sample, invoke(sample, "self"));
+		assertCaptured(sample, "self", lineOf("return this;"));
+	}
+
+	@Test
+	public void testConstructor() throws Exception
+	{
+		Object key = new Object();
+		newSample(instrument("<init>", 0), key);
+		assertCaptured(key, "<init>", lineOf("super();"));
+	}
+
+	@Test
+	public void testThisKeyOfConstructorIsNotInstrumented() throws Exception
+	{
+		assertNull(CaptureInstrumenter.instrument(ourClasses.get(CLASS_NAME), Collections.singletonMap("<init>", Integer.valueOf(CaptureAgentConstants.THIS_KEY))));
+	}
+
+	@Test
+	public void testStackMapFrames() throws Exception
+	{
+		Object key = new Object();
+		Object sample = newSample(instrument("loop", 0));
+		assertEquals(Integer.valueOf(6), invoke(sample, "loop", key, Integer.valueOf(4)));
+		assertCaptured(key, "loop", lineOf("int sum = 0;"));
+	}
+
+	@Test
+	public void testExceptionTable() throws Exception
+	{
+		Object key = new Object();
+		Object sample = newSample(instrument("caught", 0));
+		assertEquals(Integer.valueOf(42), invoke(sample, "caught", key, "42"));
+		assertEquals(Integer.valueOf(-1), invoke(sample, "caught", key, "forty-two"));
+		assertCaptured(key, "caught", lineOf("try {"));
+	}
+
+	@Test
+	public void testSwitchAlignment() throws Exception
+	{
+		Object key = new Object();
+		byte[] instrumented = instrument("switched", 0);
+		assertEquals(0, (getCode(instrumented, "switched").length - getCode(ourClasses.get(CLASS_NAME), "switched").length) % 4);
+		Object sample = newSample(instrumented);
+		assertEquals(Integer.valueOf(11), invoke(sample, "switched", key, Integer.valueOf(1)));
+		assertEquals(Integer.valueOf(-1), invoke(sample, "switched", key, Integer.valueOf(5)));
+		assertCaptured(key, "switched", lineOf("switch (i)"));
+	}
+
+	@Test
+	public void testUninitializedFrames() throws Exception
+	{
+		Object key = new Object();
+		Object sample = newSample(instrument("created", 0));
+		assertEquals("a", invoke(sample, "created", key, Boolean.TRUE).toString());
+		assertEquals("b", invoke(sample, "created", key, Boolean.FALSE).toString());
+		assertCaptured(key, "created", lineOf("new StringBuilder"));
+	}
+
+	@Test
+	public void testTypeAnnotationsAreShifted() throws Exception
+	{
+		byte[] original = ourClasses.get(CLASS_NAME);
+		byte[] instrumented = instrument("cast", 0);
+		byte[] originalCode = getCode(original, "cast");
+		byte[] instrumentedCode = getCode(instrumented, "cast");
+		int shift = instrumentedCode.length - originalCode.length;
+
+		List<Integer> originalOffsets = getTypeAnnotationOffsets(original, "cast");
+		List<Integer> instrumentedOffsets = getTypeAnnotationOffsets(instrumented, "cast");
+		// the cast and the local variable
+		assertEquals(2, originalOffsets.size());
+		assertEquals(originalOffsets.size(), instrumentedOffsets.size());
+		boolean cast = false;
+		for(int i = 0; i < originalOffsets.size(); i++)
+		{
+			int offset = instrumentedOffsets.get(i).intValue();
+			assertEquals(originalOffsets.get(i).intValue() + shift, offset);
+			cast |= (instrumentedCode[offset] & 0xFF) == CHECKCAST;
+		}
+		assertTrue(cast);
+
+		Object key = "cast";
+		Object sample = newSample(instrumented);
+		assertEquals(key, invoke(sample, "cast", key));
+		assertCaptured(key, "cast", lineOf("@Tag String value"));
+	}
+
+	@Test
+	public void testCaptureIsPrepended() throws Exception
+	{
+		byte[] originalCode = getCode(ourClasses.get(CLASS_NAME), "key");
+		byte[] instrumentedCode = getCode(instrument("key", 0), "key");
+		int shift = instrumentedCode.length - originalCode.length;
+		assertEquals(4, shift);
+		// aload_1, invokestatic
+		assertEquals(0x2b, instrumentedCode[0] & 0xFF);
+		assertEquals(0xb8, instrumentedCode[1] & 0xFF);
+		for(int i = 0; i < originalCode.length; i++)
+		{
+			assertEquals(originalCode[i], instrumentedCode[i + shift]);
+		}
+
+		byte[] wideCode = getCode(instrument("wide", 2), "wide");
+		// nops, aload 4, invokestatic
+		assertEquals(NOP, wideCode[0]);
+		assertEquals(NOP, wideCode[1]);
+		assertEquals(NOP, wideCode[2]);
+		assertEquals(0x19, wideCode[3] & 0xFF);
+		assertEquals(4, wideCode[4]);
+		assertEquals(0xb8, wideCode[5] & 0xFF);
+	}
+
+	@Test
+	public void testNotInstrumented() throws Exception
+	{
+		byte[] original = ourClasses.get(CLASS_NAME);
+		assertNull(CaptureInstrumenter.instrument(original, Collections.singletonMap("missing", Integer.valueOf(0))));
+		assertNull(CaptureInstrumenter.instrument(original, Collections.singletonMap("primitive", Integer.valueOf(0))));
+		assertNull(CaptureInstrumenter.instrument(original, Collections.singletonMap("nativeMethod", Integer.valueOf(0))));
+		assertNull(CaptureInstrumenter.instrument(original, Collections.singletonMap("key", Integer.valueOf(1))));
+	}
+
+	private static byte[] instrument(String method, int key) throws IOException
+	{
+		byte[] instrumented = CaptureInstrumenter.instrument(ourClasses.get(CLASS_NAME), Collections.singletonMap(method, Integer.valueOf(key)));
+		assertNotNull(instrumented);
+		return instrumented;
+	}
+
+	private static Class load(byte[] sampleClass) throws ClassNotFoundException
+	{
+		final Map<String, byte[]> classes = new HashMap<String, byte[]>(ourClasses);
+		classes.put(CLASS_NAME, sampleClass);
+		// the storage comes from the parent, the same as from the bootstrap class path with the agent
+		ClassLoader loader = new ClassLoader(CaptureInstrumenterTest.class.getClassLoader())
+		{
+			protected Class<?> findClass(String name) throws ClassNotFoundException
+			{
+				byte[] bytes = classes.get(name);
+				if(bytes == null)
+				{
+					throw new ClassNotFoundException(name);
+				}
+				return defineClass(name, bytes, 0, bytes.length);
+			}
+		};
+		return Class.forName(CLASS_NAME, true, loader);
+	}
+
+	private static Object newSample(byte[] sampleClass) throws Exception
+	{
+		return newSample(sampleClass, null);
+	}
+
+	private static Object newSample(byte[] sampleClass, Object key) throws Exception
+	{
+		return load(sampleClass).getConstructor(Object.class).newInstance(key);
+	}
+
+	private static Object invoke(Object sample, String name, Object... args) throws Exception
+	{
+		for(Method method : sample.getClass().getMethods())
+		{
+			if(method.getName().equals(name))
+			{
+				return method.invoke(sample, args);
+			}
+		}
+		throw new NoSuchMethodException(name);
+	}
+
+	private static void assertCaptured(Object key, String method, int line)
+	{
+		String stack = CaptureStorage.getStack(key);
+		assertNotNull(stack);
+		assertTrue(stack, stack.startsWith(CLASS_NAME + '\t' + method + '\t' + line + '\n'));
+	}
+
+	private static int lineOf(String text)
+	{
+		int offset = SOURCE.indexOf(text);
+		assertTrue(text, offset >= 0);
+		int line = 1;
+		for(int i = 0; i < offset; i++)
+		{
+			if(SOURCE.charAt(i) == '\n')
+			{
+				line++;
+			}
+		}
+		return line;
+	}
+
+	private static byte[] getCode(byte[] classFile, String method) throws IOException
+	{
+		DataInputStream in = findCode(classFile, method);
+		in.skipBytes(4); // max stack and locals
+		byte[] code = new byte[in.readInt()];
+		in.readFully(code);
+		return code;
+	}
+
+	/**
+	 * @return code offsets of the type annotations of the method code, the start offsets for local variables
+	 */
+	private static List<Integer> getTypeAnnotationOffsets(byte[] classFile, String method) throws IOException
+	{
+		String[] utf8 = readConstants(new DataInputStream(new ByteArrayInputStream(classFile)));
+		DataInputStream in = findCode(classFile, method);
+		in.skipBytes(4);
+		in.skipBytes(in.readInt()); // code
+		in.skipBytes(in.readUnsignedShort() * 8); // exception table
+		List<Integer> offsets = new ArrayList<Integer>();
+		int attributeCount = in.readUnsignedShort();
+		for(int i = 0; i < attributeCount; i++)
+		{
+			String name = utf8[in.readUnsignedShort()];
+			int length = in.readInt();
+			if(!"RuntimeVisibleTypeAnnotations".equals(name))
+			{
+				in.skipBytes(length);
+				continue;
+			}
+			int count = in.readUnsignedShort();
+			for(int j = 0; j < count; j++)
+			{
+				int targetType = in.readUnsignedByte();
+				if(targetType == 0x40)
+				{
+					assertEquals(1, in.readUnsignedShort());
+					offsets.add(Integer.valueOf(in.readUnsignedShort()));
+					in.skipBytes(4);
+				}
+				else
+				{
+					assertEquals(0x47, targetType);
+					offsets.add(Integer.valueOf(in.readUnsignedShort()));
+					in.skipBytes(1);
+				}
+				in.skipBytes(in.readUnsignedByte() * 2); // type path
+				in.skipBytes(2); // type
+				assertEquals(0, in.readUnsignedShort());
+			}
+		}
+		return offsets;
+	}
+
+	/**
+	 * @return the stream positioned at the body of the Code attribute of the method
+	 */
+	private static DataInputStream findCode(byte[] classFile, String method) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+		String[] utf8 = readConstants(in);
+		in.skipBytes(6);
+		in.skipBytes(in.readUnsignedShort() * 2); // interfaces
+		int fieldCount = in.readUnsignedShort();
+		for(int i = 0; i < fieldCount; i++)
+		{
+			in.skipBytes(6);
+			skipAttributes(in);
+		}
+		int methodCount = in.readUnsignedShort();
+		for(int i = 0; i < methodCount; i++)
+		{
+			in.skipBytes(2);
+			String name = utf8[in.readUnsignedShort()];
+			in.skipBytes(2);
+			int attributeCount = in.readUnsignedShort();
+			for(int j = 0; j < attributeCount; j++)
+			{
+				String attributeName = utf8[in.readUnsignedShort()];
+				int length = in.readInt();
+				if(name.equals(method) && "Code".equals(attributeName))
+				{
+					return in;
+				}
+				in.skipBytes(length);
+			}
+		}
+		throw new AssertionError("no code of " + method);
+	}
+
+	/**
+	 * @return Utf8 constants of the class file read from the start of the stream
+	 */
+	private static String[] readConstants(DataInputStream in) throws IOException
+	{
+		in.skipBytes(8); // magic and version
+		int count = in.readUnsignedShort();
+		String[] utf8 = new String[count];
+		for(int i = 1; i < count; i++)
+		{
+			int tag = in.readUnsignedByte();
+			if(tag == 1)
+			{
+				utf8[i] = in.readUTF();
+			}
+			else if(tag == 5 || tag == 6)
+			{
+				in.skipBytes(8);
+				i++;
+			}
+			else if(tag == 7 || tag == 8 || tag == 16 || tag == 19 || tag == 20)
+			{
+				in.skipBytes(2);
+			}
+			else if(tag == 15)
+			{
+				in.skipBytes(3);
+			}
+			else
+			{
+				in.skipBytes(4);
+			}
+		}
+		return utf8;
+	}
+
+	private static void skipAttributes(DataInputStream in) throws IOException
+	{
+		int count = in.readUnsignedShort();
+		for(int i = 0; i < count; i++)
+		{
+			in.skipBytes(2);
+			in.skipBytes(in.readInt());
+		}
+	}
+
+	private static byte[] readAll(File file) throws IOException
+	{
+		InputStream stream = new FileInputStream(file);
+		try
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while((read = stream.read(buffer)) > 0)
+			{
+				bytes.write(buffer, 0, read);
+			}
+			return bytes.toByteArray();
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+}
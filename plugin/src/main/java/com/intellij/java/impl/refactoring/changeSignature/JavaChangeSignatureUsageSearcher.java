@@ -45,8 +45,12 @@ import consulo.util.lang.Comparing;
 import consulo.xml.language.psi.XmlElement;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -55,6 +59,7 @@ import java.util.Set;
 class JavaChangeSignatureUsageSearcher {
     private final JavaChangeInfo myChangeInfo;
     private static final Logger LOG = Logger.getInstance(JavaChangeSignatureUsageSearcher.class);
+    private Map<PsiMethod, Collection<PsiReference>> myReferences = Map.of();
 
     JavaChangeSignatureUsageSearcher(JavaChangeInfo changeInfo) {
         this.myChangeInfo = changeInfo;
@@ -65,6 +70,7 @@ class JavaChangeSignatureUsageSearcher {
         List<UsageInfo> result = new ArrayList<>();
         PsiElement element = myChangeInfo.getMethod();
         if (element instanceof PsiMethod method) {
+            findReferences(method);
             findSimpleUsages(method, result);
 
             UsageInfo[] usageInfos = result.toArray(new UsageInfo[result.size()]);
@@ -73,6 +79,57 @@ class JavaChangeSignatureUsageSearcher {
         return UsageInfo.EMPTY_ARRAY;
     }
 
+    /**
+     * Searches references of the method and of the methods the change is propagated to in one pass
+     */
+    @RequiredReadAction
+    private void findReferences(PsiMethod method) {
+        if (!needToChangeCalls() && !myChangeInfo.isParameterTypesChanged()) {
+            return;
+        }
+        Set<PsiMethod> methods = new LinkedHashSet<>();
+        methods.add(method);
+        if (myChangeInfo instanceof JavaChangeInfoImpl changeInfo) {
+            methods.addAll(changeInfo.propagateParametersMethods);
+            methods.addAll(changeInfo.propagateExceptionsMethods);
+        }
+
+        Map<PsiMethod, Collection<PsiReference>> references = new HashMap<>();
+        for (PsiMethod psiMethod : methods) {
+            references.put(psiMethod, new LinkedHashSet<>());
+        }
+        MethodReferencesSearch.searchAll(
+            method.getProject(),
+            methods,
+            GlobalSearchScope.projectScope(method.getProject()),
+            true,
+            (psiMethod, reference) -> {
+                Collection<PsiReference> methodReferences = references.get(psiMethod);
+                synchronized (methodReferences) {
+                    methodReferences.add(reference);
+                }
+                return true;
+            }
+        );
+        myReferences = references;
+    }
+
+    private PsiReference[] getReferences(PsiMethod method, GlobalSearchScope projectScope) {
+        Collection<PsiReference> references = myReferences.get(method);
+        if (references == null) {
+            return MethodReferencesSearch.search(method, projectScope, true).toArray(PsiReference.EMPTY_ARRAY);
+        }
+        return references.toArray(PsiReference.EMPTY_ARRAY);
+    }
+
+    private boolean needToChangeCalls() {
+        return !myChangeInfo.isGenerateDelegate()
+            && (myChangeInfo.isNameChanged() ||
+            myChangeInfo.isParameterSetOrOrderChanged() ||
+            myChangeInfo.isExceptionSetOrOrderChanged() ||
+            myChangeInfo.isVisibilityChanged()/*for checking inaccessible*/);
+    }
+
     @RequiredReadAction
     private void findSimpleUsages(PsiMethod method, List<UsageInfo> result) {
         PsiMethod[] overridingMethods = findSimpleUsagesWithoutParameters(method, result, true, true, true);
@@ -217,15 +274,10 @@ class JavaChangeSignatureUsageSearcher {
             result.add(new OverriderUsageInfo(overridingMethod, method, isOriginal, isToModifyArgs, isToThrowExceptions));
         }
 
-        boolean needToChangeCalls = !myChangeInfo.isGenerateDelegate()
-            && (myChangeInfo.isNameChanged() ||
-            myChangeInfo.isParameterSetOrOrderChanged() ||
-            myChangeInfo.isExceptionSetOrOrderChanged() ||
-            myChangeInfo.isVisibilityChanged()/*for checking inaccessible*/);
-        if (needToChangeCalls) {
+        if (needToChangeCalls()) {
             int parameterCount = method.getParameterList().getParametersCount();
 
-            PsiReference[] refs = MethodReferencesSearch.search(method, projectScope, true).toArray(PsiReference.EMPTY_ARRAY);
+            PsiReference[] refs = getReferences(method, projectScope);
             for (PsiReference ref : refs) {
                 PsiElement element = ref.getElement();
 
@@ -281,7 +333,7 @@ class JavaChangeSignatureUsageSearcher {
             //}
         }
         else if (myChangeInfo.isParameterTypesChanged()) {
-            PsiReference[] refs = MethodReferencesSearch.search(method, projectScope, true).toArray(PsiReference.EMPTY_ARRAY);
+            PsiReference[] refs = getReferences(method, projectScope);
             for (PsiReference reference : refs) {
                 PsiElement element = reference.getElement();
                 if (element instanceof PsiDocTagValue) {
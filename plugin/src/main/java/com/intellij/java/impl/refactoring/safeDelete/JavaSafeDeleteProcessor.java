@@ -21,6 +21,7 @@ import com.intellij.java.impl.ide.util.SuperMethodWarningUtil;
 import com.intellij.java.impl.refactoring.JavaRefactoringSettings;
 import com.intellij.java.impl.refactoring.safeDelete.usageInfo.*;
 import com.intellij.java.impl.refactoring.util.RefactoringMessageUtil;
+import com.intellij.java.indexing.search.searches.MemberReferencesSearch;
 import com.intellij.java.indexing.search.searches.OverridingMethodsSearch;
 import com.intellij.java.language.psi.PsiElementFactory;
 import com.intellij.java.language.psi.*;
@@ -524,9 +525,21 @@ public class JavaSafeDeleteProcessor extends SafeDeleteProcessorDelegateBase {
 
         Map<PsiMethod, Collection<PsiReference>> methodToReferences = new HashMap<>();
         for (PsiMethod overridingMethod : overridingMethods) {
-            Collection<PsiReference> overridingReferences = ReferencesSearch.search(overridingMethod).findAll();
-            methodToReferences.put(overridingMethod, overridingReferences);
+            methodToReferences.put(overridingMethod, new LinkedHashSet<>());
         }
+        // overriding methods share the name, their files are scanned once for all of them
+        MemberReferencesSearch.searchAll(
+            psiMethod.getProject(),
+            Arrays.asList(overridingMethods),
+            GlobalSearchScope.allScope(psiMethod.getProject()),
+            (overridingMethod, reference) -> {
+                Collection<PsiReference> overridingReferences = methodToReferences.get(overridingMethod);
+                synchronized (overridingReferences) {
+                    overridingReferences.add(reference);
+                }
+                return true;
+            }
+        );
         Set<PsiMethod> validOverriding = validateOverridingMethods(
             psiMethod,
             references,
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl.search;
+
+import com.intellij.java.indexing.impl.search.JavaFunctionalExpressionIndex.IndexHolder;
+import com.intellij.java.language.impl.JavaFileType;
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.PsiFileFactory;
+import consulo.language.psi.PsiRecursiveElementWalkingVisitor;
+
+import java.util.*;
+
+/**
+ * The data indexed from the light tree must stay what the former PSI based indexer produced: the called method or class name
+ * mapped to the lambda parameter count (-1 for method references), the argument count and the argument index.
+ */
+public class JavaFunctionalExpressionIndexTest extends LightCodeInsightFixtureTestCase {
+  public void testMethodCallArguments() {
+    doTest("class A {\n" +
+           "  void m(java.util.List<String> list) {\n" +
+           "    foo(x -> x, 1);\n" +
+           "    list.forEach((a) -> {});\n" +
+           "    bar(1, String::valueOf);\n" +
+           "    bar(1, (a, b) -> a);\n" +
+           "  }\n" +
+           "}\n",
+           "foo", holder(1, 2, 0),
+           "forEach", holder(1, 1, 0),
+           "bar", holder(-1, 2, 1),
+           "bar", holder(2, 2, 1));
+  }
+
+  public void testConstructorCalls() {
+    doTest("class A {\n" +
+           "  A(Runnable r) {}\n" +
+           "  A() { this(() -> {}); }\n" +
+           "}\n" +
+           "class B extends A {\n" +
+           "  B() { super(() -> {}); }\n" +
+           "  void m() { new Thread(() -> {}); new java.util.TreeSet<String>(String::compareTo); }\n" +
+           "}\n",
+           "A", holder(0, 1, 0),
+           "Thread", holder(0, 1, 0),
+           "TreeSet", holder(-1, 1, 0));
+  }
+
+  public void testEnumConstants() {
+    doTest("enum E {\n" +
+           "  E1(() -> 1), E2(1, x -> x) {};\n" +
+           "  E(java.util.function.IntSupplier s) {}\n" +
+           "  E(int i, java.util.function.IntUnaryOperator o) {}\n" +
+           "}\n",
+           "E", holder(0, 1, 0),
+           "E", holder(1, 2, 1));
+  }
+
+  public void testNestedArguments() {
+    doTest("class A {\n" +
+           "  void m(boolean b) {\n" +
+           "    foo(bar(x -> x));\n" +
+           "    baz(b ? x -> x : null, 2);\n" +
+           "    foo(() -> { Runnable r = () -> {}; qux(y -> y); });\n" +
+           "  }\n" +
+           "}\n",
+           "bar", holder(1, 1, 0),
+           "baz", holder(1, 2, 0),
+           "foo", holder(0, 1, 0),
+           "qux", holder(1, 1, 0));
+  }
+
+  public void testNotArguments() {
+    doTest("class A {\n" +
+           "  Runnable r = () -> {};\n" +
+           "  java.util.function.Function<String, String> f = String::trim;\n" +
+           "  Object o = new Object(/* x -> x */) {\n" +
+           "    void m(int i) {\n" +
+           "      String s = \"a -> b :: c\";\n" +
+           "      switch (i) { case 1 -> m(2); default -> {} }\n" +
+           "    }\n" +
+           "  };\n" +
+           "  Object p = new Thread(() -> {}) {};\n" +
+           "}\n");
+  }
+
+  /**
+   * @param expected pairs of the called name and the holder indexed for it
+   */
+  private void doTest(String text, Object... expected) {
+    Map<String, Set<IndexHolder>> expectedData = new HashMap<>();
+    for (int i = 0; i < expected.length; i += 2) {
+      expectedData.computeIfAbsent((String)expected[i], __ -> new HashSet<>()).add((IndexHolder)expected[i + 1]);
+    }
+
+    // as indexed, from the light tree of a file which is not parsed
+    PsiFile file = createFile(text);
+    assertEquals(expectedData, JavaFunctionalExpressionIndex.index(file.getNode().getLighterAST(), text));
+
+    // from the light tree backed by the AST of a parsed file
+    PsiFile parsedFile = createFile(text);
+    parsedFile.accept(new PsiRecursiveElementWalkingVisitor() {
+    });
+    assertEquals(expectedData, JavaFunctionalExpressionIndex.index(parsedFile.getNode().getLighterAST(), text));
+  }
+
+  private PsiFile createFile(String text) {
+    return PsiFileFactory.getInstance(getProject()).createFileFromText("A.java", JavaFileType.INSTANCE, text);
+  }
+
+  private static IndexHolder holder(int lambdaParamsNumber, int methodArgsLength, int functionExpressionIndex) {
+    return new IndexHolder(lambdaParamsNumber, methodArgsLength, functionExpressionIndex);
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.impl.compiled;
+
+import com.intellij.java.language.impl.psi.impl.java.stubs.PsiJavaFileStub;
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+import consulo.application.Application;
+import consulo.application.WriteAction;
+import consulo.disposer.Disposer;
+import consulo.language.impl.DebugUtil;
+import consulo.util.io.FileUtil;
+import consulo.virtualFileSystem.LocalFileSystem;
+import consulo.virtualFileSystem.VirtualFile;
+import consulo.virtualFileSystem.archive.ArchiveVfsUtil;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class ClsPackageStubBuilderTest extends LightCodeInsightFixtureTestCase {
+  private static final String JAR = "/psi/generics22/collect-2.2.jar";
+
+  private ClsPackageStubBuilder myBuilder;
+  private File myTempDir;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myBuilder = new ClsPackageStubBuilder(Application.get());
+    Disposer.register(getTestRootDisposable(), myBuilder);
+    myTempDir = FileUtil.createTempDirectory("clsPackageStubs", null);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      FileUtil.delete(myTempDir);
+    }
+    finally {
+      myBuilder = null;
+      super.tearDown();
+    }
+  }
+
+  public void testPackageStubsEqualSingleStubs() throws Exception {
+    List<VirtualFile> classes = getTopLevelClasses(copyJar(), "java/util");
+    assertTrue(classes.size() > 2);
+
+    for (int i = 0; i < classes.size(); i++) {
+      VirtualFile file = classes.get(i);
+      byte[] content = file.contentsToByteArray();
+      assertEquals(file.getPath(), stubToString(ClsFileImpl.buildFileStub(file, content)), stubToString(myBuilder.buildFileStub(file, content)));
+      if (i == 1) {
+        // the second class requested builds the rest of the package
+        assertEquals(classes.size() - 2, myBuilder.getPendingStubCount());
+      }
+    }
+    assertEquals(0, myBuilder.getPendingStubCount());
+  }
+
+  public void testJarChangeDropsPackageStubs() throws Exception {
+    VirtualFile jar = copyJar();
+    List<VirtualFile> classes = getTopLevelClasses(jar, "java/util");
+    for (VirtualFile file : classes.subList(0, 2)) {
+      myBuilder.buildFileStub(file, file.contentsToByteArray());
+    }
+    assertEquals(classes.size() - 2, myBuilder.getPendingStubCount());
+
+    byte[] content = jar.contentsToByteArray();
+    WriteAction.run(() -> jar.setBinaryContent(content));
+    assertEquals(0, myBuilder.getPendingStubCount());
+  }
+
+  private VirtualFile copyJar() throws Exception {
+    File jar = new File(myTempDir, "collect.jar");
+    FileUtil.copy(new File(getClass().getResource(JAR).toURI()), jar);
+    VirtualFile file = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(jar);
+    assertNotNull(file);
+    return file;
+  }
+
+  private static List<VirtualFile> getTopLevelClasses(VirtualFile jar, String directoryPath) {
+    VirtualFile root = ArchiveVfsUtil.getJarRootForLocalFile(jar);
+    assertNotNull(root);
+    VirtualFile directory = root.findFileByRelativePath(directoryPath);
+    assertNotNull(directory);
+
+    List<VirtualFile> classes = new ArrayList<>();
+    for (VirtualFile file : directory.getChildren()) {
+      if ("class".equals(file.getExtension()) && file.getName().indexOf('$') < 0) {
+        classes.add(file);
+      }
+    }
+    classes.sort(Comparator.comparing(VirtualFile::getName));
+    return classes;
+  }
+
+  private static String stubToString(PsiJavaFileStub stub) {
+    return stub == null ? "null" : DebugUtil.stubTreeToString(stub);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.impl.source.resolve.graphInference;
+
+import com.intellij.java.language.psi.PsiMethodCallExpression;
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+import consulo.application.util.CachedValueProvider;
+import consulo.document.Document;
+import consulo.language.editor.WriteCommandAction;
+import consulo.language.psi.PsiDocumentManager;
+import consulo.language.psi.util.LanguageCachedValueUtil;
+import consulo.language.psi.util.PsiTreeUtil;
+
+public class TopLevelSessionCacheTest extends LightCodeInsightFixtureTestCase {
+  private static final String TEXT = "import java.util.*;\n" +
+                                     "class A {\n" +
+                                     "  void foo() {\n" +
+                                     "    int before = 0;\n" +
+                                     "    List<String> list = Collections.<caret>emptyList();\n" +
+                                     "    int after = 0;\n" +
+                                     "  }\n" +
+                                     "}\n";
+
+  private int myComputations;
+
+  public void testEditAfterCallKeepsSession() {
+    PsiMethodCallExpression call = configure();
+    Object session = getSession(call);
+
+    replace("after = 0", "after = 1");
+
+    assertTrue(call.isValid());
+    assertSame(session, getSession(call));
+    assertEquals(1, myComputations);
+  }
+
+  public void testEditBeforeCallDropsSession() {
+    PsiMethodCallExpression call = configure();
+    Object session = getSession(call);
+
+    replace("before = 0", "before = 1");
+
+    assertTrue(call.isValid());
+    assertNotSame(session, getSession(call));
+    assertEquals(2, myComputations);
+  }
+
+  private PsiMethodCallExpression configure() {
+    myFixture.configureByText("A.java", TEXT);
+    PsiMethodCallExpression call = PsiTreeUtil.getParentOfType(myFixture.getFile().findElementAt(myFixture.getEditor().getCaretModel().getOffset()), PsiMethodCallExpression.class);
+    assertNotNull(call);
+    return call;
+  }
+
+  /**
+   * Caches a value with the same dependencies as the top level inference session of the call
+   */
+  private Object getSession(PsiMethodCallExpression call) {
+    return LanguageCachedValueUtil.getCachedValue(call, () -> {
+      myComputations++;
+      return CachedValueProvider.Result.create(new Object(), InferenceSessionContainer.getTopLevelSessionDependencies(call));
+    });
+  }
+
+  private void replace(String oldText, String newText) {
+    Document document = myFixture.getEditor().getDocument();
+    int offset = document.getText().indexOf(oldText);
+    assertTrue(offset >= 0);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> document.replaceString(offset, offset + oldText.length(), newText));
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+  }
+}
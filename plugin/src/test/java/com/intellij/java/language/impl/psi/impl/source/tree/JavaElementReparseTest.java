@@ -0,0 +1,149 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.impl.source.tree;
+
+import com.intellij.java.language.impl.psi.impl.java.stubs.JavaStubElementTypes;
+import com.intellij.java.language.psi.PsiLambdaExpression;
+import com.intellij.java.language.psi.PsiSwitchLabeledRuleStatement;
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+import consulo.language.ast.ASTNode;
+import consulo.language.ast.ILazyParseableElementTypeBase;
+import consulo.language.editor.WriteCommandAction;
+import consulo.language.impl.DebugUtil;
+import consulo.language.impl.internal.psi.diff.BlockSupport;
+import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.util.PsiTreeUtil;
+
+/**
+ * Edits inside lambdas and switch rules, which are reparsed on their own, must leave the same tree as a full parse.
+ */
+public class JavaElementReparseTest extends LightCodeInsightFixtureTestCase {
+  public void testExpressionLambdaBody() {
+    doTest("class A {\n" +
+           "  Runnable r = () -> foo(1);\n" +
+           "  void foo(int i) {}\n" +
+           "}\n", "foo(1)", "foo(1 + 2)");
+  }
+
+  public void testExpressionLambdaParameters() {
+    doTest("class A {\n" +
+           "  void foo() {\n" +
+           "    java.util.function.Function<String, Integer> f = s -> s.length();\n" +
+           "  }\n" +
+           "}\n", "s -> s", "(String s) -> s");
+  }
+
+  public void testLambdaUnderCast() {
+    doTest("class A {\n" +
+           "  Object o = (Runnable) () -> foo();\n" +
+           "  void foo() {}\n" +
+           "}\n", "foo()", "this.foo()");
+  }
+
+  public void testLambdaBecomesOtherExpression() {
+    doTest("class A {\n" +
+           "  Runnable r = () -> foo();\n" +
+           "  void foo() {}\n" +
+           "}\n", "() -> foo()", "() -> foo(), x");
+  }
+
+  public void testSwitchRuleBody() {
+    doTest("class A {\n" +
+           "  int foo(int i) {\n" +
+           "    return switch (i) {\n" +
+           "      case 1 -> i + 1;\n" +
+           "      default -> 0;\n" +
+           "    };\n" +
+           "  }\n" +
+           "}\n", "i + 1", "i * 2 + 1");
+  }
+
+  public void testSwitchRuleLabel() {
+    doTest("class A {\n" +
+           "  void foo(int i) {\n" +
+           "    switch (i) {\n" +
+           "      case 1 -> foo(2);\n" +
+           "      default -> {}\n" +
+           "    }\n" +
+           "  }\n" +
+           "}\n", "case 1", "case 1, 3");
+  }
+
+  public void testSwitchRuleBecomesStatementGroup() {
+    doTest("class A {\n" +
+           "  void foo(int i) {\n" +
+           "    switch (i) {\n" +
+           "      case 1 -> foo(2);\n" +
+           "      default -> {}\n" +
+           "    }\n" +
+           "  }\n" +
+           "}\n", "case 1 -> foo(2);", "case 1: foo(2);");
+  }
+
+  public void testLambdaContents() {
+    myFixture.configureByText("A.java", "class A {\n" +
+                                        "  Runnable r = () -> foo();\n" +
+                                        "  void foo() {}\n" +
+                                        "}\n");
+    doTestContents(PsiTreeUtil.findChildOfType(myFixture.getFile(), PsiLambdaExpression.class));
+  }
+
+  public void testSwitchRuleContents() {
+    myFixture.configureByText("A.java", "class A {\n" +
+                                        "  void foo(int i) {\n" +
+                                        "    switch (i) {\n" +
+                                        "      case 1 -> foo(2);\n" +
+                                        "    }\n" +
+                                        "  }\n" +
+                                        "}\n");
+    doTestContents(PsiTreeUtil.findChildOfType(myFixture.getFile(), PsiSwitchLabeledRuleStatement.class));
+  }
+
+  private void doTest(String text, String oldText, String newText) {
+    PsiFile file = myFixture.configureByText("A.java", text);
+    int offset = text.indexOf(oldText);
+    assertTrue(offset >= 0);
+
+    BlockSupport blockSupport = getProject().getInstance(BlockSupport.class);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> blockSupport.reparseRange(file, offset, offset + oldText.length(), newText));
+
+    String expectedText = text.substring(0, offset) + newText + text.substring(offset + oldText.length());
+    assertEquals(expectedText, file.getText());
+    PsiFile expected = myFixture.addFileToProject("B.java", expectedText);
+    assertEquals(DebugUtil.treeToString(expected.getNode(), false), DebugUtil.treeToString(file.getNode(), false));
+  }
+
+  private static void doTestContents(PsiElement element) {
+    assertNotNull(element);
+    ASTNode node = element.getNode();
+    assertTrue(node.getElementType() == JavaStubElementTypes.LAMBDA_EXPRESSION || node.getElementType() == JavaElementType.SWITCH_LABELED_RULE);
+
+    ASTNode contents = ((ILazyParseableElementTypeBase)node.getElementType()).parseContents(node);
+    StringBuilder text = new StringBuilder();
+    StringBuilder structure = new StringBuilder();
+    for (ASTNode child = contents; child != null; child = child.getTreeNext()) {
+      text.append(child.getText());
+      structure.append(DebugUtil.treeToString(child, false));
+    }
+    StringBuilder expectedStructure = new StringBuilder();
+    for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+      expectedStructure.append(DebugUtil.treeToString(child, false));
+    }
+    assertEquals(node.getText(), text.toString());
+    assertEquals(expectedStructure.toString(), structure.toString());
+  }
+}
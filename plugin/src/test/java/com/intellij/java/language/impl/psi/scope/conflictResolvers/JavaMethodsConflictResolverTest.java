@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.scope.conflictResolvers;
+
+import com.intellij.java.language.projectRoots.JavaSdkVersion;
+import com.intellij.java.language.psi.JavaResolveResult;
+import com.intellij.java.language.psi.PsiJavaReference;
+import com.intellij.java.language.psi.PsiMethod;
+import com.intellij.testFramework.IdeaTestUtil;
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+import consulo.language.psi.PsiReference;
+
+/**
+ * Overload resolution of calls whose candidates are pre-filtered by the erasures of the argument types.
+ */
+public class JavaMethodsConflictResolverTest extends LightCodeInsightFixtureTestCase {
+  public void testMultiBoundTypeVariable() {
+    assertAmbiguous(configure("class MultiBound {\n" +
+                              "  void foo(Number n) {}\n" +
+                              "  void foo(Comparable c) {}\n" +
+                              "\n" +
+                              "  <T extends Number & Comparable<T>> void bar(T t) {\n" +
+                              "    <caret>foo(t);\n" +
+                              "  }\n" +
+                              "}\n"));
+  }
+
+  public void testMultiBoundTypeVariableArray() {
+    assertAmbiguous(configure("class MultiBound {\n" +
+                              "  void foo(Number[] n) {}\n" +
+                              "  void foo(Comparable[] c) {}\n" +
+                              "\n" +
+                              "  <T extends Number & Comparable<T>> void bar(T[] t) {\n" +
+                              "    <caret>foo(t);\n" +
+                              "  }\n" +
+                              "}\n"));
+  }
+
+  public void testIntersectionCast() {
+    IdeaTestUtil.setTestVersion(JavaSdkVersion.JDK_1_8, myModule, getTestRootDisposable());
+    assertAmbiguous(configure("class MultiBound {\n" +
+                              "  void foo(Number n) {}\n" +
+                              "  void foo(Comparable c) {}\n" +
+                              "\n" +
+                              "  void bar(Object o) {\n" +
+                              "    <caret>foo((Number & Comparable<Integer>) o);\n" +
+                              "  }\n" +
+                              "}\n"));
+  }
+
+  public void testSecondBoundOnly() {
+    PsiJavaReference ref = configure("class MultiBound {\n" +
+                                     "  void foo(Runnable r) {}\n" +
+                                     "  void foo(String s) {}\n" +
+                                     "\n" +
+                                     "  <T extends Number & Runnable> void bar(T t) {\n" +
+                                     "    <caret>foo(t);\n" +
+                                     "  }\n" +
+                                     "}\n");
+    assertParameterType("Runnable", ref);
+  }
+
+  public void testErasedArguments() {
+    PsiJavaReference ref = configure("import java.util.*;\n" +
+                                     "class A {\n" +
+                                     "  void foo(String s, int i) {}\n" +
+                                     "  void foo(int i, String s) {}\n" +
+                                     "  void foo(List<String> l, int i) {}\n" +
+                                     "  void foo(Collection<String> c, long l) {}\n" +
+                                     "\n" +
+                                     "  void bar(ArrayList<String> list) {\n" +
+                                     "    <caret>foo(list, 1);\n" +
+                                     "  }\n" +
+                                     "}\n");
+    assertParameterType("List<String>", ref);
+  }
+
+  public void testNoApplicableCandidateKeepsRejectedCandidates() {
+    // foo(String) is rejected by the erasure, foo(List<String>) by the applicability check
+    assertAmbiguous(configure("import java.util.*;\n" +
+                              "class A {\n" +
+                              "  void foo(String s) {}\n" +
+                              "  void foo(List<String> l) {}\n" +
+                              "\n" +
+                              "  void bar(ArrayList<Integer> list) {\n" +
+                              "    <caret>foo(list);\n" +
+                              "  }\n" +
+                              "}\n"));
+  }
+
+  private PsiJavaReference configure(String text) {
+    myFixture.configureByText("A.java", text);
+    PsiReference ref = myFixture.getFile().findReferenceAt(myFixture.getEditor().getCaretModel().getOffset());
+    assertTrue(ref instanceof PsiJavaReference);
+    return (PsiJavaReference)ref;
+  }
+
+  private static void assertAmbiguous(PsiJavaReference ref) {
+    JavaResolveResult result = ref.advancedResolve(true);
+    assertFalse(result.isValidResult());
+    assertEquals(2, ref.multiResolve(false).length);
+  }
+
+  private static void assertParameterType(String expected, PsiJavaReference ref) {
+    JavaResolveResult result = ref.advancedResolve(true);
+    assertTrue(result.isValidResult());
+    PsiMethod method = (PsiMethod)result.getElement();
+    assertEquals(expected, method.getParameterList().getParameters()[0].getType().getPresentableText());
+  }
+}
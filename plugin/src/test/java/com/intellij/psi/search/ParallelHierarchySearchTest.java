@@ -0,0 +1,175 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.psi.search;
+
+import com.intellij.java.indexing.impl.JavaIndexingRegistry;
+import com.intellij.java.indexing.search.searches.AllOverridingMethodsSearch;
+import com.intellij.java.indexing.search.searches.ClassInheritorsSearch;
+import com.intellij.java.indexing.search.searches.OverridingMethodsSearch;
+import com.intellij.java.language.psi.PsiClass;
+import com.intellij.java.language.psi.PsiMethod;
+import com.intellij.testFramework.IdeaTestUtil;
+import com.intellij.testFramework.PsiTestCase;
+import com.intellij.testFramework.PsiTestUtil;
+import consulo.application.ApplicationManager;
+import consulo.application.util.function.Computable;
+import consulo.application.util.registry.Registry;
+import consulo.application.util.registry.RegistryValue;
+import consulo.language.psi.scope.GlobalSearchScope;
+import consulo.util.lang.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Hierarchy searches look up inheritors and overriding methods in parallel, both when started on a pooled thread
+ * and inside of a read action, where the calling thread also computes what the workers have not started. Both must find
+ * the same as the sequential search.
+ */
+public class ParallelHierarchySearchTest extends PsiTestCase {
+  // more than a batch of the parallel search
+  private static final int CLASS_COUNT = 300;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    PsiTestUtil.removeAllRoots(myModule, IdeaTestUtil.getMockJdk17());
+    createFile(myModule, "Base.java", "interface Base { void foo(); void bar(); }");
+    for (int i = 0; i < CLASS_COUNT; i++) {
+      String superClass = i == 0 ? "implements Base" : "extends C" + (i - 1) / 2;
+      String foo = i % 3 == 0 ? "public void foo() {}" : "";
+      String bar = i % 5 == 0 ? "public void bar() {}" : "";
+      createFile(myModule, "C" + i + ".java", "abstract class C" + i + " " + superClass + " { " + foo + bar + " }");
+    }
+  }
+
+  public void testInheritors() throws Exception {
+    PsiClass base = findClass("Base");
+    List<String> sequential = doTest(() -> classNames(ClassInheritorsSearch.search(base, scope(), true).findAll()));
+
+    assertEquals(CLASS_COUNT, sequential.size());
+  }
+
+  public void testOverridingMethods() throws Exception {
+    PsiMethod foo = findClass("Base").findMethodsByName("foo", false)[0];
+    List<String> sequential = doTest(() -> methodClassNames(OverridingMethodsSearch.search(foo, scope(), true).findAll()));
+
+    assertEquals(CLASS_COUNT / 3, sequential.size());
+  }
+
+  public void testAllOverridingMethods() throws Exception {
+    PsiClass base = findClass("Base");
+    List<String> sequential = doTest(() -> pairNames(AllOverridingMethodsSearch.search(base, scope()).findAll()));
+
+    assertFalse(sequential.isEmpty());
+  }
+
+  public void testFirstInheritorStopsSearch() throws Exception {
+    PsiClass base = findClass("Base");
+    final int[] count = {0};
+    onPooledThread(() -> ClassInheritorsSearch.search(base, scope(), true).forEach(aClass -> {
+      count[0]++;
+      return false;
+    }));
+
+    assertEquals(1, count[0]);
+  }
+
+  /**
+   * @return the names found by the sequential search, after checking that the parallel search finds the same ones
+   * inside a read action and on a pooled thread
+   */
+  private static List<String> doTest(Callable<List<String>> search) throws Exception {
+    List<String> sequential = withParallelSearch(false, () -> onPooledThread(search));
+    List<String> inReadAction = withParallelSearch(true, () -> inReadAction(() -> call(search)));
+    List<String> onPooledThread = withParallelSearch(true, () -> onPooledThread(search));
+
+    assertSameElements(inReadAction, sequential);
+    assertSameElements(onPooledThread, sequential);
+    return sequential;
+  }
+
+  private static <T> T withParallelSearch(boolean parallel, Callable<T> search) throws Exception {
+    RegistryValue value = Registry.get(JavaIndexingRegistry.HIERARCHY_SEARCH_PARALLEL);
+    boolean oldValue = Registry.is(JavaIndexingRegistry.HIERARCHY_SEARCH_PARALLEL, true);
+    value.setValue(parallel);
+    try {
+      return search.call();
+    }
+    finally {
+      value.setValue(oldValue);
+    }
+  }
+
+  private PsiClass findClass(String name) {
+    PsiClass aClass = myJavaFacade.findClass(name, scope());
+    assertNotNull(aClass);
+    return aClass;
+  }
+
+  private GlobalSearchScope scope() {
+    return GlobalSearchScope.projectScope(myProject);
+  }
+
+  private static <T> T inReadAction(Computable<T> search) {
+    return ApplicationManager.getApplication().runReadAction(search);
+  }
+
+  private static <T> T onPooledThread(Callable<T> search) throws Exception {
+    return ApplicationManager.getApplication().executeOnPooledThread(search).get();
+  }
+
+  private static <T> T call(Callable<T> search) {
+    try {
+      return search.call();
+    }
+    catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static List<String> classNames(Iterable<PsiClass> classes) {
+    return inReadAction(() -> {
+      List<String> names = new ArrayList<>();
+      for (PsiClass aClass : classes) {
+        names.add(aClass.getName());
+      }
+      return names;
+    });
+  }
+
+  private static List<String> methodClassNames(Iterable<PsiMethod> methods) {
+    return inReadAction(() -> {
+      List<String> names = new ArrayList<>();
+      for (PsiMethod method : methods) {
+        names.add(method.getContainingClass().getName());
+      }
+      return names;
+    });
+  }
+
+  private static List<String> pairNames(Iterable<Pair<PsiMethod, PsiMethod>> pairs) {
+    return inReadAction(() -> {
+      List<String> names = new ArrayList<>();
+      for (Pair<PsiMethod, PsiMethod> pair : pairs) {
+        names.add(pair.getFirst().getName() + " in " + pair.getSecond().getContainingClass().getName());
+      }
+      return names;
+    });
+  }
+}